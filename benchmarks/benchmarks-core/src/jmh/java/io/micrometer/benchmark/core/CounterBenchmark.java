@@ -17,6 +17,8 @@ package io.micrometer.benchmark.core;
 
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.micrometer.prometheus.PrometheusConfig;
 import io.micrometer.prometheus.PrometheusMeterRegistry;
 import org.openjdk.jmh.annotations.*;
@@ -48,10 +50,20 @@ public class CounterBenchmark {
     private MeterRegistry registry;
     private Counter counter;
 
+    /**
+     * A composite fanning out to two backends, as when exporting to Prometheus and one other system.
+     */
+    private Counter compositeCounter;
+
     @Setup
     public void setup() {
         registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
         counter = registry.counter("counter");
+
+        CompositeMeterRegistry composite = new CompositeMeterRegistry();
+        composite.add(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+        composite.add(new SimpleMeterRegistry());
+        compositeCounter = composite.counter("counter");
     }
 
     @Benchmark
@@ -60,6 +72,12 @@ public class CounterBenchmark {
         return sum();
     }
 
+    @Benchmark
+    public int countSumComposite() {
+        compositeCounter.increment();
+        return sum();
+    }
+
     @Benchmark
     public int countSumWithRegistryLookup() {
         registry.counter("counter").increment();
@@ -0,0 +1,96 @@
+/**
+ * Copyright 2018 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.benchmark.core;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.PercentileHistogramBuckets;
+import io.micrometer.core.instrument.distribution.TimeWindowFixedBoundaryHistogram;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares recording into percentile histogram buckets, whose index is derived in constant time, with recording
+ * into the same number of arbitrary SLO boundaries, which are binary searched.
+ */
+@Fork(1)
+@Measurement(iterations = 2)
+@Warmup(iterations = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class FixedBoundaryHistogramBenchmark {
+    private static final int SAMPLES = 1024;
+
+    private TimeWindowFixedBoundaryHistogram percentileHistogram;
+    private TimeWindowFixedBoundaryHistogram sloHistogram;
+    private final long[] samples = new long[SAMPLES];
+    private int i;
+
+    @Setup
+    public void setup() {
+        DistributionStatisticConfig percentileConfig = DistributionStatisticConfig.builder()
+                .percentilesHistogram(true)
+                .minimumExpectedValue((double) TimeUnit.MILLISECONDS.toNanos(1))
+                .maximumExpectedValue((double) TimeUnit.SECONDS.toNanos(30))
+                .build()
+                .merge(DistributionStatisticConfig.DEFAULT);
+        percentileHistogram = new TimeWindowFixedBoundaryHistogram(Clock.SYSTEM, percentileConfig, true);
+
+        // the same boundaries, shifted off the percentile bucket layout
+        double[] slos = PercentileHistogramBuckets.buckets(percentileConfig).stream()
+                .mapToDouble(bucket -> bucket + 0.5)
+                .toArray();
+        sloHistogram = new TimeWindowFixedBoundaryHistogram(Clock.SYSTEM, DistributionStatisticConfig.builder()
+                .serviceLevelObjectives(slos)
+                .build()
+                .merge(DistributionStatisticConfig.DEFAULT), true);
+
+        Random random = new Random(1);
+        for (int j = 0; j < SAMPLES; j++) {
+            samples[j] = (long) Math.exp(Math.log(TimeUnit.MILLISECONDS.toNanos(1)) + random.nextDouble() * 10);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        percentileHistogram.close();
+        sloHistogram.close();
+    }
+
+    @Benchmark
+    public void percentileBuckets() {
+        percentileHistogram.recordLong(samples[i++ & (SAMPLES - 1)]);
+    }
+
+    @Benchmark
+    public void sloBuckets() {
+        sloHistogram.recordLong(samples[i++ & (SAMPLES - 1)]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(FixedBoundaryHistogramBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+}
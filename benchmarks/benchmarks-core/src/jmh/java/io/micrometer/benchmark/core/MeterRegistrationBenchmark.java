@@ -23,7 +23,9 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @State(Scope.Benchmark)
 @OutputTimeUnit(TimeUnit.MICROSECONDS)
@@ -57,4 +59,92 @@ public class MeterRegistrationBenchmark {
     public int sum() {
         return x + y;
     }
+
+    /**
+     * Shared registry that many threads register against at once. Every invocation registers a meter with
+     * a tag value that has not been seen before, the way a burst of new tag values does at startup.
+     */
+    @State(Scope.Benchmark)
+    public static class ContendedRegistration {
+        MeterRegistry registry;
+        final AtomicInteger sequence = new AtomicInteger();
+
+        @Setup(Level.Iteration)
+        public void setup() {
+            registry = new SimpleMeterRegistry();
+            sequence.set(0);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() {
+            registry.close();
+        }
+
+        Object registerNew() {
+            return registry.counter("my.counter", "k", Integer.toString(sequence.incrementAndGet()));
+        }
+
+        Object registerMostlyExisting() {
+            // one in sixteen registrations introduces a new id
+            int i = ThreadLocalRandom.current().nextInt(16) == 0 ?
+                    sequence.incrementAndGet() : ThreadLocalRandom.current().nextInt(1024);
+            return registry.counter("my.counter", "k", Integer.toString(i));
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    @BenchmarkMode(Mode.Throughput)
+    public Object contendedRegistration_1_thread(ContendedRegistration state) {
+        return state.registerNew();
+    }
+
+    @Benchmark
+    @Threads(4)
+    @BenchmarkMode(Mode.Throughput)
+    public Object contendedRegistration_4_threads(ContendedRegistration state) {
+        return state.registerNew();
+    }
+
+    @Benchmark
+    @Threads(16)
+    @BenchmarkMode(Mode.Throughput)
+    public Object contendedRegistration_16_threads(ContendedRegistration state) {
+        return state.registerNew();
+    }
+
+    @Benchmark
+    @Threads(64)
+    @BenchmarkMode(Mode.Throughput)
+    public Object contendedRegistration_64_threads(ContendedRegistration state) {
+        return state.registerNew();
+    }
+
+    @Benchmark
+    @Threads(1)
+    @BenchmarkMode(Mode.Throughput)
+    public Object contendedMixedRegistration_1_thread(ContendedRegistration state) {
+        return state.registerMostlyExisting();
+    }
+
+    @Benchmark
+    @Threads(4)
+    @BenchmarkMode(Mode.Throughput)
+    public Object contendedMixedRegistration_4_threads(ContendedRegistration state) {
+        return state.registerMostlyExisting();
+    }
+
+    @Benchmark
+    @Threads(16)
+    @BenchmarkMode(Mode.Throughput)
+    public Object contendedMixedRegistration_16_threads(ContendedRegistration state) {
+        return state.registerMostlyExisting();
+    }
+
+    @Benchmark
+    @Threads(64)
+    @BenchmarkMode(Mode.Throughput)
+    public Object contendedMixedRegistration_64_threads(ContendedRegistration state) {
+        return state.registerMostlyExisting();
+    }
 }
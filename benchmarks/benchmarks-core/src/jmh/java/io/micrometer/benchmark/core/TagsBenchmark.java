@@ -42,6 +42,42 @@ public class TagsBenchmark {
         Tags.of("key", "value").and("key2", "value2", "key3", "value3", "key4", "value4", "key5", "value5");
     }
 
+    @Threads(16)
+    @Benchmark
+    public Tags ofSorted() {
+        return Tags.of("key", "value", "key2", "value2", "key3", "value3");
+    }
+
+    @Threads(16)
+    @Benchmark
+    public Tags dotAndKeyValue(TagsState state) {
+        return state.tags.and("key5", "value5");
+    }
+
+    @Threads(16)
+    @Benchmark
+    public Tags dotAndExistingKeyValue(TagsState state) {
+        return state.tags.and("key2", "value2");
+    }
+
+    @Threads(16)
+    @Benchmark
+    public Tags dotAndTags(TagsState state) {
+        return state.tags.and(state.otherTags);
+    }
+
+    @Threads(16)
+    @Benchmark
+    public int hashCodeOfTags(TagsState state) {
+        return state.tags.hashCode();
+    }
+
+    @State(Scope.Benchmark)
+    public static class TagsState {
+        final Tags tags = Tags.of("key", "value", "key2", "value2", "key3", "value3", "key4", "value4");
+        final Tags otherTags = Tags.of("key1", "value1", "key3", "value3b", "key6", "value6");
+    }
+
     public static void main(String[] args) throws RunnerException {
         Options opt = new OptionsBuilder()
                 .include(TagsBenchmark.class.getSimpleName())
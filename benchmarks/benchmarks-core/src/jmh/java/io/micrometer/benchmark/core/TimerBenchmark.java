@@ -17,6 +17,8 @@ package io.micrometer.benchmark.core;
 
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.micrometer.prometheus.PrometheusConfig;
 import io.micrometer.prometheus.PrometheusMeterRegistry;
 import org.openjdk.jmh.annotations.*;
@@ -25,6 +27,7 @@ import org.openjdk.jmh.runner.RunnerException;
 import org.openjdk.jmh.runner.options.Options;
 import org.openjdk.jmh.runner.options.OptionsBuilder;
 
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 
 @State(Scope.Benchmark)
@@ -45,6 +48,11 @@ public class TimerBenchmark {
     private MeterRegistry registry;
     private Timer timer;
 
+    /**
+     * A composite fanning out to two backends, as when exporting to Prometheus and one other system.
+     */
+    private Timer compositeTimer;
+
     int x = 923;
     int y = 123;
 
@@ -52,6 +60,11 @@ public class TimerBenchmark {
     public void setup() {
         registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
         timer = registry.timer("timer");
+
+        CompositeMeterRegistry composite = new CompositeMeterRegistry();
+        composite.add(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT));
+        composite.add(new SimpleMeterRegistry());
+        compositeTimer = composite.timer("timer");
     }
 
     @Benchmark
@@ -67,11 +80,36 @@ public class TimerBenchmark {
         return sum;
     }
 
+    @Benchmark
+    public int sumTimedComposite() {
+        return compositeTimer.record(this::sum);
+    }
+
+    @Benchmark
+    public void recordComposite() {
+        compositeTimer.record(1_000, TimeUnit.NANOSECONDS);
+    }
+
     @Benchmark
     public int sumTimedWithRegistryLookup() {
         return registry.timer("timer").record(this::sum);
     }
 
+    /**
+     * Many threads recording into one hot timer, where every recording also updates its decaying max.
+     */
+    @Benchmark
+    @Threads(16)
+    public int sumTimedWithSupplierContended() {
+        return timer.record(this::sum);
+    }
+
+    @Benchmark
+    @Threads(16)
+    public void recordVaryingDurationsContended() {
+        timer.record(ThreadLocalRandom.current().nextLong(1_000_000), TimeUnit.NANOSECONDS);
+    }
+
     @Benchmark
     public int sum() {
         return x + y;
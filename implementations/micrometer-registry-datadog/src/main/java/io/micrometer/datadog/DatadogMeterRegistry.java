@@ -26,8 +26,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.URLEncoder;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -98,45 +96,46 @@ public class DatadogMeterRegistry extends StepMeterRegistry {
 
     @Override
     protected void publish() {
-        Map<String, DatadogMetricMetadata> metadataToSend = new HashMap<>();
+        // batches may be serialized concurrently, see PushRegistryConfig#publishParallelism()
+        Map<String, DatadogMetricMetadata> metadataToSend = new ConcurrentHashMap<>();
 
         String datadogEndpoint = config.uri() + "/api/v1/series?api_key=" + config.apiKey();
 
         try {
-            for (List<Meter> batch : MeterPartition.partition(this, config.batchSize())) {
-                /*
-                Example post body from Datadog API docs. Host and tags are optional.
-                "{ \"series\" :
-                        [{\"metric\":\"test.metric\",
-                          \"points\":[[$currenttime, 20]],
-                          \"host\":\"test.example.com\",
-                          \"type\":\"count\",
-                          \"unit\":\"millisecond\",
-                          \"tags\":[\"environment:test\"]}
-                        ]
-                }"
-                */
-                String body = batch.stream().flatMap(meter -> meter.match(
-                        m -> writeMeter(m, metadataToSend), // visitGauge
-                        m -> writeMeter(m, metadataToSend), // visitCounter
-                        timer -> writeTimer(timer, metadataToSend), // visitTimer
-                        summary -> writeSummary(summary, metadataToSend), // visitSummary
-                        m -> writeMeter(m, metadataToSend), // visitLongTaskTimer
-                        m -> writeMeter(m, metadataToSend), // visitTimeGauge
-                        m -> writeMeter(m, metadataToSend), // visitFunctionCounter
-                        timer -> writeTimer(timer, metadataToSend), // visitFunctionTimer
-                        m -> writeMeter(m, metadataToSend)) // visitMeter
-                ).collect(joining(",", "{\"series\":[", "]}"));
-
-                logger.trace("sending metrics batch to datadog:{}{}", System.lineSeparator(), body);
-
-                httpClient.post(datadogEndpoint)
-                        .withJsonContent(
-                                body)
-                        .send()
-                        .onSuccess(response -> logger.debug("successfully sent {} metrics to datadog", batch.size()))
-                        .onError(response -> logger.error("failed to send metrics to datadog: {}", response.body()));
-            }
+            /*
+            Example post body from Datadog API docs. Host and tags are optional.
+            "{ \"series\" :
+                    [{\"metric\":\"test.metric\",
+                      \"points\":[[$currenttime, 20]],
+                      \"host\":\"test.example.com\",
+                      \"type\":\"count\",
+                      \"unit\":\"millisecond\",
+                      \"tags\":[\"environment:test\"]}
+                    ]
+            }"
+            */
+            publishBatches(MeterPartition.partition(this, config.batchSize()),
+                    batch -> batch.stream().flatMap(meter -> meter.match(
+                            m -> writeMeter(m, metadataToSend), // visitGauge
+                            m -> writeMeter(m, metadataToSend), // visitCounter
+                            timer -> writeTimer(timer, metadataToSend), // visitTimer
+                            summary -> writeSummary(summary, metadataToSend), // visitSummary
+                            m -> writeMeter(m, metadataToSend), // visitLongTaskTimer
+                            m -> writeMeter(m, metadataToSend), // visitTimeGauge
+                            m -> writeMeter(m, metadataToSend), // visitFunctionCounter
+                            timer -> writeTimer(timer, metadataToSend), // visitFunctionTimer
+                            m -> writeMeter(m, metadataToSend)) // visitMeter
+                    ).collect(joining(",", "{\"series\":[", "]}")),
+                    (batch, body) -> {
+                        logger.trace("sending metrics batch to datadog:{}{}", System.lineSeparator(), body);
+
+                        httpClient.post(datadogEndpoint)
+                                .withJsonContent(
+                                        body)
+                                .send()
+                                .onSuccess(response -> logger.debug("successfully sent {} metrics to datadog", batch.size()))
+                                .onError(response -> logger.error("failed to send metrics to datadog: {}", response.body()));
+                    });
         } catch (Throwable e) {
             logger.warn("failed to send metrics to datadog", e);
         }
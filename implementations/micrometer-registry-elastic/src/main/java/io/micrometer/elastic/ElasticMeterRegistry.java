@@ -202,46 +202,51 @@ public class ElasticMeterRegistry extends StepMeterRegistry {
         createIndexTemplateIfNeeded();
 
         String uri = config.host() + "/" + indexName() + "/_bulk";
-        for (List<Meter> batch : MeterPartition.partition(this, config.batchSize())) {
-            try {
-                String requestBody = batch.stream()
-                        .map(m -> m.match(
-                                this::writeGauge,
-                                this::writeCounter,
-                                this::writeTimer,
-                                this::writeSummary,
-                                this::writeLongTaskTimer,
-                                this::writeTimeGauge,
-                                this::writeFunctionCounter,
-                                this::writeFunctionTimer,
-                                this::writeMeter))
-                        .filter(Optional::isPresent)
-                        .map(Optional::get)
-                        .collect(joining("\n", "", "\n"));
-                httpClient
-                        .post(uri)
-                        .withBasicAuthentication(config.userName(), config.password())
-                        .withJsonContent(requestBody)
-                        .send()
-                        .onSuccess(response -> {
-                            int numberOfSentItems = batch.size();
-                            String responseBody = response.body();
-                            if (responseBody.contains(ERROR_RESPONSE_BODY_SIGNATURE)) {
-                                int numberOfCreatedItems = countCreatedItems(responseBody);
-                                logger.debug("failed metrics payload: {}", requestBody);
-                                logger.error("failed to send metrics to elastic (sent {} metrics but created {} metrics): {}",
-                                        numberOfSentItems, numberOfCreatedItems, responseBody);
-                            } else {
-                                logger.debug("successfully sent {} metrics to elastic", numberOfSentItems);
-                            }
-                        })
-                        .onError(response -> {
-                            logger.debug("failed metrics payload: {}", requestBody);
-                            logger.error("failed to send metrics to elastic: {}", response.body());
-                        });
-            } catch (Throwable e) {
-                logger.error("failed to send metrics to elastic", e);
-            }
+        try {
+            publishBatches(MeterPartition.partition(this, config.batchSize()),
+                    batch -> batch.stream()
+                            .map(m -> m.match(
+                                    this::writeGauge,
+                                    this::writeCounter,
+                                    this::writeTimer,
+                                    this::writeSummary,
+                                    this::writeLongTaskTimer,
+                                    this::writeTimeGauge,
+                                    this::writeFunctionCounter,
+                                    this::writeFunctionTimer,
+                                    this::writeMeter))
+                            .filter(Optional::isPresent)
+                            .map(Optional::get)
+                            .collect(joining("\n", "", "\n")),
+                    (batch, requestBody) -> {
+                        try {
+                            httpClient
+                                    .post(uri)
+                                    .withBasicAuthentication(config.userName(), config.password())
+                                    .withJsonContent(requestBody)
+                                    .send()
+                                    .onSuccess(response -> {
+                                        int numberOfSentItems = batch.size();
+                                        String responseBody = response.body();
+                                        if (responseBody.contains(ERROR_RESPONSE_BODY_SIGNATURE)) {
+                                            int numberOfCreatedItems = countCreatedItems(responseBody);
+                                            logger.debug("failed metrics payload: {}", requestBody);
+                                            logger.error("failed to send metrics to elastic (sent {} metrics but created {} metrics): {}",
+                                                    numberOfSentItems, numberOfCreatedItems, responseBody);
+                                        } else {
+                                            logger.debug("successfully sent {} metrics to elastic", numberOfSentItems);
+                                        }
+                                    })
+                                    .onError(response -> {
+                                        logger.debug("failed metrics payload: {}", requestBody);
+                                        logger.error("failed to send metrics to elastic: {}", response.body());
+                                    });
+                        } catch (Throwable e) {
+                            logger.error("failed to send metrics to elastic", e);
+                        }
+                    });
+        } catch (Throwable e) {
+            logger.error("failed to send metrics to elastic", e);
         }
     }
 
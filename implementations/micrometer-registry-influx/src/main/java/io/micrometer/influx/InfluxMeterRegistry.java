@@ -118,32 +118,34 @@ public class InfluxMeterRegistry extends StepMeterRegistry {
         try {
             String influxEndpoint = config.apiVersion().writeEndpoint(config);
 
-            for (List<Meter> batch : MeterPartition.partition(this, config.batchSize())) {
-                HttpSender.Request.Builder requestBuilder = httpClient
-                        .post(influxEndpoint)
-                        .withBasicAuthentication(config.userName(), config.password());
-                config.apiVersion().addHeaderToken(config, requestBuilder);
-                requestBuilder
-                        .withPlainText(batch.stream()
-                                .flatMap(m -> m.match(
-                                        gauge -> writeGauge(gauge.getId(), gauge.value()),
-                                        counter -> writeCounter(counter.getId(), counter.count()),
-                                        this::writeTimer,
-                                        this::writeSummary,
-                                        this::writeLongTaskTimer,
-                                        gauge -> writeGauge(gauge.getId(), gauge.value(getBaseTimeUnit())),
-                                        counter -> writeCounter(counter.getId(), counter.count()),
-                                        this::writeFunctionTimer,
-                                        this::writeMeter))
-                                .collect(joining("\n")))
-                        .compressWhen(config::compressed)
-                        .send()
-                        .onSuccess(response -> {
-                            logger.debug("successfully sent {} metrics to InfluxDB.", batch.size());
-                            databaseExists = true;
-                        })
-                        .onError(response -> logger.error("failed to send metrics to influx: {}", response.body()));
-            }
+            publishBatches(MeterPartition.partition(this, config.batchSize()),
+                    batch -> batch.stream()
+                            .flatMap(m -> m.match(
+                                    gauge -> writeGauge(gauge.getId(), gauge.value()),
+                                    counter -> writeCounter(counter.getId(), counter.count()),
+                                    this::writeTimer,
+                                    this::writeSummary,
+                                    this::writeLongTaskTimer,
+                                    gauge -> writeGauge(gauge.getId(), gauge.value(getBaseTimeUnit())),
+                                    counter -> writeCounter(counter.getId(), counter.count()),
+                                    this::writeFunctionTimer,
+                                    this::writeMeter))
+                            .collect(joining("\n")),
+                    (batch, body) -> {
+                        HttpSender.Request.Builder requestBuilder = httpClient
+                                .post(influxEndpoint)
+                                .withBasicAuthentication(config.userName(), config.password());
+                        config.apiVersion().addHeaderToken(config, requestBuilder);
+                        requestBuilder
+                                .withPlainText(body)
+                                .compressWhen(config::compressed)
+                                .send()
+                                .onSuccess(response -> {
+                                    logger.debug("successfully sent {} metrics to InfluxDB.", batch.size());
+                                    databaseExists = true;
+                                })
+                                .onError(response -> logger.error("failed to send metrics to influx: {}", response.body()));
+                    });
         } catch (MalformedURLException e) {
             throw new IllegalArgumentException("Malformed InfluxDB publishing endpoint, see '" + config.prefix() + ".uri'", e);
         } catch (Throwable e) {
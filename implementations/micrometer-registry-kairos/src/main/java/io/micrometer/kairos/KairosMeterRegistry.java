@@ -18,8 +18,8 @@ package io.micrometer.kairos;
 import io.micrometer.core.instrument.*;
 import io.micrometer.core.instrument.step.StepMeterRegistry;
 import io.micrometer.core.instrument.util.DoubleFormat;
-import io.micrometer.core.instrument.util.MeterPartition;
 import io.micrometer.core.instrument.util.NamedThreadFactory;
+import io.micrometer.core.instrument.util.StreamingMeterPartition;
 import io.micrometer.core.ipc.http.HttpSender;
 import io.micrometer.core.ipc.http.HttpUrlConnectionSender;
 import org.slf4j.Logger;
@@ -31,7 +31,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static io.micrometer.core.instrument.util.StringEscapeUtils.escapeJson;
@@ -48,6 +47,7 @@ public class KairosMeterRegistry extends StepMeterRegistry {
     private final Logger logger = LoggerFactory.getLogger(KairosMeterRegistry.class);
     private final KairosConfig config;
     private final HttpSender httpClient;
+    private final StreamingMeterPartition partition;
 
     @SuppressWarnings("deprecation")
     public KairosMeterRegistry(KairosConfig config, Clock clock) {
@@ -61,6 +61,7 @@ public class KairosMeterRegistry extends StepMeterRegistry {
 
         this.config = config;
         this.httpClient = httpClient;
+        this.partition = new StreamingMeterPartition(config.batchSize(), config.batchMaxBytes(), "[", ",", "]");
 
         start(threadFactory);
     }
@@ -71,30 +72,29 @@ public class KairosMeterRegistry extends StepMeterRegistry {
 
     @Override
     protected void publish() {
-        for (List<Meter> batch : MeterPartition.partition(this, config.batchSize())) {
-            try {
-                httpClient.post(config.uri())
-                        .withBasicAuthentication(config.userName(), config.password())
-                        .withJsonContent(
-                                batch.stream().flatMap(m -> m.match(
-                                        this::writeGauge,
-                                        this::writeCounter,
-                                        this::writeTimer,
-                                        this::writeSummary,
-                                        this::writeLongTaskTimer,
-                                        this::writeTimeGauge,
-                                        this::writeFunctionCounter,
-                                        this::writeFunctionTimer,
-                                        this::writeCustomMetric)
-                                ).collect(Collectors.joining(",", "[", "]"))
-                        )
-                        .send()
-                        .onSuccess(response -> logger.debug("successfully sent {} metrics to kairos.", batch.size()))
-                        .onError(response -> logger.error("failed to send metrics to kairos: {}", response.body()));
-            } catch (Throwable t) {
-                logger.warn("failed to send metrics to kairos", t);
-            }
-        }
+        partition.forEachBatch(this,
+                m -> m.match(
+                        this::writeGauge,
+                        this::writeCounter,
+                        this::writeTimer,
+                        this::writeSummary,
+                        this::writeLongTaskTimer,
+                        this::writeTimeGauge,
+                        this::writeFunctionCounter,
+                        this::writeFunctionTimer,
+                        this::writeCustomMetric),
+                batch -> {
+                    try {
+                        httpClient.post(config.uri())
+                                .withBasicAuthentication(config.userName(), config.password())
+                                .withContent("application/json", batch.toByteArray())
+                                .send()
+                                .onSuccess(response -> logger.debug("successfully sent {} metrics to kairos.", batch.meterCount()))
+                                .onError(response -> logger.error("failed to send metrics to kairos: {}", response.body()));
+                    } catch (Throwable t) {
+                        logger.warn("failed to send metrics to kairos", t);
+                    }
+                });
     }
 
     Stream<String> writeSummary(DistributionSummary summary) {
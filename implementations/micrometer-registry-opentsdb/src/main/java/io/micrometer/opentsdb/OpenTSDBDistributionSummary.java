@@ -132,4 +132,10 @@ public class OpenTSDBDistributionSummary extends AbstractDistributionSummary {
                 histogramCounts(),
                 snapshot::outputSummary);
     }
+
+    @Override
+    public void close() {
+        super.close();
+        max.close();
+    }
 }
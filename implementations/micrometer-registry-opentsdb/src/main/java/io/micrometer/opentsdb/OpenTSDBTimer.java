@@ -125,4 +125,10 @@ public class OpenTSDBTimer extends AbstractTimer {
                 histogramCounts(),
                 snapshot::outputSummary);
     }
+
+    @Override
+    public void close() {
+        super.close();
+        max.close();
+    }
 }
@@ -18,10 +18,14 @@ package io.micrometer.prometheus;
 import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.config.NamingConvention;
+import io.micrometer.core.lang.Nullable;
 import io.prometheus.client.Collector;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.toList;
@@ -38,6 +42,9 @@ class MicrometerCollector extends Collector implements Collector.Describable {
         final List<String> keys;
         final List<String> values;
 
+        @Nullable
+        private volatile byte[] encodedLabels;
+
         private TagsHolder(List<String> keys, List<String> values) {
             this.keys = keys;
             this.values = values;
@@ -68,6 +75,18 @@ class MicrometerCollector extends Collector implements Collector.Describable {
             return values;
         }
 
+        /**
+         * @return The labels of this child pre-escaped for the text format, encoded once and reused by every scrape.
+         */
+        byte[] encodedLabels() {
+            byte[] encoded = encodedLabels;
+            if (encoded == null) {
+                encoded = PrometheusTextWriter.encodeLabels(keys, values);
+                encodedLabels = encoded;
+            }
+            return encoded;
+        }
+
         @Override
         public boolean equals(Object o) {
             if (this == o) return true;
@@ -86,11 +105,13 @@ class MicrometerCollector extends Collector implements Collector.Describable {
     private final Map<TagsHolder, Child> children = new ConcurrentHashMap<>();
     private final String conventionName;
     private final String help;
+    private final byte[] encodedConventionName;
 
     public MicrometerCollector(Meter.Id id, NamingConvention convention, PrometheusConfig config) {
         this.id = id;
         this.conventionName = id.getConventionName(convention);
         this.help = config.descriptions() ? Optional.ofNullable(id.getDescription()).orElse(" ") : " ";
+        this.encodedConventionName = conventionName.getBytes(StandardCharsets.UTF_8);
     }
 
     public void add(List<Tag> tags, Child child) {
@@ -124,6 +145,62 @@ class MicrometerCollector extends Collector implements Collector.Describable {
                 .collect(toList());
     }
 
+    /**
+     * Write every family of this collector in the text format. Children with a single sample are written
+     * from their cached name and labels without building any samples.
+     *
+     * @param writer The writer to write to.
+     * @throws IOException if writing fails
+     */
+    void write(PrometheusTextWriter writer) throws IOException {
+        Collection<Map.Entry<TagsHolder, Child>> entries = children.entrySet();
+
+        Type singleValueType = null;
+        for (Child child : children.values()) {
+            if (!(child instanceof SingleValueChild)) {
+                singleValueType = null;
+                break;
+            }
+            if (singleValueType == null) {
+                singleValueType = ((SingleValueChild) child).type;
+            }
+        }
+
+        if (singleValueType != null) {
+            writer.writeFamilyHeader(conventionName, singleValueType, help);
+            for (Map.Entry<TagsHolder, Child> e : entries) {
+                Child child = e.getValue();
+                if (child instanceof SingleValueChild) {
+                    writer.writeSample(encodedConventionName, e.getKey().encodedLabels(), ((SingleValueChild) child).value.getAsDouble());
+                }
+            }
+            return;
+        }
+
+        Map<TagsHolder, List<Family>> familiesByChild = new LinkedHashMap<>();
+        Map<String, Family> families = new LinkedHashMap<>();
+        for (Map.Entry<TagsHolder, Child> e : entries) {
+            List<Family> childFamilies = e.getValue().samples(conventionName, e.getKey()).collect(toList());
+            familiesByChild.put(e.getKey(), childFamilies);
+            for (Family family : childFamilies) {
+                families.putIfAbsent(family.getConventionName(), family);
+            }
+        }
+
+        for (Family family : families.values()) {
+            writer.writeFamilyHeader(family.conventionName, family.type, help);
+            for (Map.Entry<TagsHolder, List<Family>> e : familiesByChild.entrySet()) {
+                for (Family childFamily : e.getValue()) {
+                    if (childFamily.conventionName.equals(family.conventionName)) {
+                        for (MetricFamilySamples.Sample sample : childFamily.samples) {
+                            writer.writeSample(sample, e.getKey());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     @Override
     public List<MetricFamilySamples> describe() {
         switch (id.getType()) {
@@ -152,10 +229,60 @@ class MicrometerCollector extends Collector implements Collector.Describable {
         }
     }
 
+    /**
+     * @param sampleName A name the {@link io.prometheus.client.CollectorRegistry} may know a collector by.
+     * @return Whether the registry knows this collector by that name, that is a family name from {@link #describe()}
+     * or one of the suffixed names the registry reserves for the family's type.
+     */
+    boolean isKnownAs(String sampleName) {
+        if (sampleName.equals(conventionName)) {
+            return true;
+        }
+        if (!sampleName.startsWith(conventionName)) {
+            return false;
+        }
+
+        switch (sampleName.substring(conventionName.length())) {
+            case "_total":
+                return id.getType() == Meter.Type.COUNTER;
+            case "_max":
+                return id.getType() == Meter.Type.TIMER || id.getType() == Meter.Type.DISTRIBUTION_SUMMARY;
+            case "_count":
+            case "_sum":
+            case "_bucket":
+                return id.getType() == Meter.Type.TIMER || id.getType() == Meter.Type.DISTRIBUTION_SUMMARY ||
+                        id.getType() == Meter.Type.LONG_TASK_TIMER;
+            case "_created":
+                return id.getType() == Meter.Type.COUNTER || id.getType() == Meter.Type.TIMER ||
+                        id.getType() == Meter.Type.DISTRIBUTION_SUMMARY || id.getType() == Meter.Type.LONG_TASK_TIMER;
+            default:
+                return false;
+        }
+    }
+
     interface Child {
         Stream<Family> samples(String conventionName, TagsHolder tags);
     }
 
+    /**
+     * A child with one sample named after the collector, like a counter or gauge.
+     */
+    static final class SingleValueChild implements Child {
+        private final Type type;
+        private final DoubleSupplier value;
+
+        SingleValueChild(Type type, DoubleSupplier value) {
+            this.type = type;
+            this.value = value;
+        }
+
+        @Override
+        public Stream<Family> samples(String conventionName, TagsHolder tags) {
+            return Stream.of(new Family(type, conventionName,
+                    new MetricFamilySamples.Sample(conventionName, tags.keys, tags.values, value.getAsDouble())));
+        }
+    }
+
     static class Family {
         final Type type;
         final String conventionName;
@@ -133,4 +133,10 @@ public class PrometheusDistributionSummary extends AbstractDistributionSummary {
                 histogramCounts(),
                 snapshot::outputSummary);
     }
+
+    @Override
+    public void close() {
+        super.close();
+        max.close();
+    }
 }
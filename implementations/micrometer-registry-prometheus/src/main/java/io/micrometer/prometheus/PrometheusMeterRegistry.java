@@ -20,6 +20,7 @@ import io.micrometer.core.instrument.cumulative.CumulativeFunctionCounter;
 import io.micrometer.core.instrument.cumulative.CumulativeFunctionTimer;
 import io.micrometer.core.instrument.distribution.*;
 import io.micrometer.core.instrument.distribution.pause.PauseDetector;
+import io.micrometer.core.instrument.internal.BatchedGauge;
 import io.micrometer.core.instrument.internal.CumulativeHistogramLongTaskTimer;
 import io.micrometer.core.instrument.internal.DefaultGauge;
 import io.micrometer.core.instrument.internal.DefaultMeter;
@@ -29,8 +30,11 @@ import io.prometheus.client.CollectorRegistry;
 import io.prometheus.client.exporter.common.TextFormat;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Enumeration;
 import java.util.LinkedList;
 import java.util.List;
@@ -126,9 +130,72 @@ public class PrometheusMeterRegistry extends MeterRegistry {
      * @since 1.7.0
      */
     public void scrape(Writer writer, String contentType) throws IOException {
+        pollGaugeBatches();
         scrape(writer, contentType, registry.metricFamilySamples());
     }
 
+    /**
+     * Scrape to the specified output stream in Prometheus text format.
+     *
+     * @param outputStream Target that serves the content to be scraped by Prometheus.
+     * @throws IOException if writing fails
+     * @see #scrape(OutputStream, String)
+     * @since 1.7.0
+     */
+    public void scrape(OutputStream outputStream) throws IOException {
+        scrape(outputStream, TextFormat.CONTENT_TYPE_004);
+    }
+
+    /**
+     * Write the metrics scrape body in a specific content type to the given output stream as UTF-8.
+     * <p>
+     * The Prometheus text format (version 0.0.4) is encoded straight from the meters of this registry, reusing
+     * their pre-escaped names and labels so that only values are formatted on each scrape. Collectors registered
+     * directly with the underlying {@link CollectorRegistry} are then written through {@link TextFormat}. Other
+     * content types are written the same way as {@link #scrape(Writer, String)}.
+     *
+     * @param outputStream where to write the scrape body
+     * @param contentType the Content-Type of the scrape
+     * @throws IOException if writing fails
+     * @see TextFormat
+     * @since 1.7.0
+     */
+    public void scrape(OutputStream outputStream, String contentType) throws IOException {
+        if (!TextFormat.CONTENT_TYPE_004.equals(contentType)) {
+            Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+            scrape(writer, contentType);
+            writer.flush();
+            return;
+        }
+
+        pollGaugeBatches();
+        PrometheusTextWriter writer = new PrometheusTextWriter(outputStream);
+        for (MicrometerCollector collector : collectorMap.values()) {
+            collector.write(writer);
+        }
+        writer.flush();
+
+        // collectors registered directly with the CollectorRegistry, like JVM or custom collectors
+        Writer otherCollectorsWriter = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+        scrape(otherCollectorsWriter, contentType, registry.filteredMetricFamilySamples(this::isNotMicrometerSampleName));
+        otherCollectorsWriter.flush();
+    }
+
+    /**
+     * @param sampleName A name the {@link CollectorRegistry} knows a collector by.
+     * @return Whether the name belongs to a collector other than the ones of this registry's meters.
+     */
+    private boolean isNotMicrometerSampleName(String sampleName) {
+        // try the name itself and then every prefix ending before an underscore as a collector name
+        for (int end = sampleName.length(); end > 0; end = sampleName.lastIndexOf('_', end - 1)) {
+            MicrometerCollector collector = collectorMap.get(sampleName.substring(0, end));
+            if (collector != null && collector.isKnownAs(sampleName)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void scrape(Writer writer, String contentType, Enumeration<Collector.MetricFamilySamples> samples) throws IOException {
         TextFormat.writeFormat(contentType, writer, samples);
     }
@@ -163,6 +230,7 @@ public class PrometheusMeterRegistry extends MeterRegistry {
      * @since 1.7.0
      */
     public void scrape(Writer writer, String contentType, @Nullable Set<String> includedNames) throws IOException {
+        pollGaugeBatches();
         Enumeration<Collector.MetricFamilySamples> samples = includedNames != null
                 ? registry.filteredMetricFamilySamples(includedNames)
                 : registry.metricFamilySamples();
@@ -173,8 +241,7 @@ public class PrometheusMeterRegistry extends MeterRegistry {
     public Counter newCounter(Meter.Id id) {
         PrometheusCounter counter = new PrometheusCounter(id);
         applyToCollector(id, (collector) -> {
-            collector.add(id.getTags(), (conventionName, tags) -> Stream.of(new MicrometerCollector.Family(Collector.Type.COUNTER, conventionName,
-                    new Collector.MetricFamilySamples.Sample(conventionName, tags.keys, tags.values, counter.count()))));
+            collector.add(id.getTags(), new MicrometerCollector.SingleValueChild(Collector.Type.COUNTER, counter::count));
         });
         return counter;
     }
@@ -270,10 +337,17 @@ public class PrometheusMeterRegistry extends MeterRegistry {
 
     @Override
     protected <T> io.micrometer.core.instrument.Gauge newGauge(Meter.Id id, @Nullable T obj, ToDoubleFunction<T> valueFunction) {
-        Gauge gauge = new DefaultGauge<>(id, obj, valueFunction);
+        return addGaugeToCollector(id, new DefaultGauge<>(id, obj, valueFunction));
+    }
+
+    @Override
+    protected io.micrometer.core.instrument.Gauge newBatchedGauge(Meter.Id id, GaugeBatch batch, int index) {
+        return addGaugeToCollector(id, new BatchedGauge(id, batch, index));
+    }
+
+    private Gauge addGaugeToCollector(Meter.Id id, Gauge gauge) {
         applyToCollector(id, (collector) -> {
-            collector.add(id.getTags(), (conventionName, tags) -> Stream.of(new MicrometerCollector.Family(Collector.Type.GAUGE, conventionName,
-                    new Collector.MetricFamilySamples.Sample(conventionName, tags.getKeys(), tags.getValues(), gauge.value()))));
+            collector.add(id.getTags(), new MicrometerCollector.SingleValueChild(Collector.Type.GAUGE, gauge::value));
         });
         return gauge;
     }
@@ -302,9 +376,7 @@ public class PrometheusMeterRegistry extends MeterRegistry {
     protected <T> FunctionCounter newFunctionCounter(Meter.Id id, T obj, ToDoubleFunction<T> countFunction) {
         FunctionCounter fc = new CumulativeFunctionCounter<>(id, obj, countFunction);
         applyToCollector(id, (collector) -> {
-            collector.add(id.getTags(), (conventionName, tags) -> Stream.of(new MicrometerCollector.Family(Collector.Type.COUNTER, conventionName,
-                    new Collector.MetricFamilySamples.Sample(conventionName, tags.getKeys(), tags.getValues(), fc.count())
-            )));
+            collector.add(id.getTags(), new MicrometerCollector.SingleValueChild(Collector.Type.COUNTER, fc::count));
         });
         return fc;
     }
@@ -0,0 +1,267 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.prometheus;
+
+import io.prometheus.client.Collector;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Writes the Prometheus text exposition format (version 0.0.4) as UTF-8 bytes straight to an
+ * {@link OutputStream}, without building the scrape body as a {@link String} first.
+ */
+final class PrometheusTextWriter {
+    private static final byte[] HELP = ascii("# HELP ");
+    private static final byte[] TYPE = ascii("# TYPE ");
+    private static final byte[] LABEL_VALUE_START = ascii("=\"");
+    private static final byte[] LABEL_VALUE_END = ascii("\",");
+    private static final byte[] POSITIVE_INFINITY = ascii("+Inf");
+    private static final byte[] NEGATIVE_INFINITY = ascii("-Inf");
+    private static final byte[] NAN = ascii("NaN");
+
+    private static final int NO_ESCAPE = 0;
+    private static final int ESCAPE_HELP = 1;
+    private static final int ESCAPE_LABEL_VALUE = 2;
+
+    private static final long NEGATIVE_ZERO_BITS = Double.doubleToRawLongBits(-0.0);
+
+    /**
+     * Integral values below this magnitude print the same as {@link Double#toString(double)} when written as
+     * digits followed by {@code .0}; larger ones switch to computerized scientific notation.
+     */
+    private static final double MAX_PLAIN_INTEGRAL = 1e7;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[8192];
+    private int position;
+
+    PrometheusTextWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    void writeFamilyHeader(String name, Collector.Type type, String help) throws IOException {
+        // the 0.0.4 format names counter families after their samples, which always end in _total
+        String familyName = type == Collector.Type.COUNTER && !name.endsWith("_total") ? name + "_total" : name;
+
+        write(HELP);
+        writeString(familyName, NO_ESCAPE);
+        write((byte) ' ');
+        writeString(help, ESCAPE_HELP);
+        write((byte) '\n');
+
+        write(TYPE);
+        writeString(familyName, NO_ESCAPE);
+        write((byte) ' ');
+        writeString(typeString(type), NO_ESCAPE);
+        write((byte) '\n');
+    }
+
+    /**
+     * @param name The encoded sample name.
+     * @param labels Labels encoded by {@link #encodeLabels(List, List)}.
+     * @param value The sample value.
+     */
+    void writeSample(byte[] name, byte[] labels, double value) throws IOException {
+        write(name);
+        if (labels.length > 0) {
+            write((byte) '{');
+            write(labels);
+            write((byte) '}');
+        }
+        write((byte) ' ');
+        writeDouble(value);
+        write((byte) '\n');
+    }
+
+    /**
+     * Write a sample produced by a {@link MicrometerCollector.Child}, reusing the encoded labels of the child
+     * for the labels it shares with it.
+     *
+     * @param sample The sample to write.
+     * @param tags The tags of the child that produced the sample.
+     */
+    void writeSample(Collector.MetricFamilySamples.Sample sample, MicrometerCollector.TagsHolder tags) throws IOException {
+        writeString(sample.name, NO_ESCAPE);
+
+        List<String> labelNames = sample.labelNames;
+        int size = labelNames.size();
+        if (size > 0) {
+            write((byte) '{');
+            int shared = 0;
+            if (labelNames == tags.keys || (size == tags.keys.size() + 1 && labelNames.subList(0, size - 1).equals(tags.keys))) {
+                write(tags.encodedLabels());
+                shared = tags.keys.size();
+            }
+            for (int i = shared; i < size; i++) {
+                writeLabel(labelNames.get(i), sample.labelValues.get(i));
+            }
+            write((byte) '}');
+        }
+
+        write((byte) ' ');
+        writeDouble(sample.value);
+        write((byte) '\n');
+    }
+
+    void flush() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        out.flush();
+    }
+
+    /**
+     * @return Every label as {@code name="escaped value",}, the way the text format lists them between braces.
+     */
+    static byte[] encodeLabels(List<String> keys, List<String> values) {
+        StringBuilder labels = new StringBuilder();
+        for (int i = 0; i < keys.size(); i++) {
+            labels.append(keys.get(i)).append("=\"");
+            String value = values.get(i);
+            for (int j = 0; j < value.length(); j++) {
+                char c = value.charAt(j);
+                switch (c) {
+                    case '\\':
+                        labels.append("\\\\");
+                        break;
+                    case '\"':
+                        labels.append("\\\"");
+                        break;
+                    case '\n':
+                        labels.append("\\n");
+                        break;
+                    default:
+                        labels.append(c);
+                }
+            }
+            labels.append("\",");
+        }
+        return labels.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void writeLabel(String name, String value) throws IOException {
+        writeString(name, NO_ESCAPE);
+        write(LABEL_VALUE_START);
+        writeString(value, ESCAPE_LABEL_VALUE);
+        write(LABEL_VALUE_END);
+    }
+
+    private void writeDouble(double value) throws IOException {
+        if (value == Double.POSITIVE_INFINITY) {
+            write(POSITIVE_INFINITY);
+        } else if (value == Double.NEGATIVE_INFINITY) {
+            write(NEGATIVE_INFINITY);
+        } else if (Double.isNaN(value)) {
+            write(NAN);
+        } else if (value == (long) value && Math.abs(value) < MAX_PLAIN_INTEGRAL &&
+                Double.doubleToRawLongBits(value) != NEGATIVE_ZERO_BITS) {
+            writeLong((long) value);
+            write((byte) '.');
+            write((byte) '0');
+        } else {
+            writeString(Double.toString(value), NO_ESCAPE);
+        }
+    }
+
+    private void writeLong(long value) throws IOException {
+        if (value < 0) {
+            write((byte) '-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (divisor <= value / 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            write((byte) ('0' + (value / divisor) % 10));
+        }
+    }
+
+    /**
+     * @param escape One of {@link #NO_ESCAPE}, {@link #ESCAPE_HELP} or {@link #ESCAPE_LABEL_VALUE}.
+     */
+    private void writeString(String s, int escape) throws IOException {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (escape != NO_ESCAPE && (c == '\\' || c == '\n' || (c == '"' && escape == ESCAPE_LABEL_VALUE))) {
+                write((byte) '\\');
+                write((byte) (c == '\n' ? 'n' : c));
+            } else if (c < 0x80) {
+                write((byte) c);
+            } else if (c < 0x800) {
+                write((byte) (0xc0 | (c >> 6)));
+                write((byte) (0x80 | (c & 0x3f)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                write((byte) (0xf0 | (codePoint >> 18)));
+                write((byte) (0x80 | ((codePoint >> 12) & 0x3f)));
+                write((byte) (0x80 | ((codePoint >> 6) & 0x3f)));
+                write((byte) (0x80 | (codePoint & 0x3f)));
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogates are replaced the same way String#getBytes(UTF_8) does
+                write((byte) '?');
+            } else {
+                write((byte) (0xe0 | (c >> 12)));
+                write((byte) (0x80 | ((c >> 6) & 0x3f)));
+                write((byte) (0x80 | (c & 0x3f)));
+            }
+        }
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        if (bytes.length > buffer.length - position) {
+            out.write(buffer, 0, position);
+            position = 0;
+            if (bytes.length > buffer.length) {
+                out.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void write(byte b) throws IOException {
+        if (position == buffer.length) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+        buffer[position++] = b;
+    }
+
+    private static String typeString(Collector.Type type) {
+        switch (type) {
+            case GAUGE:
+                return "gauge";
+            case COUNTER:
+                return "counter";
+            case SUMMARY:
+                return "summary";
+            case HISTOGRAM:
+                return "histogram";
+            default:
+                return "untyped";
+        }
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+}
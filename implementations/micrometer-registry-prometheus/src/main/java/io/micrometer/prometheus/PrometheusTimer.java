@@ -126,4 +126,10 @@ public class PrometheusTimer extends AbstractTimer {
                 histogramCounts(),
                 snapshot::outputSummary);
     }
+
+    @Override
+    public void close() {
+        super.close();
+        max.close();
+    }
 }
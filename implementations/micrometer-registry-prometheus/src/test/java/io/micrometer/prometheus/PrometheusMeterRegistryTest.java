@@ -28,6 +28,9 @@ import org.assertj.core.api.Condition;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
@@ -636,4 +639,64 @@ class PrometheusMeterRegistryTest {
                 .endsWith("# EOF\n");
     }
 
+    @Test
+    void gaugeBatchIsPolledOncePerScrape() {
+        AtomicInteger polls = new AtomicInteger();
+        double[] stats = {1, 2};
+        GaugeBatch.builder("stats")
+                .register(registry, Arrays.asList(Tags.of("row", "a"), Tags.of("row", "b")), values -> {
+                    polls.incrementAndGet();
+                    System.arraycopy(stats, 0, values, 0, stats.length);
+                });
+
+        assertThat(registry.scrape())
+                .contains("stats{row=\"a\",} 1.0\n")
+                .contains("stats{row=\"b\",} 2.0\n");
+        assertThat(polls).hasValue(1);
+
+        // the clock hasn't moved, but a scrape polls regardless
+        stats[1] = 20;
+        assertThat(registry.scrape()).contains("stats{row=\"b\",} 20.0\n");
+        assertThat(polls).hasValue(2);
+    }
+
+    @Test
+    void scrapeToOutputStreamMatchesTextFormat() throws IOException {
+        Counter.builder("my.counter").tag("path", "C:\\dir \"quoted\"\nnext \u00e9").register(registry).increment(12345678);
+        registry.counter("my.counter", "path", "/").increment();
+        registry.gauge("my.gauge", Double.NaN);
+        Timer.builder("my.timer").publishPercentiles(0.5).publishPercentileHistogram().register(registry)
+                .record(15, TimeUnit.MILLISECONDS);
+        DistributionSummary.builder("my.summary").serviceLevelObjectives(1, 10).register(registry).record(5);
+        LongTaskTimer.builder("my.long.task").register(registry).start();
+        FunctionTimer.builder("my.function.timer", registry, r -> 3, r -> 4.5, TimeUnit.SECONDS).register(registry);
+        FunctionCounter.builder("my.function.counter", registry, r -> 7).register(registry);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        registry.scrape(out);
+        String scraped = new String(out.toByteArray(), StandardCharsets.UTF_8);
+
+        // families may come out in a different order than TextFormat writes them
+        assertThat(scraped.split("\n")).containsExactlyInAnyOrder(registry.scrape().split("\n"));
+        assertThat(scraped).contains("\nmy_counter_total{path=\"C:\\\\dir \\\"quoted\\\"\\nnext \u00e9\",} 1.2345678E7\n");
+    }
+
+    @Test
+    void scrapeToOutputStreamIncludesCollectorsRegisteredDirectly() throws IOException {
+        registry.counter("my.counter").increment();
+        new Collector() {
+            @Override
+            public List<MetricFamilySamples> collect() {
+                return Collections.singletonList(new MetricFamilySamples("my_counter_max", Type.GAUGE, "custom",
+                        Collections.singletonList(new MetricFamilySamples.Sample("my_counter_max", emptyList(), emptyList(), 42))));
+            }
+        }.register(prometheusRegistry);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        registry.scrape(out);
+        String scraped = new String(out.toByteArray(), StandardCharsets.UTF_8);
+
+        assertThat(scraped.split("\n")).containsExactlyInAnyOrder(registry.scrape().split("\n"));
+        assertThat(scraped).contains("\nmy_counter_total 1.0\n").contains("\nmy_counter_max 42.0\n");
+    }
 }
@@ -16,6 +16,7 @@
 package io.micrometer.statsd;
 
 import io.micrometer.core.instrument.config.MeterRegistryConfig;
+import io.micrometer.core.instrument.config.validate.InvalidReason;
 import io.micrometer.core.instrument.config.validate.Validated;
 
 import java.time.Duration;
@@ -59,14 +60,15 @@ public interface StatsdConfig extends MeterRegistryConfig {
     }
 
     /**
-     * @return The host name of the StatsD agent.
+     * @return The host name of the StatsD agent, or the path of its socket for {@link StatsdProtocol#UDS_DATAGRAM} and
+     * {@link StatsdProtocol#UDS_STREAM}.
      */
     default String host() {
         return getString(this, "host").orElse("localhost");
     }
 
     /**
-     * @return The port of the StatsD agent.
+     * @return The port of the StatsD agent. Not used for Unix domain sockets.
      */
     default int port() {
         return getInteger(this, "port").orElse(8125);
@@ -139,12 +141,64 @@ public interface StatsdConfig extends MeterRegistryConfig {
         return getBoolean(this, "buffered").orElse(true);
     }
 
+    /**
+     * @return {@code true} if meters should be aggregated in the client and written once per
+     * {@link #pollingFrequency()} instead of a line per recording. Counters then send their summed increments, and
+     * timers and distribution summaries buffer their samples and write them a packet at a time. The Datadog flavor
+     * packs several samples into one line (DogStatsD protocol v1.1, supported since Datadog Agent 6.25/7.25), while
+     * other flavors keep writing a line per sample. Default is {@code false}.
+     * @since 1.7.0
+     */
+    default boolean clientSideAggregation() {
+        return getBoolean(this, "clientSideAggregation").orElse(false);
+    }
+
+    /**
+     * @return The number of lines that can wait to be sent when lines are sent over UDP from a dedicated thread
+     * instead of through reactor-netty. That thread drains a lock-free queue of this many lines, rounded up to a power
+     * of two, and packs them into datagrams of up to {@link #maxPacketLength()} bytes. Lines emitted while the queue is
+     * full are dropped and counted by {@code micrometer.statsd.lines.dropped}. Only applies to {@link StatsdProtocol#UDP}.
+     * At most {@code 2^30}. Default is {@code 0}, which keeps sending lines through reactor-netty.
+     * @since 1.7.0
+     */
+    default int ringBufferCapacity() {
+        return getInteger(this, "ringBufferCapacity").orElse(0);
+    }
+
+    /**
+     * @return The fraction of samples that timers and distribution summaries write to the agent, greater than 0 and at
+     * most 1. Sampled lines carry their rate, as in {@code |@0.1}, so that the agent scales counts back up. Does not
+     * apply with {@link #clientSideAggregation()}. Default is {@code 1}, which writes every sample.
+     * @since 1.7.0
+     */
+    default double sampleRate() {
+        return getDouble(this, "sampleRate").orElse(1.0);
+    }
+
+    /**
+     * @return When greater than zero, the number of lines per second each timer and distribution summary should stay
+     * within. A meter recording more samples than that lowers its sample rate below {@link #sampleRate()} until its
+     * samples per second fall within the budget again. The rate adapts once a second, to the samples recorded in the
+     * second before. Default is {@code 0}, which keeps the sample rate fixed.
+     * @since 1.7.0
+     */
+    default int adaptiveSamplingLinesPerSecond() {
+        return getInteger(this, "adaptiveSamplingLinesPerSecond").orElse(0);
+    }
+
     @Override
     default Validated<?> validate() {
         return checkAll(this,
                 checkRequired("flavor", StatsdConfig::flavor),
                 checkRequired("host", StatsdConfig::host),
                 check("port", StatsdConfig::port),
+                check("ringBufferCapacity", StatsdConfig::ringBufferCapacity)
+                        .andThen(v -> v.invalidateWhen(capacity -> capacity < 0 || capacity > StatsdRingBufferSink.MAX_CAPACITY,
+                                "must be between 0 and " + StatsdRingBufferSink.MAX_CAPACITY, InvalidReason.MALFORMED)),
+                check("sampleRate", StatsdConfig::sampleRate)
+                        .andThen(v -> v.invalidateWhen(rate -> rate <= 0 || rate > 1, "must be greater than 0 and at most 1",
+                                InvalidReason.MALFORMED)),
+                check("adaptiveSamplingLinesPerSecond", StatsdConfig::adaptiveSamplingLinesPerSecond),
                 checkRequired("protocol", StatsdConfig::protocol),
                 checkRequired("pollingFrequency", StatsdConfig::pollingFrequency),
                 checkRequired("step", StatsdConfig::step)
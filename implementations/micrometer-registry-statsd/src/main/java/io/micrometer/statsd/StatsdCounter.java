@@ -18,6 +18,9 @@ package io.micrometer.statsd;
 import io.micrometer.core.instrument.AbstractMeter;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.util.MeterEquivalence;
+import io.micrometer.core.lang.Nullable;
+import io.micrometer.statsd.internal.FlavorStatsdLineBuilder;
+import io.micrometer.statsd.internal.StatsdPacketWriter;
 import reactor.core.publisher.Sinks;
 
 import java.util.concurrent.atomic.DoubleAdder;
@@ -25,23 +28,71 @@ import java.util.concurrent.atomic.DoubleAdder;
 /**
  * @author Jon Schneider
  */
-public class StatsdCounter extends AbstractMeter implements Counter {
+public class StatsdCounter extends AbstractMeter implements Counter, StatsdPollable {
     private final StatsdLineBuilder lineBuilder;
     private final Sinks.Many<String> sink;
     private DoubleAdder count = new DoubleAdder();
+
+    /**
+     * Increments not yet written when client-side aggregation is enabled.
+     */
+    @Nullable
+    private final DoubleAdder pending;
+
+    /**
+     * Encodes lines without building them as strings, if the line builder supports it.
+     */
+    @Nullable
+    private final StatsdPacketWriter packets;
+
     private volatile boolean shutdown;
 
     StatsdCounter(Id id, StatsdLineBuilder lineBuilder, Sinks.Many<String> sink) {
+        this(id, lineBuilder, sink, false, null);
+    }
+
+    StatsdCounter(Id id, StatsdLineBuilder lineBuilder, Sinks.Many<String> sink, boolean aggregate,
+                  @Nullable StatsdPacketWriter packets) {
         super(id);
         this.lineBuilder = lineBuilder;
         this.sink = sink;
+        this.pending = aggregate ? new DoubleAdder() : null;
+        this.packets = packets;
     }
 
     @Override
     public void increment(double amount) {
         if (!shutdown && amount > 0) {
             count.add(amount);
-            sink.tryEmitNext(lineBuilder.count((long) amount));
+            if (pending != null) {
+                pending.add(amount);
+            } else {
+                emit((long) amount);
+            }
+        }
+    }
+
+    @Override
+    public void poll() {
+        if (pending != null) {
+            double amount = pending.sumThenReset();
+            long whole = (long) amount;
+            if (whole > 0) {
+                emit(whole);
+            }
+
+            // carry the fraction over to the next poll so that fractional increments eventually add up
+            if (amount > whole) {
+                pending.add(amount - whole);
+            }
+        }
+    }
+
+    private void emit(long amount) {
+        if (packets != null) {
+            packets.count((FlavorStatsdLineBuilder) lineBuilder, amount);
+        } else {
+            sink.tryEmitNext(lineBuilder.count(amount));
         }
     }
 
@@ -63,5 +114,6 @@ public class StatsdCounter extends AbstractMeter implements Counter {
 
     void shutdown() {
         this.shutdown = true;
+        poll();
     }
 }
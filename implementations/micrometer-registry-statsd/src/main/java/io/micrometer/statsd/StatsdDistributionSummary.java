@@ -21,25 +21,53 @@ import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
 import io.micrometer.core.instrument.distribution.TimeWindowMax;
 import io.micrometer.core.instrument.util.MeterEquivalence;
 import io.micrometer.core.lang.Nullable;
+import io.micrometer.statsd.internal.FlavorStatsdLineBuilder;
+import io.micrometer.statsd.internal.StatsdPacketWriter;
 import reactor.core.publisher.Sinks;
 
 import java.util.concurrent.atomic.DoubleAdder;
 import java.util.concurrent.atomic.LongAdder;
 
-public class StatsdDistributionSummary extends AbstractDistributionSummary {
+public class StatsdDistributionSummary extends AbstractDistributionSummary implements StatsdPollable {
     private final LongAdder count = new LongAdder();
     private final DoubleAdder amount = new DoubleAdder();
     private final TimeWindowMax max;
     private final StatsdLineBuilder lineBuilder;
     private final Sinks.Many<String> sink;
+
+    @Nullable
+    private final StatsdSampleBuffer samples;
+
+    /**
+     * Encodes lines without building them as strings, if the line builder supports it.
+     */
+    @Nullable
+    private final StatsdPacketWriter packets;
+
+    /**
+     * Decides which samples are written, if not every sample is.
+     */
+    @Nullable
+    private final StatsdSampler sampler;
+
     private volatile boolean shutdown;
 
     StatsdDistributionSummary(Id id, StatsdLineBuilder lineBuilder, Sinks.Many<String> sink, Clock clock,
                               DistributionStatisticConfig distributionStatisticConfig, double scale) {
+        this(id, lineBuilder, sink, clock, distributionStatisticConfig, scale, null, null, null);
+    }
+
+    StatsdDistributionSummary(Id id, StatsdLineBuilder lineBuilder, Sinks.Many<String> sink, Clock clock,
+                              DistributionStatisticConfig distributionStatisticConfig, double scale,
+                              @Nullable StatsdSampleBuffer samples, @Nullable StatsdPacketWriter packets,
+                              @Nullable StatsdSampler sampler) {
         super(id, clock, distributionStatisticConfig, scale, false);
         this.max = new TimeWindowMax(clock, distributionStatisticConfig);
         this.lineBuilder = lineBuilder;
         this.sink = sink;
+        this.samples = samples;
+        this.packets = packets;
+        this.sampler = sampler;
     }
 
     @Override
@@ -48,7 +76,25 @@ public class StatsdDistributionSummary extends AbstractDistributionSummary {
             count.increment();
             this.amount.add(amount);
             max.record(amount);
-            sink.tryEmitNext(lineBuilder.histogram(amount));
+            double sampleRate = sampler == null ? 1 : sampler.sample();
+            if (samples != null) {
+                samples.record(amount);
+            } else if (sampleRate < 1) {
+                if (sampleRate > 0) {
+                    sink.tryEmitNext(lineBuilder.histogram(amount, sampleRate));
+                }
+            } else if (packets != null) {
+                packets.histogram((FlavorStatsdLineBuilder) lineBuilder, amount);
+            } else {
+                sink.tryEmitNext(lineBuilder.histogram(amount));
+            }
+        }
+    }
+
+    @Override
+    public void poll() {
+        if (samples != null) {
+            samples.flush();
         }
     }
 
@@ -84,5 +130,12 @@ public class StatsdDistributionSummary extends AbstractDistributionSummary {
 
     void shutdown() {
         this.shutdown = true;
+        poll();
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        max.close();
     }
 }
@@ -17,6 +17,9 @@ package io.micrometer.statsd;
 
 import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.Statistic;
+import io.micrometer.core.instrument.util.DoubleFormat;
+
+import java.util.function.Consumer;
 
 /**
  * A StatsD format serializer for an individual {@link Meter}. There is an instance per
@@ -41,4 +44,62 @@ public interface StatsdLineBuilder {
     String histogram(double amount);
 
     String timing(double timeMs);
+
+    /**
+     * Write a histogram line for one of the samples that are only written at a sample rate.
+     *
+     * @param amount     The sampled amount.
+     * @param sampleRate The fraction of samples written, less than 1.
+     * @return The line, telling the agent the rate it was sampled at. By default {@code |@rate} is appended to the
+     * line, which is where the StatsD protocol places it when nothing follows the type.
+     * @since 1.7.0
+     */
+    default String histogram(double amount, double sampleRate) {
+        return histogram(amount) + "|@" + DoubleFormat.decimalOrNan(sampleRate);
+    }
+
+    /**
+     * Write a timing line for one of the samples that are only written at a sample rate.
+     *
+     * @param timeMs     The sampled timing in milliseconds.
+     * @param sampleRate The fraction of samples written, less than 1.
+     * @return The line, telling the agent the rate it was sampled at. By default {@code |@rate} is appended to the
+     * line, which is where the StatsD protocol places it when nothing follows the type.
+     * @since 1.7.0
+     */
+    default String timing(double timeMs, double sampleRate) {
+        return timing(timeMs) + "|@" + DoubleFormat.decimalOrNan(sampleRate);
+    }
+
+    /**
+     * Write the histogram samples buffered between two flushes.
+     *
+     * @param amounts         The buffered samples.
+     * @param count           The number of samples in {@code amounts} to write.
+     * @param maxPacketLength The most bytes that a line carrying several samples should take when UTF-8 encoded,
+     *                        including the delimiter that follows it in a datagram.
+     * @param lines           Receives the lines.
+     * @since 1.7.0
+     */
+    default void histograms(double[] amounts, int count, int maxPacketLength, Consumer<String> lines) {
+        for (int i = 0; i < count; i++) {
+            lines.accept(histogram(amounts[i]));
+        }
+    }
+
+    /**
+     * Write the timing samples buffered between two flushes.
+     *
+     * @param timesMs         The buffered samples in milliseconds.
+     * @param count           The number of samples in {@code timesMs} to write.
+     * @param maxPacketLength The most bytes that a line carrying several samples should take when UTF-8 encoded,
+     *                        including the delimiter that follows it in a datagram.
+     * @param lines           Receives the lines.
+     * @since 1.7.0
+     */
+    default void timings(double[] timesMs, int count, int maxPacketLength, Consumer<String> lines) {
+        for (int i = 0; i < count; i++) {
+            lines.accept(timing(timesMs[i]));
+        }
+    }
 }
@@ -26,6 +26,9 @@ import io.micrometer.core.instrument.util.HierarchicalNameMapper;
 import io.micrometer.core.lang.Nullable;
 import io.micrometer.core.util.internal.logging.WarnThenDebugLogger;
 import io.micrometer.statsd.internal.*;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.channel.unix.DomainSocketAddress;
 import io.netty.util.AttributeKey;
 import org.reactivestreams.Publisher;
 import org.reactivestreams.Subscriber;
@@ -36,11 +39,14 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Sinks;
 import reactor.netty.Connection;
+import reactor.netty.NettyOutbound;
 import reactor.netty.tcp.TcpClient;
 import reactor.netty.udp.UdpClient;
 import reactor.util.retry.Retry;
 
+import java.net.InetSocketAddress;
 import java.net.PortUnreachableException;
+import java.net.SocketAddress;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.Map;
@@ -50,6 +56,7 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.function.ToDoubleFunction;
 import java.util.function.ToLongFunction;
 import java.util.stream.DoubleStream;
@@ -76,6 +83,12 @@ import java.util.stream.DoubleStream;
 public class StatsdMeterRegistry extends MeterRegistry {
     private static final WarnThenDebugLogger warnThenDebugLogger = new WarnThenDebugLogger(StatsdMeterRegistry.class);
 
+    /**
+     * The most samples a timer or distribution summary buffers with client-side aggregation before writing them
+     * ahead of the next poll. Buffers start smaller and only grow this large for meters recorded to this often.
+     */
+    private static final int SAMPLE_BUFFER_CAPACITY = 1024;
+
     private final StatsdConfig statsdConfig;
     private final HierarchicalNameMapper nameMapper;
     private final Map<Meter.Id, StatsdPollable> pollableMeters = new ConcurrentHashMap<>();
@@ -84,6 +97,22 @@ public class StatsdMeterRegistry extends MeterRegistry {
     Disposable.Swap statsdConnection = Disposables.swap();
     private Disposable.Swap meterPoller = Disposables.swap();
 
+    /**
+     * Packs lines into pooled packets when sending buffered lines to an agent. Meters whose line builder can encode
+     * lines write to it directly, the lines of all other meters arrive through {@link #sink}.
+     */
+    @Nullable
+    private final StatsdPacketWriter packetWriter;
+
+    @Nullable
+    private final Sinks.Many<ByteBuf> packets;
+
+    /**
+     * Sends lines from a dedicated thread instead of through reactor-netty when a ring buffer capacity is configured.
+     */
+    @Nullable
+    private final StatsdRingBufferSink ringBufferSink;
+
     @Nullable
     private Function<Meter.Id, StatsdLineBuilder> lineBuilderFunction;
 
@@ -128,9 +157,18 @@ public class StatsdMeterRegistry extends MeterRegistry {
         config().onMeterRemoved(meter ->
                 meter.use(
                         this::removePollableMeter,
-                        c -> ((StatsdCounter) c).shutdown(),
-                        t -> ((StatsdTimer) t).shutdown(),
-                        d -> ((StatsdDistributionSummary) d).shutdown(),
+                        c -> {
+                            removePollableMeter(c);
+                            ((StatsdCounter) c).shutdown();
+                        },
+                        t -> {
+                            removePollableMeter(t);
+                            ((StatsdTimer) t).shutdown();
+                        },
+                        d -> {
+                            removePollableMeter(d);
+                            ((StatsdDistributionSummary) d).shutdown();
+                        },
                         this::removePollableMeter,
                         this::removePollableMeter,
                         this::removePollableMeter,
@@ -142,13 +180,49 @@ public class StatsdMeterRegistry extends MeterRegistry {
                         })
         );
 
+        if (config.enabled() && lineSink == null && config.protocol() == StatsdProtocol.UDP && config.ringBufferCapacity() > 0) {
+            this.ringBufferSink = new StatsdRingBufferSink(config.host(), config.port(), config.ringBufferCapacity(),
+                    config.maxPacketLength(), config.buffered() ? config.pollingFrequency() : Duration.ZERO);
+        } else {
+            this.ringBufferSink = null;
+        }
+
         if (config.enabled()) {
-            this.sink = Sinks.many().multicast().directBestEffort();
+            this.sink = ringBufferSink != null ? ringBufferSink : Sinks.many().multicast().directBestEffort();
 
             try {
                 Class.forName("ch.qos.logback.classic.turbo.TurboFilter", false, getClass().getClassLoader());
                 this.sink = new LogbackMetricsSuppressingManySink(this.sink);
             } catch (ClassNotFoundException ignore) { }
+        }
+
+        if (config.enabled() && config.buffered() && lineSink == null && ringBufferSink == null) {
+            Sinks.Many<ByteBuf> packets = Sinks.many().multicast().directBestEffort();
+            this.packets = packets;
+            this.packetWriter = new StatsdPacketWriter(config.maxPacketLength(), ByteBufAllocator.DEFAULT, packet -> {
+                if (packets.tryEmitNext(packet).isFailure()) {
+                    // not connected, or the connection can't keep up
+                    packet.release();
+                }
+            });
+            this.sink.asFlux().subscribe(this.packetWriter::write);
+        } else {
+            this.packets = null;
+            this.packetWriter = null;
+        }
+
+        if (ringBufferSink != null) {
+            FunctionCounter.builder("micrometer.statsd.lines.dropped", ringBufferSink, StatsdRingBufferSink::dropped)
+                    .tag("reason", "queue.full")
+                    .description("Lines not sent because the queue of lines waiting to be sent was full")
+                    .register(this);
+            FunctionCounter.builder("micrometer.statsd.lines.dropped", ringBufferSink, StatsdRingBufferSink::failed)
+                    .tag("reason", "send.error")
+                    .description("Lines not sent because sending the datagram they were packed into failed")
+                    .register(this);
+        }
+
+        if (config.enabled()) {
             start();
         }
     }
@@ -181,6 +255,11 @@ public class StatsdMeterRegistry extends MeterRegistry {
                 warnThenDebugLogger.log("Failed to poll a meter '" + pollableMeter.getKey().getName() + "'.", e);
             }
         }
+
+        if (packetWriter != null) {
+            // polls happen every polling frequency, which also bounds how long lines wait for a packet to fill
+            packetWriter.flush();
+        }
     }
 
     public void start() {
@@ -209,31 +288,37 @@ public class StatsdMeterRegistry extends MeterRegistry {
                     }
                 });
 
+                startPolling();
+            } else if (ringBufferSink != null) {
+                ringBufferSink.start();
                 startPolling();
             } else {
-                final Publisher<String> publisher;
-                if (statsdConfig.buffered()) {
-                    publisher = BufferingFlux.create(this.sink.asFlux(), "\n", statsdConfig.maxPacketLength(), statsdConfig.pollingFrequency().toMillis())
-                            .onBackpressureLatest();
+                final Function<NettyOutbound, NettyOutbound> send;
+                if (packets != null) {
+                    Publisher<ByteBuf> publisher = packets.asFlux();
+                    send = out -> out.send(publisher);
                 } else {
-                    publisher = this.sink.asFlux();
+                    Publisher<String> publisher = this.sink.asFlux();
+                    send = out -> out.sendString(publisher);
                 }
                 if (statsdConfig.protocol() == StatsdProtocol.UDP) {
-                    prepareUdpClient(publisher);
+                    prepareUdpClient(send, () -> InetSocketAddress.createUnresolved(statsdConfig.host(), statsdConfig.port()));
                 } else if (statsdConfig.protocol() == StatsdProtocol.TCP) {
-                    prepareTcpClient(publisher);
+                    prepareTcpClient(send, () -> InetSocketAddress.createUnresolved(statsdConfig.host(), statsdConfig.port()));
+                } else if (statsdConfig.protocol() == StatsdProtocol.UDS_DATAGRAM) {
+                    prepareUdpClient(send, () -> new DomainSocketAddress(statsdConfig.host()));
+                } else if (statsdConfig.protocol() == StatsdProtocol.UDS_STREAM) {
+                    prepareTcpClient(send, () -> new DomainSocketAddress(statsdConfig.host()));
                 }
             }
         }
     }
 
-    private void prepareUdpClient(Publisher<String> publisher) {
+    private void prepareUdpClient(Function<NettyOutbound, NettyOutbound> send, Supplier<SocketAddress> remoteAddress) {
         AtomicReference<UdpClient> udpClientReference = new AtomicReference<>();
         UdpClient udpClient = UdpClient.create()
-                .host(statsdConfig.host())
-                .port(statsdConfig.port())
-                .handle((in, out) -> out
-                        .sendString(publisher)
+                .remoteAddress(remoteAddress)
+                .handle((in, out) -> send.apply(out)
                         .neverComplete()
                         .retryWhen(Retry.indefinitely().filter(throwable -> throwable instanceof PortUnreachableException))
                 )
@@ -247,13 +332,11 @@ public class StatsdMeterRegistry extends MeterRegistry {
         connectAndSubscribe(udpClient);
     }
 
-    private void prepareTcpClient(Publisher<String> publisher) {
+    private void prepareTcpClient(Function<NettyOutbound, NettyOutbound> send, Supplier<SocketAddress> remoteAddress) {
         AtomicReference<TcpClient> tcpClientReference = new AtomicReference<>();
         TcpClient tcpClient = TcpClient.create()
-                .host(statsdConfig.host())
-                .port(statsdConfig.port())
-                .handle((in, out) -> out
-                        .sendString(publisher)
+                .remoteAddress(remoteAddress)
+                .handle((in, out) -> send.apply(out)
                         .neverComplete())
                 .doOnDisconnected(connection -> {
                     Boolean connectionDisposed = connection.channel().attr(CONNECTION_DISPOSED).getAndSet(Boolean.TRUE);
@@ -308,6 +391,9 @@ public class StatsdMeterRegistry extends MeterRegistry {
             if (meterPoller.get() != null) {
                 meterPoller.get().dispose();
             }
+            if (ringBufferSink != null) {
+                ringBufferSink.stop();
+            }
         }
     }
 
@@ -344,6 +430,25 @@ public class StatsdMeterRegistry extends MeterRegistry {
         return lineBuilderFunction.apply(id);
     }
 
+    /**
+     * @return The packet writer, if lines are packed into packets and the line builder can encode them directly.
+     */
+    @Nullable
+    private StatsdPacketWriter packetWriter(StatsdLineBuilder lineBuilder) {
+        return lineBuilder instanceof FlavorStatsdLineBuilder ? packetWriter : null;
+    }
+
+    /**
+     * @return A sampler of its own for a timer or distribution summary, if not every sample is to be written.
+     */
+    @Nullable
+    private StatsdSampler sampler() {
+        if (statsdConfig.sampleRate() >= 1 && statsdConfig.adaptiveSamplingLinesPerSecond() <= 0) {
+            return null;
+        }
+        return new StatsdSampler(clock, statsdConfig.sampleRate(), statsdConfig.adaptiveSamplingLinesPerSecond());
+    }
+
     private DistributionStatisticConfig addInfBucket(DistributionStatisticConfig config) {
         double[] serviceLevelObjectives = config.getServiceLevelObjectiveBoundaries() == null ? new double[]{Double.POSITIVE_INFINITY} :
                 DoubleStream.concat(Arrays.stream(config.getServiceLevelObjectiveBoundaries()), DoubleStream.of(Double.POSITIVE_INFINITY)).toArray();
@@ -355,7 +460,13 @@ public class StatsdMeterRegistry extends MeterRegistry {
 
     @Override
     protected Counter newCounter(Meter.Id id) {
-        return new StatsdCounter(id, lineBuilder(id), this.sink);
+        StatsdLineBuilder lineBuilder = lineBuilder(id);
+        StatsdCounter counter = new StatsdCounter(id, lineBuilder, this.sink, statsdConfig.clientSideAggregation(),
+                packetWriter(lineBuilder));
+        if (statsdConfig.clientSideAggregation()) {
+            pollableMeters.put(id, counter);
+        }
+        return counter;
     }
 
     @Override
@@ -376,8 +487,16 @@ public class StatsdMeterRegistry extends MeterRegistry {
             distributionStatisticConfig = addInfBucket(distributionStatisticConfig);
         }
 
-        Timer timer = new StatsdTimer(id, lineBuilder(id), this.sink, clock, distributionStatisticConfig, pauseDetector, getBaseTimeUnit(),
-                statsdConfig.step().toMillis());
+        StatsdLineBuilder lineBuilder = lineBuilder(id);
+        StatsdSampleBuffer samples = statsdConfig.clientSideAggregation() ?
+                new StatsdSampleBuffer(SAMPLE_BUFFER_CAPACITY, (timesMs, count) ->
+                        lineBuilder.timings(timesMs, count, statsdConfig.maxPacketLength(), this.sink::tryEmitNext)) :
+                null;
+        StatsdTimer timer = new StatsdTimer(id, lineBuilder, this.sink, clock, distributionStatisticConfig, pauseDetector, getBaseTimeUnit(),
+                statsdConfig.step().toMillis(), samples, packetWriter(lineBuilder), samples == null ? sampler() : null);
+        if (samples != null) {
+            pollableMeters.put(id, timer);
+        }
         HistogramGauges.registerWithCommonFormat(timer, this);
         return timer;
     }
@@ -391,7 +510,16 @@ public class StatsdMeterRegistry extends MeterRegistry {
             distributionStatisticConfig = addInfBucket(distributionStatisticConfig);
         }
 
-        DistributionSummary summary = new StatsdDistributionSummary(id, lineBuilder(id), this.sink, clock, distributionStatisticConfig, scale);
+        StatsdLineBuilder lineBuilder = lineBuilder(id);
+        StatsdSampleBuffer samples = statsdConfig.clientSideAggregation() ?
+                new StatsdSampleBuffer(SAMPLE_BUFFER_CAPACITY, (amounts, count) ->
+                        lineBuilder.histograms(amounts, count, statsdConfig.maxPacketLength(), this.sink::tryEmitNext)) :
+                null;
+        StatsdDistributionSummary summary = new StatsdDistributionSummary(id, lineBuilder, this.sink, clock, distributionStatisticConfig, scale,
+                samples, packetWriter(lineBuilder), samples == null ? sampler() : null);
+        if (samples != null) {
+            pollableMeters.put(id, summary);
+        }
         HistogramGauges.registerWithCommonFormat(summary, this);
         return summary;
     }
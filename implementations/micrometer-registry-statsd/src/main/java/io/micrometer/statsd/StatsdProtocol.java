@@ -23,5 +23,21 @@ package io.micrometer.statsd;
  */
 public enum StatsdProtocol {
     UDP,
-    TCP
+    TCP,
+
+    /**
+     * Datagrams over a Unix domain socket, whose path is given by {@link StatsdConfig#host()}. Requires a native
+     * transport, which is available on Linux.
+     *
+     * @since 1.7.0
+     */
+    UDS_DATAGRAM,
+
+    /**
+     * A stream over a Unix domain socket, whose path is given by {@link StatsdConfig#host()}. Requires a native
+     * transport, which is available on Linux.
+     *
+     * @since 1.7.0
+     */
+    UDS_STREAM
 }
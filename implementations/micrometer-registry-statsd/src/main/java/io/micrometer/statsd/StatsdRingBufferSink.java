@@ -0,0 +1,328 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.statsd;
+
+import io.micrometer.core.instrument.util.NamedThreadFactory;
+import io.micrometer.core.lang.Nullable;
+import io.micrometer.core.util.internal.MpscSequencer;
+import io.micrometer.core.util.internal.logging.WarnThenDebugLogger;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.UnresolvedAddressException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends lines to a StatsD agent over UDP from a dedicated thread, packing them into datagrams of up to a maximum
+ * packet length.
+ * <p>
+ * Lines go through a bounded, lock-free queue with many producers and the sending thread as consumer, so emitting a
+ * line neither takes a lock nor runs any reactor operator. When the queue is full, the line is dropped and counted in
+ * {@link #dropped()}. Lines in a datagram that could not be sent are counted in {@link #failed()}.
+ */
+class StatsdRingBufferSink implements Sinks.Many<String>, Runnable {
+    private static final WarnThenDebugLogger warnThenDebugLogger = new WarnThenDebugLogger(StatsdRingBufferSink.class);
+
+    static final int MAX_CAPACITY = MpscSequencer.MAX_CAPACITY;
+
+    private final String host;
+    private final int port;
+
+    private final MpscSequencer sequencer;
+    private final String[] lines;
+
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private final boolean buffered;
+    private final long maxNanosBetweenPackets;
+
+    /**
+     * Only used by the sending thread, or by {@link #stop()} once the sending thread has finished.
+     */
+    private final ByteBuffer packet;
+    private int packetLines;
+    private long packetStarted;
+
+    @Nullable
+    private DatagramChannel channel;
+
+    @Nullable
+    private InetSocketAddress address;
+
+    private volatile boolean running;
+
+    /**
+     * Set by the sending thread before it parks, so that {@link #offer(String)} knows to wake it.
+     */
+    private volatile boolean idle;
+
+    @Nullable
+    private volatile Thread thread;
+
+    /**
+     * @param host                 The host name of the StatsD agent.
+     * @param port                 The port of the StatsD agent.
+     * @param capacity             The number of lines that can wait to be sent, rounded up to a power of two. At
+     *                             most {@link #MAX_CAPACITY}.
+     * @param maxPacketLength      The most bytes to pack into one datagram. A single longer line is sent on its own.
+     * @param maxTimeBetweenPackets How long a partially filled datagram waits for more lines, or {@link Duration#ZERO}
+     *                             to send every line in a datagram of its own.
+     */
+    StatsdRingBufferSink(String host, int port, int capacity, int maxPacketLength, Duration maxTimeBetweenPackets) {
+        this.host = host;
+        this.port = port;
+        this.sequencer = new MpscSequencer(capacity);
+        this.lines = new String[sequencer.size()];
+
+        this.buffered = !maxTimeBetweenPackets.isZero();
+        this.maxNanosBetweenPackets = maxTimeBetweenPackets.toNanos();
+        this.packet = ByteBuffer.allocate(maxPacketLength);
+    }
+
+    synchronized void start() {
+        if (thread == null) {
+            running = true;
+            thread = new NamedThreadFactory("micrometer-statsd-sender").newThread(this);
+            thread.start();
+        }
+    }
+
+    /**
+     * Stop the sending thread, then send the lines still queued and close the channel.
+     */
+    synchronized void stop() {
+        Thread thread = this.thread;
+        if (thread != null) {
+            running = false;
+            LockSupport.unpark(thread);
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            this.thread = null;
+
+            drain();
+            sendPacket();
+            closeChannel();
+        }
+    }
+
+    @Override
+    public Sinks.EmitResult tryEmitNext(String line) {
+        if (!running) {
+            return Sinks.EmitResult.FAIL_TERMINATED;
+        }
+        return offer(line) ? Sinks.EmitResult.OK : Sinks.EmitResult.FAIL_OVERFLOW;
+    }
+
+    /**
+     * @param line The line to send.
+     * @return {@code false} if the queue was full and the line was dropped.
+     */
+    boolean offer(String line) {
+        long position = sequencer.claim();
+        if (position < 0) {
+            dropped.increment();
+            return false;
+        }
+        lines[sequencer.index(position)] = line;
+        // a volatile write, so that either the sending thread sees this line before it parks or this thread sees
+        // that it is idle
+        sequencer.publish(position);
+        if (idle) {
+            Thread sender = thread;
+            if (sender != null) {
+                LockSupport.unpark(sender);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of lines dropped because the queue was full.
+     */
+    long dropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return The number of lines in datagrams that could not be sent.
+     */
+    long failed() {
+        return failed.sum();
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            if (drain() > 0) {
+                continue;
+            }
+
+            long untilDeadline = 0;
+            if (packetLines > 0) {
+                untilDeadline = packetStarted + maxNanosBetweenPackets - System.nanoTime();
+                if (untilDeadline <= 0) {
+                    sendPacket();
+                    continue;
+                }
+            }
+
+            idle = true;
+            if (drain() == 0 && running) {
+                // park until a line is offered, or until a partially filled datagram is due to be sent
+                if (packetLines > 0) {
+                    LockSupport.parkNanos(this, untilDeadline);
+                } else {
+                    LockSupport.park(this);
+                }
+            }
+            idle = false;
+        }
+    }
+
+    /**
+     * Pack every line queued so far, sending datagrams as they fill up.
+     *
+     * @return The number of lines drained.
+     */
+    private int drain() {
+        int drained = 0;
+        for (; ; ) {
+            int index = sequencer.peek();
+            if (index < 0) {
+                return drained;
+            }
+
+            String line = lines[index];
+            lines[index] = null;
+            sequencer.release();
+
+            append(line.getBytes(StandardCharsets.UTF_8));
+            drained++;
+        }
+    }
+
+    private void append(byte[] line) {
+        if (!buffered) {
+            send(ByteBuffer.wrap(line), 1);
+            return;
+        }
+
+        if (packetLines > 0 && line.length + 1 > packet.remaining()) {
+            sendPacket();
+        }
+
+        if (line.length + 1 > packet.remaining()) {
+            send((ByteBuffer) ByteBuffer.allocate(line.length + 1).put(line).put((byte) '\n').flip(), 1);
+            return;
+        }
+
+        if (packetLines == 0) {
+            packetStarted = System.nanoTime();
+        }
+        packet.put(line).put((byte) '\n');
+        packetLines++;
+
+        if (!packet.hasRemaining()) {
+            sendPacket();
+        }
+    }
+
+    private void sendPacket() {
+        if (packetLines > 0) {
+            packet.flip();
+            send(packet, packetLines);
+            packet.clear();
+            packetLines = 0;
+        }
+    }
+
+    private void send(ByteBuffer datagram, int lineCount) {
+        try {
+            if (channel == null) {
+                channel = DatagramChannel.open();
+            }
+            if (address == null || address.isUnresolved()) {
+                address = new InetSocketAddress(host, port);
+            }
+            channel.send(datagram, address);
+        } catch (IOException | UnresolvedAddressException e) {
+            failed.add(lineCount);
+            warnThenDebugLogger.log("Failed to send lines to the StatsD agent at " + host + ":" + port + ".", e);
+            closeChannel();
+        }
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignore) {
+            }
+            channel = null;
+        }
+        // resolve the host again when sending the next datagram
+        address = null;
+    }
+
+    @Override
+    public Sinks.EmitResult tryEmitComplete() {
+        return Sinks.EmitResult.OK;
+    }
+
+    @Override
+    public Sinks.EmitResult tryEmitError(Throwable error) {
+        return Sinks.EmitResult.OK;
+    }
+
+    @Override
+    public void emitNext(String line, Sinks.EmitFailureHandler failureHandler) {
+        tryEmitNext(line);
+    }
+
+    @Override
+    public void emitComplete(Sinks.EmitFailureHandler failureHandler) {
+    }
+
+    @Override
+    public void emitError(Throwable error, Sinks.EmitFailureHandler failureHandler) {
+    }
+
+    @Override
+    public int currentSubscriberCount() {
+        return 0;
+    }
+
+    @Override
+    public Flux<String> asFlux() {
+        return Flux.empty();
+    }
+
+    @Override
+    public Object scanUnsafe(Attr key) {
+        return null;
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.statsd;
+
+import io.micrometer.core.lang.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Buffers the samples of a timer or distribution summary between polls when client-side aggregation is enabled,
+ * so that they are written a buffer at a time rather than a line per recording.
+ * <p>
+ * A full buffer is swapped for an empty one while holding this buffer's lock, and flushed after releasing it, so
+ * that threads recording to the same meter don't wait for its samples to be formatted and written. Flushed buffers
+ * are kept for reuse, so a steady stream of samples alternates between two arrays.
+ * <p>
+ * Nothing is allocated until the first sample. The buffer then starts small and grows up to its capacity as samples
+ * arrive between polls, and both arrays are released when a poll finds no samples, so idle meters hold no buffer.
+ *
+ * @see StatsdConfig#clientSideAggregation()
+ */
+final class StatsdSampleBuffer {
+    private static final double[] NO_SAMPLES = new double[0];
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int capacity;
+    private final Flusher flusher;
+    private double[] samples = NO_SAMPLES;
+    private int size;
+
+    /**
+     * A flushed buffer ready to be swapped in, if any.
+     */
+    @Nullable
+    private double[] spare;
+
+    /**
+     * @param capacity The most samples to buffer before flushing them without waiting for the next poll.
+     * @param flusher  Writes buffered samples.
+     */
+    StatsdSampleBuffer(int capacity, Flusher flusher) {
+        this.capacity = capacity;
+        this.flusher = flusher;
+    }
+
+    void record(double sample) {
+        double[] full;
+        synchronized (this) {
+            if (size == samples.length) {
+                samples = Arrays.copyOf(samples, Math.min(Math.max(INITIAL_CAPACITY, size * 2), capacity));
+            }
+            samples[size++] = sample;
+            if (size < capacity) {
+                return;
+            }
+            // flush early rather than drop samples, which would skew counts in the agent
+            full = swap();
+        }
+        flush(full, full.length);
+    }
+
+    void flush() {
+        double[] taken;
+        int count;
+        synchronized (this) {
+            if (size == 0) {
+                // idle since the last poll, so hold no arrays until the next sample
+                samples = NO_SAMPLES;
+                spare = null;
+                return;
+            }
+            count = size;
+            taken = swap();
+        }
+        flush(taken, count);
+    }
+
+    /**
+     * Must be called while holding this buffer's lock.
+     */
+    private double[] swap() {
+        double[] taken = samples;
+        // as large as the samples taken, so that the same rate of samples doesn't grow the buffer again
+        samples = spare != null && spare.length >= taken.length ? spare : new double[taken.length];
+        spare = null;
+        size = 0;
+        return taken;
+    }
+
+    private void flush(double[] taken, int count) {
+        try {
+            flusher.flush(taken, count);
+        } finally {
+            synchronized (this) {
+                if (spare == null || spare.length < taken.length) {
+                    spare = taken;
+                }
+            }
+        }
+    }
+
+    interface Flusher {
+        void flush(double[] samples, int count);
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.statsd;
+
+import io.micrometer.core.instrument.Clock;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides which samples of a timer or distribution summary are written to the agent. Samples are written at a fixed
+ * rate, or at a rate that adapts once a second so that the meter writes about a budgeted number of lines per second.
+ */
+class StatsdSampler {
+    private static final long WINDOW_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Rates are kept to the six decimal places a line is written with, so that the rate written with a line is exactly
+     * the rate it was sampled at.
+     */
+    private static final double RATE_SCALE = 1_000_000;
+
+    private final Clock clock;
+    private final double maxRate;
+    private final int linesPerSecond;
+
+    private final LongAdder recorded = new LongAdder();
+    private final AtomicLong windowStart;
+
+    private volatile double rate;
+
+    /**
+     * @param clock          Measures the windows the rate adapts over.
+     * @param sampleRate     The fraction of samples to write.
+     * @param linesPerSecond When greater than zero, the lines per second to lower the rate below {@code sampleRate}
+     *                       for.
+     */
+    StatsdSampler(Clock clock, double sampleRate, int linesPerSecond) {
+        this.clock = clock;
+        this.maxRate = quantize(sampleRate);
+        this.linesPerSecond = linesPerSecond;
+        this.windowStart = new AtomicLong(clock.monotonicTime());
+        this.rate = maxRate;
+    }
+
+    /**
+     * @return The rate the sample was kept at, or {@code 0} if it is not to be written.
+     */
+    double sample() {
+        if (linesPerSecond > 0) {
+            long now = clock.monotonicTime();
+            long start = windowStart.get();
+            if (now - start >= WINDOW_NANOS && windowStart.compareAndSet(start, now)) {
+                adapt(recorded.sumThenReset(), now - start);
+            }
+            recorded.increment();
+        }
+
+        double rate = this.rate;
+        return rate >= 1 || ThreadLocalRandom.current().nextDouble() < rate ? rate : 0;
+    }
+
+    private void adapt(long samples, long elapsedNanos) {
+        double samplesPerSecond = (double) samples * WINDOW_NANOS / elapsedNanos;
+        rate = samplesPerSecond <= linesPerSecond ?
+                maxRate :
+                Math.min(maxRate, quantize(linesPerSecond / samplesPerSecond));
+    }
+
+    private static double quantize(double rate) {
+        if (rate >= 1) {
+            return 1;
+        }
+        return Math.max(1, Math.floor(rate * RATE_SCALE)) / RATE_SCALE;
+    }
+}
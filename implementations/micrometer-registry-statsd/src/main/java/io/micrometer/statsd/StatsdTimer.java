@@ -21,26 +21,54 @@ import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
 import io.micrometer.core.instrument.distribution.pause.PauseDetector;
 import io.micrometer.core.instrument.step.StepDouble;
 import io.micrometer.core.instrument.util.TimeUtils;
+import io.micrometer.core.lang.Nullable;
+import io.micrometer.statsd.internal.FlavorStatsdLineBuilder;
+import io.micrometer.statsd.internal.StatsdPacketWriter;
 import reactor.core.publisher.Sinks;
 
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.DoubleAdder;
 import java.util.concurrent.atomic.LongAdder;
 
-public class StatsdTimer extends AbstractTimer {
+public class StatsdTimer extends AbstractTimer implements StatsdPollable {
     private final LongAdder count = new LongAdder();
     private final DoubleAdder totalTime = new DoubleAdder();
     private final StatsdLineBuilder lineBuilder;
     private final Sinks.Many<String> sink;
     private StepDouble max;
+
+    @Nullable
+    private final StatsdSampleBuffer samples;
+
+    /**
+     * Encodes lines without building them as strings, if the line builder supports it.
+     */
+    @Nullable
+    private final StatsdPacketWriter packets;
+
+    /**
+     * Decides which samples are written, if not every sample is.
+     */
+    @Nullable
+    private final StatsdSampler sampler;
+
     private volatile boolean shutdown;
 
     StatsdTimer(Id id, StatsdLineBuilder lineBuilder, Sinks.Many<String> sink, Clock clock,
                 DistributionStatisticConfig distributionStatisticConfig, PauseDetector pauseDetector, TimeUnit baseTimeUnit, long stepMillis) {
+        this(id, lineBuilder, sink, clock, distributionStatisticConfig, pauseDetector, baseTimeUnit, stepMillis, null, null, null);
+    }
+
+    StatsdTimer(Id id, StatsdLineBuilder lineBuilder, Sinks.Many<String> sink, Clock clock,
+                DistributionStatisticConfig distributionStatisticConfig, PauseDetector pauseDetector, TimeUnit baseTimeUnit, long stepMillis,
+                @Nullable StatsdSampleBuffer samples, @Nullable StatsdPacketWriter packets, @Nullable StatsdSampler sampler) {
         super(id, clock, distributionStatisticConfig, pauseDetector, baseTimeUnit, false);
         this.max = new StepDouble(clock, stepMillis);
         this.lineBuilder = lineBuilder;
         this.sink = sink;
+        this.samples = samples;
+        this.packets = packets;
+        this.sampler = sampler;
     }
 
     @Override
@@ -54,7 +82,25 @@ public class StatsdTimer extends AbstractTimer {
             // not necessary to ship max, as most StatsD agents calculate this themselves
             max.getCurrent().add(Math.max(msAmount - max.getCurrent().doubleValue(), 0));
 
-            sink.tryEmitNext(lineBuilder.timing(msAmount));
+            double sampleRate = sampler == null ? 1 : sampler.sample();
+            if (samples != null) {
+                samples.record(msAmount);
+            } else if (sampleRate < 1) {
+                if (sampleRate > 0) {
+                    sink.tryEmitNext(lineBuilder.timing(msAmount, sampleRate));
+                }
+            } else if (packets != null) {
+                packets.timing((FlavorStatsdLineBuilder) lineBuilder, msAmount);
+            } else {
+                sink.tryEmitNext(lineBuilder.timing(msAmount));
+            }
+        }
+    }
+
+    @Override
+    public void poll() {
+        if (samples != null) {
+            samples.flush();
         }
     }
 
@@ -79,5 +125,6 @@ public class StatsdTimer extends AbstractTimer {
 
     void shutdown() {
         this.shutdown = true;
+        poll();
     }
 }
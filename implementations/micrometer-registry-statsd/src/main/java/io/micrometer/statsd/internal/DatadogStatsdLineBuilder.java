@@ -56,6 +56,11 @@ public class DatadogStatsdLineBuilder extends FlavorStatsdLineBuilder {
         return name + amount + "|" + type + tagsByStatistic(stat);
     }
 
+    @Override
+    boolean packsValues() {
+        return true;
+    }
+
     private void updateIfNamingConventionChanged() {
         NamingConvention next = config.namingConvention();
         if (this.namingConvention != next) {
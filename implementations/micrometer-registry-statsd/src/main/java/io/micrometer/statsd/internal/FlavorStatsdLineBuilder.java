@@ -18,11 +18,16 @@ package io.micrometer.statsd.internal;
 import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Statistic;
+import io.micrometer.core.instrument.config.NamingConvention;
 import io.micrometer.core.instrument.util.DoubleFormat;
 import io.micrometer.core.lang.Nullable;
 import io.micrometer.statsd.StatsdLineBuilder;
+import io.netty.buffer.ByteBuf;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static java.util.stream.Stream.of;
@@ -33,9 +38,26 @@ public abstract class FlavorStatsdLineBuilder implements StatsdLineBuilder {
     private static final String TYPE_HISTOGRAM = "h";
     private static final String TYPE_TIMING = "ms";
 
+    /**
+     * Stands in for the amount when a line is rendered once to find the bytes before and after it.
+     */
+    private static final String AMOUNT_PLACEHOLDER = "\u0000";
+
+    private static final int COUNT_LINE = 0;
+    private static final int HISTOGRAM_LINE = 1;
+    private static final int TIMING_LINE = 2;
+
     protected final Meter.Id id;
     protected final MeterRegistry.Config config;
 
+    @Nullable
+    private volatile NamingConvention encodedNamingConvention;
+
+    /**
+     * The encoded bytes around the amount of count, histogram and timing lines.
+     */
+    private final AtomicReferenceArray<byte[][]> encodedLines = new AtomicReferenceArray<>(3);
+
     protected FlavorStatsdLineBuilder(Meter.Id id, MeterRegistry.Config config) {
         this.id = id;
         this.config = config;
@@ -61,6 +83,138 @@ public abstract class FlavorStatsdLineBuilder implements StatsdLineBuilder {
         return line(DoubleFormat.decimalOrNan(timeMs), null, TYPE_TIMING);
     }
 
+    @Override
+    public String histogram(double amount, double sampleRate) {
+        return line(DoubleFormat.decimalOrNan(amount), null, sampled(TYPE_HISTOGRAM, sampleRate));
+    }
+
+    @Override
+    public String timing(double timeMs, double sampleRate) {
+        return line(DoubleFormat.decimalOrNan(timeMs), null, sampled(TYPE_TIMING, sampleRate));
+    }
+
+    /**
+     * The sample rate follows the type in every flavor, ahead of any tags.
+     */
+    private static String sampled(String type, double sampleRate) {
+        return type + "|@" + DoubleFormat.decimalOrNan(sampleRate);
+    }
+
+    /**
+     * Write a count line straight into a buffer, the same as {@link #count(long)} without building a {@link String}.
+     *
+     * @param target The buffer to write to.
+     * @param amount The amount to count.
+     * @since 1.7.0
+     */
+    public void writeCount(ByteBuf target, long amount) {
+        byte[][] line = encodedLine(COUNT_LINE, TYPE_COUNT, Statistic.COUNT);
+        target.writeBytes(line[0]);
+        StatsdNumberWriter.writeLong(target, amount);
+        target.writeBytes(line[1]);
+    }
+
+    /**
+     * Write a histogram line straight into a buffer, the same as {@link #histogram(double)} without building a
+     * {@link String}.
+     *
+     * @param target The buffer to write to.
+     * @param amount The amount to record.
+     * @since 1.7.0
+     */
+    public void writeHistogram(ByteBuf target, double amount) {
+        byte[][] line = encodedLine(HISTOGRAM_LINE, TYPE_HISTOGRAM, null);
+        target.writeBytes(line[0]);
+        StatsdNumberWriter.writeDecimalOrNan(target, amount);
+        target.writeBytes(line[1]);
+    }
+
+    /**
+     * Write a timing line straight into a buffer, the same as {@link #timing(double)} without building a
+     * {@link String}.
+     *
+     * @param target The buffer to write to.
+     * @param timeMs The timing to record in milliseconds.
+     * @since 1.7.0
+     */
+    public void writeTiming(ByteBuf target, double timeMs) {
+        byte[][] line = encodedLine(TIMING_LINE, TYPE_TIMING, null);
+        target.writeBytes(line[0]);
+        StatsdNumberWriter.writeDecimalOrNan(target, timeMs);
+        target.writeBytes(line[1]);
+    }
+
+    /**
+     * @return The UTF-8 bytes of a line before and after its amount, encoded once per naming convention.
+     */
+    private byte[][] encodedLine(int lineIndex, String type, @Nullable Statistic stat) {
+        NamingConvention namingConvention = config.namingConvention();
+        if (encodedNamingConvention != namingConvention) {
+            for (int i = 0; i < encodedLines.length(); i++) {
+                encodedLines.set(i, null);
+            }
+            encodedNamingConvention = namingConvention;
+        }
+
+        byte[][] encoded = encodedLines.get(lineIndex);
+        if (encoded == null) {
+            String line = line(AMOUNT_PLACEHOLDER, stat, type);
+            int amountIndex = line.indexOf(AMOUNT_PLACEHOLDER);
+            encoded = new byte[][]{
+                    line.substring(0, amountIndex).getBytes(StandardCharsets.UTF_8),
+                    line.substring(amountIndex + AMOUNT_PLACEHOLDER.length()).getBytes(StandardCharsets.UTF_8)
+            };
+            encodedLines.set(lineIndex, encoded);
+        }
+        return encoded;
+    }
+
+    @Override
+    public void histograms(double[] amounts, int count, int maxPacketLength, Consumer<String> lines) {
+        lines(amounts, count, maxPacketLength, TYPE_HISTOGRAM, lines);
+    }
+
+    @Override
+    public void timings(double[] timesMs, int count, int maxPacketLength, Consumer<String> lines) {
+        lines(timesMs, count, maxPacketLength, TYPE_TIMING, lines);
+    }
+
+    private void lines(double[] amounts, int count, int maxPacketLength, String type, Consumer<String> lines) {
+        if (!packsValues()) {
+            for (int i = 0; i < count; i++) {
+                lines.accept(line(DoubleFormat.decimalOrNan(amounts[i]), null, type));
+            }
+            return;
+        }
+
+        // amounts are ASCII, so only the rest of the line can take more bytes than chars, and the packet writer and
+        // ring buffer follow every line with a one byte delimiter
+        int bytesWithoutAmounts = line("", null, type).getBytes(StandardCharsets.UTF_8).length + 1;
+        StringBuilder packed = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            String amount = DoubleFormat.decimalOrNan(amounts[i]);
+            if (packed.length() > 0) {
+                if (bytesWithoutAmounts + packed.length() + 1 + amount.length() > maxPacketLength) {
+                    lines.accept(line(packed.toString(), null, type));
+                    packed.setLength(0);
+                } else {
+                    packed.append(':');
+                }
+            }
+            packed.append(amount);
+        }
+        if (packed.length() > 0) {
+            lines.accept(line(packed.toString(), null, type));
+        }
+    }
+
+    /**
+     * @return {@code true} if the flavor accepts several values in one line, separated by {@code :}.
+     */
+    boolean packsValues() {
+        return false;
+    }
+
     abstract String line(String amount, @Nullable Statistic stat, String type);
 
     protected String tags(@Nullable Statistic stat, @Nullable String otherTags, String keyValueSeparator, String preamble) {
@@ -0,0 +1,117 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.statsd.internal;
+
+import io.micrometer.core.instrument.util.DoubleFormat;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufUtil;
+
+/**
+ * Writes numbers as ASCII digits straight into a {@link ByteBuf}, the same way {@link Long#toString(long)} and
+ * {@link DoubleFormat#decimalOrNan(double)} render them, without going through a {@link String}.
+ */
+final class StatsdNumberWriter {
+    private static final byte[] NAN = {'N', 'a', 'N'};
+
+    private static final int FRACTION_DIGITS = 6;
+    private static final long FRACTION_SCALE = 1_000_000;
+
+    /**
+     * Below this magnitude, a value scaled by {@link #FRACTION_SCALE} keeps enough precision to round its sixth
+     * fraction digit unambiguously.
+     */
+    private static final double MAX_SCALED_MAGNITUDE = 1e6;
+
+    /**
+     * Scaled values this close to a rounding tie are left to {@link DoubleFormat}, which rounds the shortest decimal
+     * representation of the value rather than its binary one.
+     */
+    private static final double TIE_TOLERANCE = 1e-3;
+
+    private StatsdNumberWriter() {
+    }
+
+    static void writeLong(ByteBuf target, long value) {
+        if (value == Long.MIN_VALUE) {
+            ByteBufUtil.writeAscii(target, Long.toString(value));
+            return;
+        }
+        if (value < 0) {
+            target.writeByte('-');
+            value = -value;
+        }
+        writeDigits(target, value, 1);
+    }
+
+    static void writeDecimalOrNan(ByteBuf target, double value) {
+        if (Double.isNaN(value)) {
+            target.writeBytes(NAN);
+            return;
+        }
+
+        double magnitude = Math.abs(value);
+        if (magnitude < MAX_SCALED_MAGNITUDE) {
+            double scaled = magnitude * FRACTION_SCALE;
+            double floor = Math.floor(scaled);
+            double fraction = scaled - floor;
+            if (Math.abs(fraction - 0.5) > TIE_TOLERANCE) {
+                long rounded = (long) floor + (fraction > 0.5 ? 1 : 0);
+                writeSign(target, value);
+                writeDigits(target, rounded / FRACTION_SCALE, 1);
+                long fractionDigits = rounded % FRACTION_SCALE;
+                if (fractionDigits != 0) {
+                    target.writeByte('.');
+                    int digits = FRACTION_DIGITS;
+                    while (fractionDigits % 10 == 0) {
+                        fractionDigits /= 10;
+                        digits--;
+                    }
+                    writeDigits(target, fractionDigits, digits);
+                }
+                return;
+            }
+        } else if (magnitude < Long.MAX_VALUE && magnitude == Math.rint(magnitude)) {
+            writeSign(target, value);
+            writeDigits(target, (long) magnitude, 1);
+            return;
+        }
+
+        // infinities are written with a non-ASCII symbol
+        ByteBufUtil.writeUtf8(target, DoubleFormat.decimalOrNan(value));
+    }
+
+    private static void writeSign(ByteBuf target, double value) {
+        // DecimalFormat keeps the sign of negative zero and of negative values that round to zero
+        if (Double.doubleToRawLongBits(value) < 0) {
+            target.writeByte('-');
+        }
+    }
+
+    /**
+     * @param minDigits Pad with leading zeros up to this many digits.
+     */
+    private static void writeDigits(ByteBuf target, long value, int minDigits) {
+        long divisor = 1;
+        int digits = 1;
+        while (divisor <= value / 10 || digits < minDigits) {
+            divisor *= 10;
+            digits++;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            target.writeByte((int) ('0' + (value / divisor) % 10));
+        }
+    }
+}
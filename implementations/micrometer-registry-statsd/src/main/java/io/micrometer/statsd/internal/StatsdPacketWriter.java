@@ -0,0 +1,194 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.statsd.internal;
+
+import io.micrometer.core.lang.Nullable;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.ByteBufUtil;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * This is an internal class only for use within Micrometer.
+ * Packs newline-terminated lines into pooled buffers of up to a maximum packet length, handing each buffer over
+ * once the next line would not fit or on {@link #flush()}. Lines of a {@link FlavorStatsdLineBuilder} are encoded
+ * straight into the buffer, so writing them allocates no {@link String}.
+ * <p>
+ * Lines are packed into one of several stripes, chosen by the writing thread, so that threads recording at the same
+ * time rarely contend for a buffer, and a stripe's lock is only held while a line is encoded. Full packets are
+ * queued and handed over after releasing it, by whichever writing thread gets to them first, while the others carry
+ * on without waiting for the packets to be sent. In exchange, lines from different threads are not packed in the
+ * order they were written, and every stripe in use holds a partially filled buffer until it fills or is flushed.
+ */
+public final class StatsdPacketWriter {
+    private static final int MAX_STRIPES = 16;
+
+    private final int maxPacketLength;
+    private final ByteBufAllocator allocator;
+    private final Consumer<ByteBuf> packets;
+    private final Stripe[] stripes;
+
+    private final Queue<ByteBuf> fullPackets = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean handingOver = new AtomicBoolean();
+
+    /**
+     * @param maxPacketLength The most bytes to pack into one buffer. A single longer line gets a buffer of its own.
+     * @param allocator       Allocates the buffers.
+     * @param packets         Receives each full buffer and becomes responsible for releasing it. Never called by more
+     *                        than one thread at a time.
+     */
+    public StatsdPacketWriter(int maxPacketLength, ByteBufAllocator allocator, Consumer<ByteBuf> packets) {
+        this(maxPacketLength, allocator, packets, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param stripes The number of threads expected to write at the same time, rounded down to a power of two.
+     */
+    StatsdPacketWriter(int maxPacketLength, ByteBufAllocator allocator, Consumer<ByteBuf> packets, int stripes) {
+        this.maxPacketLength = maxPacketLength;
+        this.allocator = allocator;
+        this.packets = packets;
+        this.stripes = new Stripe[Integer.highestOneBit(Math.max(1, Math.min(stripes, MAX_STRIPES)))];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    public void count(FlavorStatsdLineBuilder line, long amount) {
+        Stripe stripe = stripe();
+        synchronized (stripe) {
+            do {
+                line.writeCount(stripe.startLine(), amount);
+            } while (!stripe.endLine());
+        }
+        handOverFullPackets();
+    }
+
+    public void histogram(FlavorStatsdLineBuilder line, double amount) {
+        Stripe stripe = stripe();
+        synchronized (stripe) {
+            do {
+                line.writeHistogram(stripe.startLine(), amount);
+            } while (!stripe.endLine());
+        }
+        handOverFullPackets();
+    }
+
+    public void timing(FlavorStatsdLineBuilder line, double timeMs) {
+        Stripe stripe = stripe();
+        synchronized (stripe) {
+            do {
+                line.writeTiming(stripe.startLine(), timeMs);
+            } while (!stripe.endLine());
+        }
+        handOverFullPackets();
+    }
+
+    public void write(String line) {
+        if (line.isEmpty()) {
+            return;
+        }
+        Stripe stripe = stripe();
+        synchronized (stripe) {
+            do {
+                ByteBufUtil.writeUtf8(stripe.startLine(), line);
+            } while (!stripe.endLine());
+        }
+        handOverFullPackets();
+    }
+
+    /**
+     * Hand over the lines written so far, even if they don't fill a packet.
+     */
+    public void flush() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.queuePacket();
+            }
+        }
+        handOverFullPackets();
+    }
+
+    private Stripe stripe() {
+        return stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)];
+    }
+
+    private void handOverFullPackets() {
+        // rechecked after handing over, in case a packet was queued while another thread was handing over
+        while (!fullPackets.isEmpty() && handingOver.compareAndSet(false, true)) {
+            try {
+                ByteBuf packet;
+                while ((packet = fullPackets.poll()) != null) {
+                    packets.accept(packet);
+                }
+            } finally {
+                handingOver.set(false);
+            }
+        }
+    }
+
+    private final class Stripe {
+        @Nullable
+        private ByteBuf packet;
+
+        private int lineStart;
+
+        ByteBuf startLine() {
+            if (packet == null) {
+                packet = allocator.buffer(maxPacketLength);
+            }
+            lineStart = packet.writerIndex();
+            return packet;
+        }
+
+        /**
+         * @return {@code false} if the line did not fit into a packet that already had lines in it, in which case the
+         * line was taken back out and the packet queued, and the line has to be written again.
+         */
+        boolean endLine() {
+            // always preceded by startLine()
+            //noinspection ConstantConditions
+            ByteBuf current = packet.writeByte('\n');
+
+            if (current.writerIndex() > maxPacketLength && lineStart > 0) {
+                current.writerIndex(lineStart);
+                queuePacket();
+                return false;
+            }
+
+            if (current.writerIndex() >= maxPacketLength) {
+                queuePacket();
+            }
+            return true;
+        }
+
+        void queuePacket() {
+            if (packet != null) {
+                ByteBuf full = packet;
+                packet = null;
+                if (full.isReadable()) {
+                    fullPackets.offer(full);
+                } else {
+                    full.release();
+                }
+            }
+        }
+    }
+}
@@ -37,12 +37,20 @@ class StatsdConfigTest {
         assertThat(config.validate().failures().stream().map(Validated.Invalid::getMessage))
                 .containsOnly(
                         "should be one of 'ETSY', 'DATADOG', 'TELEGRAF', 'SYSDIG'",
-                        "should be one of 'UDP', 'TCP'",
+                        "should be one of 'UDP', 'TCP', 'UDS_DATAGRAM', 'UDS_STREAM'",
                         "must contain a valid time unit"
                 )
                 .hasSize(4);
     }
 
+    @Test
+    void ringBufferCapacityIsBounded() {
+        props.put("statsd.ringBufferCapacity", "1073741825");
+
+        assertThat(config.validate().failures().stream().map(Validated.Invalid::getMessage))
+                .containsExactly("must be between 0 and 1073741824");
+    }
+
     @Test
     void valid() {
         assertThat(config.validate().isValid()).isTrue();
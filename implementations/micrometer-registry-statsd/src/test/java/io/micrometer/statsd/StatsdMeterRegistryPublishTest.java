@@ -21,20 +21,24 @@ import io.micrometer.core.instrument.Counter;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelOutboundHandlerAdapter;
 import io.netty.channel.ChannelPromise;
+import io.netty.channel.unix.DomainSocketAddress;
 import io.netty.handler.logging.LogLevel;
 import io.netty.handler.logging.LoggingHandler;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
 import reactor.netty.Connection;
 import reactor.netty.DisposableChannel;
+import reactor.netty.resources.LoopResources;
 import reactor.netty.tcp.TcpServer;
 import reactor.netty.udp.UdpServer;
 
 import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -43,6 +47,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.awaitility.Awaitility.await;
 
 /**
@@ -60,16 +65,21 @@ class StatsdMeterRegistryPublishTest {
 
     volatile boolean bound;
 
+    @TempDir
+    Path socketDir;
+
     @AfterEach
     void cleanUp() {
-        meterRegistry.close();
+        if (meterRegistry != null) {
+            meterRegistry.close();
+        }
         if (server != null) {
             server.disposeNow();
         }
     }
 
     @ParameterizedTest
-    @EnumSource(StatsdProtocol.class)
+    @EnumSource(value = StatsdProtocol.class, names = {"UDP", "TCP"})
     void receiveMetricsSuccessfully(StatsdProtocol protocol) throws InterruptedException {
         serverLatch = new CountDownLatch(3);
         server = startServer(protocol, 0);
@@ -86,7 +96,24 @@ class StatsdMeterRegistryPublishTest {
     }
 
     @ParameterizedTest
-    @EnumSource(StatsdProtocol.class)
+    @EnumSource(value = StatsdProtocol.class, names = {"UDS_DATAGRAM", "UDS_STREAM"})
+    void receiveMetricsSuccessfullyOverUnixDomainSocket(StatsdProtocol protocol) throws InterruptedException {
+        assumeTrue(LoopResources.hasNativeSupport(), "Unix domain sockets require a native transport");
+        serverLatch = new CountDownLatch(3);
+        String socketPath = socketDir.resolve("statsd.sock").toString();
+        server = startUnixDomainSocketServer(protocol, socketPath);
+
+        meterRegistry = new StatsdMeterRegistry(getUnixDomainSocketConfig(protocol, socketPath), Clock.SYSTEM);
+        startRegistryAndWaitForClient();
+        Counter counter = Counter.builder("my.counter").register(meterRegistry);
+        counter.increment();
+        counter.increment();
+        counter.increment();
+        assertThat(serverLatch.await(3, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = StatsdProtocol.class, names = {"UDP", "TCP"})
     void resumeSendingMetrics_whenServerIntermittentlyFails(StatsdProtocol protocol) throws InterruptedException {
         serverLatch = new CountDownLatch(1);
         AtomicInteger writeCount = new AtomicInteger();
@@ -131,7 +158,7 @@ class StatsdMeterRegistryPublishTest {
     }
 
     @ParameterizedTest
-    @EnumSource(StatsdProtocol.class)
+    @EnumSource(value = StatsdProtocol.class, names = {"UDP", "TCP"})
     @Issue("#1676")
     void stopAndStartMeterRegistrySendsMetrics(StatsdProtocol protocol) throws InterruptedException {
         serverLatch = new CountDownLatch(3);
@@ -173,7 +200,7 @@ class StatsdMeterRegistryPublishTest {
     }
 
     @ParameterizedTest
-    @EnumSource(StatsdProtocol.class)
+    @EnumSource(value = StatsdProtocol.class, names = {"UDP", "TCP"})
     void whenBackendInitiallyDown_metricsSentAfterBackendStarts(StatsdProtocol protocol) throws InterruptedException {
         AtomicInteger writeCount = new AtomicInteger();
         serverLatch = new CountDownLatch(3);
@@ -211,7 +238,7 @@ class StatsdMeterRegistryPublishTest {
     }
 
     @ParameterizedTest
-    @EnumSource(StatsdProtocol.class)
+    @EnumSource(value = StatsdProtocol.class, names = {"UDP", "TCP"})
     void whenRegistryStopped_doNotConnectToBackend(StatsdProtocol protocol) throws InterruptedException {
         serverLatch = new CountDownLatch(3);
         // start server to secure an open port
@@ -229,7 +256,7 @@ class StatsdMeterRegistryPublishTest {
     }
 
     @ParameterizedTest
-    @EnumSource(StatsdProtocol.class)
+    @EnumSource(value = StatsdProtocol.class, names = {"UDP", "TCP"})
     @Issue("#2177")
     void whenSendError_reconnectsAndWritesNewMetrics(StatsdProtocol protocol) throws InterruptedException {
         serverLatch = new CountDownLatch(3);
@@ -328,6 +355,61 @@ class StatsdMeterRegistryPublishTest {
         }
     }
 
+    private DisposableChannel startUnixDomainSocketServer(StatsdProtocol protocol, String socketPath) {
+        DomainSocketAddress address = new DomainSocketAddress(socketPath);
+        if (protocol == StatsdProtocol.UDS_DATAGRAM) {
+            return UdpServer.create()
+                    .bindAddress(() -> address)
+                    .handle((in, out) ->
+                            in.receive().asString()
+                                    .flatMap(packet -> {
+                                        serverLatch.countDown();
+                                        serverMetricReadCount.getAndIncrement();
+                                        return Flux.never();
+                                    }))
+                    .bindNow(Duration.ofSeconds(2));
+        } else if (protocol == StatsdProtocol.UDS_STREAM) {
+            return TcpServer.create()
+                    .bindAddress(() -> address)
+                    .handle((in, out) ->
+                            in.receive().asString()
+                                    .flatMap(packet -> {
+                                        IntStream.range(0, packet.split("my.counter").length - 1).forEach(i -> {
+                                            serverLatch.countDown();
+                                            serverMetricReadCount.getAndIncrement();
+                                        });
+                                        return Flux.never();
+                                    }))
+                    .bindNow(Duration.ofSeconds(5));
+        } else {
+            throw new IllegalArgumentException("not a Unix domain socket protocol " + protocol);
+        }
+    }
+
+    private StatsdConfig getUnixDomainSocketConfig(StatsdProtocol protocol, String socketPath) {
+        return new StatsdConfig() {
+            @Override
+            public String get(String key) {
+                return null;
+            }
+
+            @Override
+            public String host() {
+                return socketPath;
+            }
+
+            @Override
+            public StatsdProtocol protocol() {
+                return protocol;
+            }
+
+            @Override
+            public boolean buffered() {
+                return false;
+            }
+        };
+    }
+
     private StatsdConfig getUnbufferedConfig(StatsdProtocol protocol, int port) {
         return new StatsdConfig() {
             @Override
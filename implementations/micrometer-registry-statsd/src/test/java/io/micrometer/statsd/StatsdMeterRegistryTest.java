@@ -33,7 +33,9 @@ import reactor.core.publisher.Sinks;
 import reactor.test.StepVerifier;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -573,6 +575,90 @@ class StatsdMeterRegistryTest {
         assertThat(maxCount.await(10, TimeUnit.SECONDS)).isTrue();
     }
 
+    @Test
+    void clientSideAggregationWritesOncePerPoll() {
+        List<String> lines = new ArrayList<>();
+        registry = StatsdMeterRegistry.builder(new StatsdConfig() {
+            @Override
+            @Nullable
+            public String get(String key) {
+                return null;
+            }
+
+            @Override
+            public boolean clientSideAggregation() {
+                return true;
+            }
+
+            @Override
+            public int maxPacketLength() {
+                return 20;
+            }
+        })
+                .clock(clock)
+                .lineSink(lines::add)
+                .build();
+
+        Counter counter = registry.counter("my.counter");
+        counter.increment(1.5);
+        counter.increment(1.6);
+        Timer timer = registry.timer("my.timer");
+        for (int i = 1; i <= 5; i++) {
+            timer.record(i, TimeUnit.MILLISECONDS);
+        }
+        DistributionSummary summary = registry.summary("my.summary");
+        summary.record(3);
+        summary.record(4);
+        assertThat(lines).isEmpty();
+
+        registry.poll();
+        assertThat(lines).containsExactlyInAnyOrder(
+                "my.counter:3|c|#statistic:count",
+                "my.timer:1:2:3:4|ms",
+                "my.timer:5|ms",
+                "my.summary:3:4|h");
+
+        // the fraction left over from the last poll is carried over
+        lines.clear();
+        counter.increment(0.9);
+        registry.poll();
+        assertThat(lines).containsExactly("my.counter:1|c|#statistic:count");
+    }
+
+    @Test
+    void adaptiveSamplingKeepsTimersWithinTheirLineBudget() {
+        List<String> lines = new ArrayList<>();
+        registry = StatsdMeterRegistry.builder(new StatsdConfig() {
+            @Override
+            @Nullable
+            public String get(String key) {
+                return null;
+            }
+
+            @Override
+            public int adaptiveSamplingLinesPerSecond() {
+                return 100;
+            }
+        })
+                .clock(clock)
+                .lineSink(lines::add)
+                .build();
+
+        Timer timer = registry.timer("my.timer");
+        range(0, 1000).forEach(i -> timer.record(1, TimeUnit.MILLISECONDS));
+
+        // every sample is written until the rate first adapts
+        assertThat(lines).hasSize(1000).containsOnly("my.timer:1|ms");
+
+        lines.clear();
+        clock.add(Duration.ofSeconds(1));
+        range(0, 1000).forEach(i -> timer.record(1, TimeUnit.MILLISECONDS));
+
+        assertThat(lines).containsOnly("my.timer:1|ms|@0.1");
+        assertThat(lines.size()).isBetween(50, 150);
+        assertThat(timer.count()).isEqualTo(2000);
+    }
+
     private Sinks.Many<String> sink() {
         return Sinks.many().unicast().onBackpressureBuffer();
     }
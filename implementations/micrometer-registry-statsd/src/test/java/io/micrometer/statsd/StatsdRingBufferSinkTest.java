@@ -0,0 +1,147 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.statsd;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link StatsdRingBufferSink}.
+ */
+class StatsdRingBufferSinkTest {
+    private DatagramSocket server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        server.setSoTimeout(5000);
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.close();
+    }
+
+    @Test
+    void packLinesIntoDatagrams() throws IOException {
+        StatsdRingBufferSink sink = new StatsdRingBufferSink("127.0.0.1", server.getLocalPort(), 16, 30, Duration.ofMinutes(1));
+        sink.start();
+
+        sink.tryEmitNext("twelve bytes");
+        sink.tryEmitNext("twelve bytes");
+        sink.tryEmitNext("fourteen bytes");
+        assertThat(receive()).isEqualTo("twelve bytes\ntwelve bytes\n");
+
+        // a partially filled datagram is sent on stop
+        sink.stop();
+        assertThat(receive()).isEqualTo("fourteen bytes\n");
+        assertThat(sink.dropped()).isZero();
+        assertThat(sink.failed()).isZero();
+    }
+
+    @Test
+    void sendEachLineWhenUnbuffered() throws IOException {
+        StatsdRingBufferSink sink = new StatsdRingBufferSink("127.0.0.1", server.getLocalPort(), 16, 1400, Duration.ZERO);
+        sink.start();
+
+        sink.tryEmitNext("first");
+        sink.tryEmitNext("second");
+        assertThat(receive()).isEqualTo("first");
+        assertThat(receive()).isEqualTo("second");
+
+        sink.stop();
+    }
+
+    @Test
+    void sendPartiallyFilledDatagramWhenItsTimeIsUp() throws IOException {
+        StatsdRingBufferSink sink = new StatsdRingBufferSink("127.0.0.1", server.getLocalPort(), 16, 1400, Duration.ofMillis(50));
+        sink.start();
+
+        // the idle sending thread is woken by the line, then waits for the rest of the datagram's time
+        sink.tryEmitNext("first");
+        assertThat(receive()).isEqualTo("first\n");
+
+        sink.tryEmitNext("second");
+        assertThat(receive()).isEqualTo("second\n");
+
+        sink.stop();
+    }
+
+    @Test
+    void dropLinesWhenQueueIsFull() throws IOException {
+        StatsdRingBufferSink sink = new StatsdRingBufferSink("127.0.0.1", server.getLocalPort(), 2, 1400, Duration.ofMinutes(1));
+
+        assertThat(sink.offer("first")).isTrue();
+        assertThat(sink.offer("second")).isTrue();
+        assertThat(sink.offer("third")).isFalse();
+        assertThat(sink.dropped()).isEqualTo(1);
+
+        sink.start();
+        sink.stop();
+        assertThat(receive()).isEqualTo("first\nsecond\n");
+    }
+
+    @Test
+    void registrySendsThroughRingBuffer() throws IOException {
+        StatsdConfig config = new StatsdConfig() {
+            @Override
+            public String get(String key) {
+                return null;
+            }
+
+            @Override
+            public String host() {
+                return "127.0.0.1";
+            }
+
+            @Override
+            public int port() {
+                return server.getLocalPort();
+            }
+
+            @Override
+            public int ringBufferCapacity() {
+                return 1024;
+            }
+        };
+
+        StatsdMeterRegistry registry = new StatsdMeterRegistry(config, Clock.SYSTEM);
+        Counter.builder("my.counter").register(registry).increment();
+        registry.close();
+
+        assertThat(receive()).contains("my.counter:1|c|#statistic:count\n");
+        assertThat(registry.get("micrometer.statsd.lines.dropped").tag("reason", "queue.full").functionCounter().count())
+                .isZero();
+    }
+
+    private String receive() throws IOException {
+        DatagramPacket packet = new DatagramPacket(new byte[1500], 1500);
+        server.receive(packet);
+        return new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8);
+    }
+}
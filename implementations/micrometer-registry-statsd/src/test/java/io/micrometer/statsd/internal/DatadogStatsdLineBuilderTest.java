@@ -19,10 +19,15 @@ import io.micrometer.core.Issue;
 import io.micrometer.core.instrument.Counter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Statistic;
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.config.NamingConvention;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class DatadogStatsdLineBuilderTest {
@@ -70,6 +75,39 @@ class DatadogStatsdLineBuilderTest {
         assertThat(lb.line("1", Statistic.COUNT, "c")).isEqualTo("my_counter:1|c|#statistic:count,mytag:myvalue,dd.internal.entity_id:test-entity-id");
     }
 
+    @Test
+    void packedLinesFitPacketInEncodedBytes() {
+        Timer t = registry.timer("my.timer", "my.tag", "\u00e9t\u00e9");
+        DatadogStatsdLineBuilder lb = new DatadogStatsdLineBuilder(t.getId(), registry.config());
+
+        registry.config().namingConvention(NamingConvention.dot);
+        double[] timesMs = new double[100];
+        for (int i = 0; i < timesMs.length; i++) {
+            timesMs[i] = i;
+        }
+
+        List<String> lines = new ArrayList<>();
+        lb.timings(timesMs, timesMs.length, 64, lines::add);
+
+        int amounts = 0;
+        for (String line : lines) {
+            // every line is followed by a newline in the datagram
+            assertThat(line.getBytes(StandardCharsets.UTF_8).length + 1).isLessThanOrEqualTo(64);
+            amounts += line.substring("my.timer:".length(), line.indexOf('|')).split(":").length;
+        }
+        assertThat(amounts).isEqualTo(timesMs.length);
+    }
+
+    @Test
+    void sampleRateFollowsTheType() {
+        Timer t = registry.timer("my.timer", "my.tag", "value");
+        DatadogStatsdLineBuilder lb = new DatadogStatsdLineBuilder(t.getId(), registry.config());
+
+        registry.config().namingConvention(NamingConvention.dot);
+        assertThat(lb.timing(1.5, 0.25)).isEqualTo("my.timer:1.5|ms|@0.25|#my.tag:value");
+        assertThat(lb.histogram(2, 0.000125)).isEqualTo("my.timer:2|h|@0.000125|#my.tag:value");
+    }
+
     @Issue("#1998")
     @Test
     void allowColonsInTagValues() {
@@ -0,0 +1,130 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.statsd.internal;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.NamingConvention;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link StatsdPacketWriter}.
+ */
+class StatsdPacketWriterTest {
+    private final List<String> packets = new ArrayList<>();
+
+    private StatsdPacketWriter writer(int maxPacketLength) {
+        return new StatsdPacketWriter(maxPacketLength, ByteBufAllocator.DEFAULT, (ByteBuf packet) -> {
+            packets.add(packet.toString(StandardCharsets.UTF_8));
+            packet.release();
+        });
+    }
+
+    @Test
+    void packLinesUpToMaxPacketLength() {
+        StatsdPacketWriter writer = writer(27);
+
+        writer.write("twelve bytes");
+        writer.write("twelve bytes");
+        assertThat(packets).isEmpty();
+
+        writer.write("fourteen bytes");
+        writer.write("a line longer than any packet");
+        writer.write("twelve bytes");
+        writer.flush();
+        writer.flush();
+
+        assertThat(packets).containsExactly(
+                "twelve bytes\ntwelve bytes\n",
+                "fourteen bytes\n",
+                "a line longer than any packet\n",
+                "twelve bytes\n");
+    }
+
+    @Test
+    void encodedLinesMatchTheLineBuilder() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        registry.config().namingConvention(NamingConvention.dot);
+        Counter counter = registry.counter("my.counter", "my.tag", "val");
+        DatadogStatsdLineBuilder lineBuilder = new DatadogStatsdLineBuilder(counter.getId(), registry.config());
+
+        StatsdPacketWriter writer = writer(1);
+        List<String> expected = new ArrayList<>();
+        for (double amount : new double[]{0, 1, 1.5, 0.1234567, -2.25, 1e9, 123456789.123, Double.NaN}) {
+            writer.timing(lineBuilder, amount);
+            expected.add(lineBuilder.timing(amount) + "\n");
+            writer.histogram(lineBuilder, amount);
+            expected.add(lineBuilder.histogram(amount) + "\n");
+            writer.count(lineBuilder, (long) amount);
+            expected.add(lineBuilder.count((long) amount) + "\n");
+        }
+
+        assertThat(packets).containsExactlyElementsOf(expected);
+
+        // encoded names follow naming convention changes
+        packets.clear();
+        registry.config().namingConvention(NamingConvention.camelCase);
+        writer.count(lineBuilder, 1);
+        assertThat(packets).containsExactly("myCounter:1|c|#statistic:count,myTag:val\n");
+    }
+
+    @Test
+    void concurrentWritersLoseNoLinesAndPacketsAreHandedOverOneAtATime() throws InterruptedException {
+        AtomicBoolean handingOver = new AtomicBoolean();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        Queue<String> lines = new ConcurrentLinkedQueue<>();
+        StatsdPacketWriter writer = new StatsdPacketWriter(64, ByteBufAllocator.DEFAULT, (ByteBuf packet) -> {
+            if (!handingOver.compareAndSet(false, true)) {
+                overlapped.set(true);
+            }
+            assertThat(packet.readableBytes()).isLessThanOrEqualTo(64);
+            Collections.addAll(lines, packet.toString(StandardCharsets.UTF_8).split("\n"));
+            packet.release();
+            handingOver.set(false);
+        }, 4);
+
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            int thread = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    writer.write(thread + ":" + i);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        writer.flush();
+
+        assertThat(overlapped).isFalse();
+        assertThat(lines).hasSize(80_000).doesNotHaveDuplicates();
+    }
+}
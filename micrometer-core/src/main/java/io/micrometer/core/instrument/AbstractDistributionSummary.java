@@ -29,8 +29,12 @@ public abstract class AbstractDistributionSummary extends AbstractMeter implemen
         this.scale = scale;
 
         if (distributionStatisticConfig.isPublishingPercentiles()) {
-            // hdr-based histogram
-            this.histogram = new TimeWindowPercentileHistogram(clock, distributionStatisticConfig, supportsAggregablePercentiles);
+            if (distributionStatisticConfig.getPercentileEngine() == PercentileEngine.LOG_LINEAR) {
+                this.histogram = new TimeWindowLogLinearHistogram(clock, distributionStatisticConfig, supportsAggregablePercentiles);
+            } else {
+                // hdr-based histogram
+                this.histogram = new TimeWindowPercentileHistogram(clock, distributionStatisticConfig, supportsAggregablePercentiles);
+            }
         } else if (distributionStatisticConfig.isPublishingHistogram()) {
             // fixed boundary histograms, which have a slightly better memory footprint
             // when we don't need Micrometer-computed percentiles
@@ -67,4 +71,9 @@ public abstract class AbstractDistributionSummary extends AbstractMeter implemen
     public int hashCode() {
         return MeterEquivalence.hashCode(this);
     }
+
+    @Override
+    public void close() {
+        histogram.close();
+    }
 }
@@ -81,8 +81,12 @@ public abstract class AbstractTimer extends AbstractMeter implements Timer {
         initPauseDetector(pauseDetector);
 
         if (distributionStatisticConfig.isPublishingPercentiles()) {
-            // hdr-based histogram
-            this.histogram = new TimeWindowPercentileHistogram(clock, distributionStatisticConfig, supportsAggregablePercentiles);
+            if (distributionStatisticConfig.getPercentileEngine() == PercentileEngine.LOG_LINEAR) {
+                this.histogram = new TimeWindowLogLinearHistogram(clock, distributionStatisticConfig, supportsAggregablePercentiles);
+            } else {
+                // hdr-based histogram
+                this.histogram = new TimeWindowPercentileHistogram(clock, distributionStatisticConfig, supportsAggregablePercentiles);
+            }
         } else if (distributionStatisticConfig.isPublishingHistogram()) {
             // fixed boundary histograms, which have a slightly better memory footprint
             // when we don't need Micrometer-computed percentiles
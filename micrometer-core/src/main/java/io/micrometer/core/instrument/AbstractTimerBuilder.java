@@ -16,6 +16,7 @@
 package io.micrometer.core.instrument;
 
 import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.PercentileEngine;
 import io.micrometer.core.instrument.distribution.pause.PauseDetector;
 import io.micrometer.core.lang.Nullable;
 
@@ -214,6 +215,32 @@ public abstract class AbstractTimerBuilder<B extends AbstractTimerBuilder<B>> {
         return (B) this;
     }
 
+    /**
+     * The data structure used to compute client-side percentiles. See
+     * {@link DistributionStatisticConfig.Builder#percentileEngine(PercentileEngine)}.
+     *
+     * @param percentileEngine The percentile engine to use when percentiles are published.
+     * @return This builder.
+     * @since 1.7.0
+     */
+    public B percentileEngine(@Nullable PercentileEngine percentileEngine) {
+        this.distributionConfigBuilder.percentileEngine(percentileEngine);
+        return (B) this;
+    }
+
+    /**
+     * Rotate the ring buffers of decaying statistics from a shared background thread, so that recording to this
+     * timer never rotates them. See {@link DistributionStatisticConfig.Builder#backgroundRotation(Boolean)}.
+     *
+     * @param enabled Whether ring buffers are rotated in the background.
+     * @return This builder.
+     * @since 1.7.0
+     */
+    public B distributionStatisticBackgroundRotation(@Nullable Boolean enabled) {
+        this.distributionConfigBuilder.backgroundRotation(enabled);
+        return (B) this;
+    }
+
     /**
      * Sets the pause detector implementation to use for this timer. Can also be configured on a registry-level with
      * {@link MeterRegistry.Config#pauseDetector(PauseDetector)}.
@@ -18,6 +18,7 @@ package io.micrometer.core.instrument;
 import io.micrometer.core.instrument.distribution.CountAtBucket;
 import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
 import io.micrometer.core.instrument.distribution.HistogramSupport;
+import io.micrometer.core.instrument.distribution.PercentileEngine;
 import io.micrometer.core.instrument.distribution.ValueAtPercentile;
 import io.micrometer.core.lang.Nullable;
 
@@ -356,6 +357,32 @@ public interface DistributionSummary extends Meter, HistogramSupport {
             return this;
         }
 
+        /**
+         * The data structure used to compute client-side percentiles. See
+         * {@link DistributionStatisticConfig.Builder#percentileEngine(PercentileEngine)}.
+         *
+         * @param percentileEngine The percentile engine to use when percentiles are published.
+         * @return This builder.
+         * @since 1.7.0
+         */
+        public Builder percentileEngine(@Nullable PercentileEngine percentileEngine) {
+            this.distributionConfigBuilder.percentileEngine(percentileEngine);
+            return this;
+        }
+
+        /**
+         * Rotate the ring buffers of decaying statistics from a shared background thread, so that recording to this
+         * distribution summary never rotates them. See {@link DistributionStatisticConfig.Builder#backgroundRotation(Boolean)}.
+         *
+         * @param enabled Whether ring buffers are rotated in the background.
+         * @return This builder.
+         * @since 1.7.0
+         */
+        public Builder distributionStatisticBackgroundRotation(@Nullable Boolean enabled) {
+            this.distributionConfigBuilder.backgroundRotation(enabled);
+            return this;
+        }
+
         /**
          * Multiply values recorded to the distribution summary by a scaling factor.
          *
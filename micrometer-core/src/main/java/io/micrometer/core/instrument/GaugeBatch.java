@@ -0,0 +1,235 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument;
+
+import io.micrometer.core.annotation.Incubating;
+import io.micrometer.core.lang.Nullable;
+import io.micrometer.core.util.internal.logging.WarnThenDebugLogger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A family of gauges sharing a name whose values are all produced at once. Each poll asks a single
+ * {@link ValuesProvider} to fill an array holding one value per row, and each row's gauge reads its value from that
+ * array, so reading many gauges backed by the same data costs one call to the provider rather than one per gauge.
+ * <p>
+ * Registries that support it poll every batch once before they publish or are scraped. A gauge read at any other
+ * time triggers a poll when the last one is older than {@link Builder#maxAge(Duration)}.
+ *
+ * @since 1.7.0
+ */
+@Incubating(since = "1.7.0")
+public final class GaugeBatch {
+    private static final WarnThenDebugLogger logger = new WarnThenDebugLogger(GaugeBatch.class);
+
+    private final MeterRegistry registry;
+    private final Meter.Id commonId;
+    private final List<Meter.Id> rowIds;
+    private final ValuesProvider provider;
+    private final Clock clock;
+    private final long maxAgeNanos;
+
+    private final Object pollLock = new Object();
+
+    @Nullable
+    private volatile double[] values;
+    private volatile long polledAt;
+
+    private GaugeBatch(MeterRegistry registry, Meter.Id commonId, List<Meter.Id> rowIds, ValuesProvider provider,
+                       Duration maxAge) {
+        this.registry = registry;
+        this.commonId = commonId;
+        this.rowIds = rowIds;
+        this.provider = provider;
+        this.clock = registry.config().clock();
+        this.maxAgeNanos = maxAge.toNanos();
+    }
+
+    /**
+     * @param name The name shared by every gauge in the batch.
+     * @return A new gauge batch builder.
+     */
+    public static Builder builder(String name) {
+        return new Builder(name);
+    }
+
+    /**
+     * Fills the values of every row of a gauge batch at once.
+     */
+    @FunctionalInterface
+    public interface ValuesProvider {
+        /**
+         * @param values One slot per row, in the order the rows were registered in. Slots left untouched report
+         *               {@code NaN}.
+         */
+        void fill(double[] values);
+    }
+
+    /**
+     * @return The number of rows in this batch.
+     */
+    public int size() {
+        return rowIds.size();
+    }
+
+    /**
+     * @return The ids of the rows in this batch, in order.
+     */
+    public List<Meter.Id> getRowIds() {
+        return rowIds;
+    }
+
+    /**
+     * Ask the provider for the current value of every row.
+     */
+    public void poll() {
+        synchronized (pollLock) {
+            double[] next = new double[rowIds.size()];
+            Arrays.fill(next, Double.NaN);
+            try {
+                provider.fill(next);
+            } catch (Throwable e) {
+                logger.log("Failed to poll the gauge batch '" + commonId.getName() + "'.", e);
+            }
+            this.values = next;
+            this.polledAt = clock.monotonicTime();
+        }
+    }
+
+    /**
+     * @param index The row to read.
+     * @return The value of the row from the last poll, polling first if the last poll is older than the maximum age.
+     */
+    public double value(int index) {
+        double[] values = this.values;
+        if (values == null || clock.monotonicTime() - polledAt > maxAgeNanos) {
+            synchronized (pollLock) {
+                // another reader may have polled while we waited
+                if (values == this.values) {
+                    poll();
+                }
+                values = this.values;
+            }
+        }
+        //noinspection ConstantConditions
+        return values[index];
+    }
+
+    /**
+     * Remove every gauge of this batch from the registry and stop polling it.
+     */
+    public void remove() {
+        registry.removeGaugeBatch(this);
+    }
+
+    /**
+     * Fluent builder for gauge batches.
+     */
+    public static class Builder {
+        private final String name;
+        private Tags tags = Tags.empty();
+        private Duration maxAge = Duration.ofSeconds(1);
+
+        @Nullable
+        private String description;
+
+        @Nullable
+        private String baseUnit;
+
+        private Builder(String name) {
+            this.name = name;
+        }
+
+        /**
+         * @param tags Must be an even number of arguments representing key/value pairs of tags.
+         * @return The gauge batch builder with added tags.
+         */
+        public Builder tags(String... tags) {
+            return tags(Tags.of(tags));
+        }
+
+        /**
+         * @param tags Tags to add to every gauge of the batch.
+         * @return The gauge batch builder with added tags.
+         */
+        public Builder tags(Iterable<Tag> tags) {
+            this.tags = this.tags.and(tags);
+            return this;
+        }
+
+        /**
+         * @param key   The tag key.
+         * @param value The tag value.
+         * @return The gauge batch builder with a single added tag.
+         */
+        public Builder tag(String key, String value) {
+            this.tags = tags.and(key, value);
+            return this;
+        }
+
+        /**
+         * @param description Description text of the gauges.
+         * @return The gauge batch builder with added description.
+         */
+        public Builder description(@Nullable String description) {
+            this.description = description;
+            return this;
+        }
+
+        /**
+         * @param unit Base unit of the gauges.
+         * @return The gauge batch builder with added base unit.
+         */
+        public Builder baseUnit(@Nullable String unit) {
+            this.baseUnit = unit;
+            return this;
+        }
+
+        /**
+         * @param maxAge How old the last poll may be when a gauge is read outside of a publish or scrape before the
+         *               batch is polled again. The default is one second.
+         * @return The gauge batch builder with added maximum age.
+         */
+        public Builder maxAge(Duration maxAge) {
+            this.maxAge = maxAge;
+            return this;
+        }
+
+        /**
+         * Add the batch to a single registry, registering one gauge per row.
+         *
+         * @param registry The registry to add the batch to.
+         * @param rows     The tags that distinguish each row from the others, in the order the provider fills them.
+         * @param provider Fills the value of every row on each poll.
+         * @return A new gauge batch.
+         */
+        public GaugeBatch register(MeterRegistry registry, Iterable<Tags> rows, ValuesProvider provider) {
+            Meter.Id commonId = new Meter.Id(name, tags, baseUnit, description, Meter.Type.GAUGE);
+            List<Meter.Id> rowIds = new ArrayList<>();
+            for (Tags row : rows) {
+                rowIds.add(commonId.withTags(row));
+            }
+
+            GaugeBatch batch = new GaugeBatch(registry, commonId, Collections.unmodifiableList(rowIds), provider, maxAge);
+            registry.registerGaugeBatch(batch);
+            return batch;
+        }
+    }
+}
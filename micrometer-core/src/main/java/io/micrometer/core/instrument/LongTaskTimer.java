@@ -18,6 +18,7 @@ package io.micrometer.core.instrument;
 import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
 import io.micrometer.core.instrument.distribution.HistogramSupport;
+import io.micrometer.core.instrument.distribution.PercentileEngine;
 import io.micrometer.core.lang.Nullable;
 
 import java.time.Duration;
@@ -340,6 +341,32 @@ public interface LongTaskTimer extends Meter, HistogramSupport {
             return this;
         }
 
+        /**
+         * The data structure used to compute client-side percentiles. See
+         * {@link DistributionStatisticConfig.Builder#percentileEngine(PercentileEngine)}.
+         *
+         * @param percentileEngine The percentile engine to use when percentiles are published.
+         * @return This builder.
+         * @since 1.7.0
+         */
+        public Builder percentileEngine(@Nullable PercentileEngine percentileEngine) {
+            this.distributionConfigBuilder.percentileEngine(percentileEngine);
+            return this;
+        }
+
+        /**
+         * Rotate the ring buffers of decaying statistics from a shared background thread, so that recording to this
+         * timer never rotates them. See {@link DistributionStatisticConfig.Builder#backgroundRotation(Boolean)}.
+         *
+         * @param enabled Whether ring buffers are rotated in the background.
+         * @return This builder.
+         * @since 1.7.0
+         */
+        public Builder distributionStatisticBackgroundRotation(@Nullable Boolean enabled) {
+            this.distributionConfigBuilder.backgroundRotation(enabled);
+            return this;
+        }
+
         /**
          * Produces an additional time series for each requested percentile. This percentile
          * is computed locally, and so can't be aggregated with percentiles computed across other
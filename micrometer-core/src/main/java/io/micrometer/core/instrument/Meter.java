@@ -21,6 +21,7 @@ import io.micrometer.core.instrument.distribution.HistogramGauges;
 import io.micrometer.core.lang.Nullable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -190,6 +191,22 @@ public interface Meter {
         @Nullable
         private final String baseUnit;
 
+        private static final ConventionFormatted[] NO_CONVENTION_FORMATTED = new ConventionFormatted[0];
+
+        private static final int MAX_CONVENTIONS_FORMATTED = 4;
+
+        /**
+         * Cached hash code, 0 until first computed. Ids are probed in the registry's meter map on every lookup.
+         */
+        private int hash;
+
+        /**
+         * The name and tags formatted by the first few naming conventions asked for them. Registries format the
+         * same id with the same convention on every publish, so this avoids re-deriving identical strings, also
+         * when one id is formatted by the conventions of several registries in turn.
+         */
+        private volatile ConventionFormatted[] conventionFormatted = NO_CONVENTION_FORMATTED;
+
         @Incubating(since = "1.1.0")
         Id(String name, Tags tags, @Nullable String baseUnit, @Nullable String description, Type type,
            @Nullable Meter.Id syntheticAssociation) {
@@ -316,7 +333,13 @@ public interface Meter {
          * @return A name that has been stylized to a particular monitoring system's expectations.
          */
         public String getConventionName(NamingConvention namingConvention) {
-            return namingConvention.name(name, type, baseUnit);
+            ConventionFormatted formatted = conventionFormatted(namingConvention);
+            if (formatted != null && formatted.name != null) {
+                return formatted.name;
+            }
+            String conventionName = namingConvention.name(name, type, baseUnit);
+            cacheConventionFormatted(namingConvention, conventionName, formatted == null ? null : formatted.tags);
+            return conventionName;
         }
 
         /**
@@ -326,9 +349,46 @@ public interface Meter {
          * @return A list of tags that have been stylized to a particular monitoring system's expectations.
          */
         public List<Tag> getConventionTags(NamingConvention namingConvention) {
-            return StreamSupport.stream(tags.spliterator(), false)
-                    .map(t -> Tag.of(namingConvention.tagKey(t.getKey()), namingConvention.tagValue(t.getValue())))
-                    .collect(Collectors.toList());
+            ConventionFormatted formatted = conventionFormatted(namingConvention);
+            List<Tag> conventionTags = formatted == null ? null : formatted.tags;
+            if (conventionTags == null) {
+                conventionTags = Collections.unmodifiableList(StreamSupport.stream(tags.spliterator(), false)
+                        .map(t -> Tag.of(namingConvention.tagKey(t.getKey()), namingConvention.tagValue(t.getValue())))
+                        .collect(Collectors.toList()));
+                cacheConventionFormatted(namingConvention, formatted == null ? null : formatted.name, conventionTags);
+            }
+            // callers have always been free to modify the returned list
+            return new ArrayList<>(conventionTags);
+        }
+
+        @Nullable
+        private ConventionFormatted conventionFormatted(NamingConvention namingConvention) {
+            for (ConventionFormatted formatted : conventionFormatted) {
+                if (formatted.namingConvention == namingConvention) {
+                    return formatted;
+                }
+            }
+            return null;
+        }
+
+        private void cacheConventionFormatted(NamingConvention namingConvention, @Nullable String name,
+                                              @Nullable List<Tag> tags) {
+            // a concurrent update may be lost, which only means formatting again later
+            ConventionFormatted[] cached = conventionFormatted;
+            for (int i = 0; i < cached.length; i++) {
+                if (cached[i].namingConvention == namingConvention) {
+                    ConventionFormatted[] updated = cached.clone();
+                    updated[i] = new ConventionFormatted(namingConvention, name, tags);
+                    conventionFormatted = updated;
+                    return;
+                }
+            }
+            // beyond a few conventions, keep formatting rather than evicting values that are still in use
+            if (cached.length < MAX_CONVENTIONS_FORMATTED) {
+                ConventionFormatted[] updated = Arrays.copyOf(cached, cached.length + 1);
+                updated[cached.length] = new ConventionFormatted(namingConvention, name, tags);
+                conventionFormatted = updated;
+            }
         }
 
         /**
@@ -358,8 +418,12 @@ public interface Meter {
 
         @Override
         public int hashCode() {
-            int result = name.hashCode();
-            result = 31 * result + tags.hashCode();
+            int result = hash;
+            if (result == 0) {
+                result = name.hashCode();
+                result = 31 * result + tags.hashCode();
+                hash = result;
+            }
             return result;
         }
 
@@ -388,6 +452,25 @@ public interface Meter {
         public Meter.Id syntheticAssociation() {
             return syntheticAssociation;
         }
+
+        /**
+         * The name and tags formatted by a particular naming convention instance, as far as they were asked for.
+         */
+        private static final class ConventionFormatted {
+            private final NamingConvention namingConvention;
+
+            @Nullable
+            private final String name;
+
+            @Nullable
+            private final List<Tag> tags;
+
+            ConventionFormatted(NamingConvention namingConvention, @Nullable String name, @Nullable List<Tag> tags) {
+                this.namingConvention = namingConvention;
+                this.name = name;
+                this.tags = tags;
+            }
+        }
     }
 
     /**
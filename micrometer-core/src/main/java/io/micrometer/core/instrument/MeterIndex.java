@@ -0,0 +1,111 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument;
+
+import io.micrometer.core.lang.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The meters of a registry indexed by name, by tag key and by tag, kept current by the registry as meters are added
+ * and removed. Searches use it through {@link MeterRegistry#searchCandidates} to look only at the meters that can
+ * possibly match, rather than every meter in the registry.
+ */
+final class MeterIndex {
+    private final ConcurrentMap<String, Set<Meter>> byName = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<Meter>> byTagKey = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Tag, Set<Meter>> byTag = new ConcurrentHashMap<>();
+
+    /**
+     * Add a meter to the index. Called by {@link MeterRegistry} when it registers a meter.
+     *
+     * @param meter The meter to add.
+     */
+    void add(Meter meter) {
+        Meter.Id id = meter.getId();
+        add(byName, id.getName(), meter);
+        for (Tag tag : id.getTagsAsIterable()) {
+            add(byTagKey, tag.getKey(), meter);
+            add(byTag, Tag.of(tag.getKey(), tag.getValue()), meter);
+        }
+    }
+
+    /**
+     * Remove a meter from the index. Called by {@link MeterRegistry} when it removes a meter.
+     *
+     * @param meter The meter to remove.
+     */
+    void remove(Meter meter) {
+        Meter.Id id = meter.getId();
+        remove(byName, id.getName(), meter);
+        for (Tag tag : id.getTagsAsIterable()) {
+            remove(byTagKey, tag.getKey(), meter);
+            remove(byTag, Tag.of(tag.getKey(), tag.getValue()), meter);
+        }
+    }
+
+    private static <K> void add(ConcurrentMap<K, Set<Meter>> index, K key, Meter meter) {
+        index.compute(key, (k, meters) -> {
+            if (meters == null) {
+                meters = ConcurrentHashMap.newKeySet();
+            }
+            meters.add(meter);
+            return meters;
+        });
+    }
+
+    private static <K> void remove(ConcurrentMap<K, Set<Meter>> index, K key, Meter meter) {
+        index.computeIfPresent(key, (k, meters) -> {
+            meters.remove(meter);
+            return meters.isEmpty() ? null : meters;
+        });
+    }
+
+    /**
+     * The smallest set of meters that contains every meter matching all of the given criteria. The meters in it
+     * must still be tested against the criteria.
+     *
+     * @param name    An exact name to match, if any.
+     * @param tags    Tags that must all be present.
+     * @param tagKeys Tag keys that must all be present.
+     * @return The candidate meters, or {@code null} if none of the criteria can be looked up in the index.
+     */
+    @Nullable
+    Collection<Meter> candidates(@Nullable String name, Iterable<Tag> tags, Iterable<String> tagKeys) {
+        Collection<Meter> candidates = null;
+        if (name != null) {
+            candidates = narrowest(null, byName.get(name));
+        }
+        for (Tag tag : tags) {
+            candidates = narrowest(candidates, byTag.get(Tag.of(tag.getKey(), tag.getValue())));
+        }
+        for (String tagKey : tagKeys) {
+            candidates = narrowest(candidates, byTagKey.get(tagKey));
+        }
+        return candidates;
+    }
+
+    private static Collection<Meter> narrowest(@Nullable Collection<Meter> candidates, @Nullable Set<Meter> meters) {
+        if (meters == null) {
+            return Collections.emptySet();
+        }
+        return candidates == null || meters.size() < candidates.size() ? meters : candidates;
+    }
+}
@@ -37,17 +37,21 @@ import io.micrometer.core.instrument.search.RequiredSearch;
 import io.micrometer.core.instrument.search.Search;
 import io.micrometer.core.instrument.util.TimeUtils;
 import io.micrometer.core.lang.Nullable;
+import io.micrometer.core.util.internal.logging.WarnThenDebugLogger;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.BiConsumer;
@@ -75,8 +79,9 @@ import static java.util.Objects.requireNonNull;
  * @author Johnny Lim
  */
 public abstract class MeterRegistry {
+    private static final WarnThenDebugLogger warnThenDebugLogger = new WarnThenDebugLogger(MeterRegistry.class);
+
     protected final Clock clock;
-    private final Object meterMapLock = new Object();
     private volatile MeterFilter[] filters = new MeterFilter[0];
     private final List<Consumer<Meter>> meterAddedListeners = new CopyOnWriteArrayList<>();
     private final List<Consumer<Meter>> meterRemovedListeners = new CopyOnWriteArrayList<>();
@@ -84,17 +89,57 @@ public abstract class MeterRegistry {
     private final Config config = new Config();
     private final More more = new More();
 
-    // Even though writes are guarded by meterMapLock, iterators across value space are supported
-    // Hence, we use CHM to support that iteration without ConcurrentModificationException risk
+    // Writes are coordinated per id through pendingRegistrations rather than a registry-wide lock.
+    // We use CHM to support iteration across value space without ConcurrentModificationException risk
     private final Map<Id, Meter> meterMap = new ConcurrentHashMap<>();
 
+    /**
+     * The meters in {@link #meterMap} by name and tag, updated right after it so that searches don't scan every meter.
+     */
+    private final MeterIndex meterIndex = new MeterIndex();
+
+    private final Set<GaugeBatch> gaugeBatches = new CopyOnWriteArraySet<>();
+
+    /**
+     * Registrations in flight, keyed by mapped id. The thread that claims an id runs the filters, the
+     * meter builder and the meter added listeners without holding any registry-wide monitor. Other threads
+     * registering the same id wait for that registration only, so registrations of distinct ids never
+     * contend with one another.
+     */
+    private final ConcurrentMap<Id, PendingRegistration> pendingRegistrations = new ConcurrentHashMap<>();
+
+    /**
+     * The registration each thread is waiting for, so that registrations that would wait on one another are
+     * detected rather than deadlocking. A registration that would wait on itself through other threads registers
+     * its meter on the current thread instead, as it would have under a registry-wide reentrant lock.
+     */
+    private final ConcurrentMap<Thread, PendingRegistration> awaitedRegistrations = new ConcurrentHashMap<>();
+
     /**
      * Map of meter id whose associated meter contains synthetic counterparts to those synthetic ids.
      * We maintain these associations so that when we remove a meter with synthetics, they can removed
      * as well.
      */
-    // Guarded by meterMapLock for both reads and writes
-    private final Map<Id, Set<Id>> syntheticAssociations = new HashMap<>();
+    private final Map<Id, Set<Id>> syntheticAssociations = new ConcurrentHashMap<>();
+
+    /**
+     * Registered meters keyed by the id they were requested with, before any {@link MeterFilter} was applied.
+     * A repeated lookup of an existing meter resolves here without running the filters again. Entries are
+     * dropped when their meter is removed and the whole cache is cleared whenever a filter is added.
+     */
+    private final Map<Id, Meter> preFilterIdToMeterMap = new ConcurrentHashMap<>();
+
+    /**
+     * Pre-filter ids cached in {@link #preFilterIdToMeterMap} for each mapped id, so that removing a meter
+     * evicts exactly the cache entries pointing to it.
+     */
+    private final Map<Id, Set<Id>> preFilterIdsByMappedId = new ConcurrentHashMap<>();
+
+    /**
+     * Upper bound on the number of entries in {@link #preFilterIdToMeterMap}. The cache is emptied when it
+     * fills up, so that it keeps serving the ids that are currently looked up.
+     */
+    private static final int PRE_FILTER_ID_CACHE_MAX_SIZE = 100_000;
 
     private final AtomicBoolean closed = new AtomicBoolean();
     private PauseDetector pauseDetector = new NoPauseDetector();
@@ -124,6 +169,21 @@ public abstract class MeterRegistry {
      */
     protected abstract <T> Gauge newGauge(Meter.Id id, @Nullable T obj, ToDoubleFunction<T> valueFunction);
 
+    /**
+     * Build a new gauge for one row of a {@link GaugeBatch}. This is guaranteed to only be called if the gauge
+     * doesn't already exist. Registries that poll batches themselves can override this to read the row directly.
+     *
+     * @param id    The id that uniquely identifies the gauge.
+     * @param batch The batch the gauge belongs to.
+     * @param index The row of the batch the gauge reports.
+     * @return A new gauge.
+     * @since 1.7.0
+     */
+    @Incubating(since = "1.7.0")
+    protected Gauge newBatchedGauge(Meter.Id id, GaugeBatch batch, int index) {
+        return newGauge(id, batch, b -> b.value(index));
+    }
+
     /**
      * Build a new counter to be added to the registry. This is guaranteed to only be called if the counter doesn't already exist.
      *
@@ -297,6 +357,43 @@ public abstract class MeterRegistry {
         return registerMeterIfNecessary(Gauge.class, id, id2 -> newGauge(id2, obj, valueFunction), NoopGauge::new);
     }
 
+    /**
+     * Only used by {@link GaugeBatch.Builder#register(MeterRegistry, Iterable, GaugeBatch.ValuesProvider)}.
+     *
+     * @param batch The batch whose rows to register as gauges.
+     */
+    void registerGaugeBatch(GaugeBatch batch) {
+        gaugeBatches.add(batch);
+        List<Id> rowIds = batch.getRowIds();
+        for (int i = 0; i < rowIds.size(); i++) {
+            int index = i;
+            registerMeterIfNecessary(Gauge.class, rowIds.get(i), id2 -> newBatchedGauge(id2, batch, index), NoopGauge::new);
+        }
+    }
+
+    /**
+     * Only used by {@link GaugeBatch#remove()}.
+     *
+     * @param batch The batch whose gauges to remove.
+     */
+    void removeGaugeBatch(GaugeBatch batch) {
+        gaugeBatches.remove(batch);
+        batch.getRowIds().forEach(this::removeByPreFilterId);
+    }
+
+    /**
+     * Poll every {@link GaugeBatch} registered with this registry, so that reading their gauges afterwards doesn't
+     * have to. Registries call this right before they read every meter, such as before publishing or being scraped.
+     *
+     * @since 1.7.0
+     */
+    @Incubating(since = "1.7.0")
+    protected void pollGaugeBatches() {
+        for (GaugeBatch batch : gaugeBatches) {
+            batch.poll();
+        }
+    }
+
     /**
      * Only used by {@link Timer#builder(String)}.
      *
@@ -342,6 +439,34 @@ public abstract class MeterRegistry {
         return Collections.unmodifiableList(new ArrayList<>(meterMap.values()));
     }
 
+    /**
+     * The meters of this registry that can possibly match all of the given criteria, looked up in an index of meters
+     * by name, tag key and tag. Used by {@link Search} and {@link RequiredSearch}, which still test each candidate
+     * against their criteria.
+     *
+     * @param name    An exact name to match, if any.
+     * @param tags    Tags that must all be present.
+     * @param tagKeys Tag keys that must all be present.
+     * @return The candidate meters, or {@code null} if none of the criteria can be looked up in the index.
+     * @since 1.7.0
+     */
+    @Incubating(since = "1.7.0")
+    @Nullable
+    public Collection<Meter> searchCandidates(@Nullable String name, Iterable<Tag> tags, Iterable<String> tagKeys) {
+        Collection<Meter> indexed = meterIndex.candidates(name, tags, tagKeys);
+        if (indexed == null) {
+            return null;
+        }
+        // the index is updated after meterMap, so it can briefly hold a meter that has just been removed
+        List<Meter> candidates = new ArrayList<>(indexed.size());
+        for (Meter meter : indexed) {
+            if (meterMap.get(meter.getId()) == meter) {
+                candidates.add(meter);
+            }
+        }
+        return Collections.unmodifiableList(candidates);
+    }
+
     /**
      * Iterate over each meter in the registry.
      *
@@ -564,8 +689,18 @@ public abstract class MeterRegistry {
     private <M extends Meter> M registerMeterIfNecessary(Class<M> meterClass, Meter.Id id,
                                                          @Nullable DistributionStatisticConfig config, BiFunction<Meter.Id, DistributionStatisticConfig, M> builder,
                                                          Function<Meter.Id, M> noopBuilder) {
+        Meter m = preFilterIdToMeterMap.get(id);
+        if (meterClass.isInstance(m)) {
+            return meterClass.cast(m);
+        }
+
+        MeterFilter[] filtersAtLookup = filters;
         Id mappedId = getMappedId(id);
-        Meter m = getOrCreateMeter(config, builder, id, mappedId, noopBuilder);
+        m = getOrCreateMeter(config, builder, id, mappedId, noopBuilder);
+
+        if (meterMap.get(mappedId) == m) {
+            cachePreFilterId(id, mappedId, m, filtersAtLookup);
+        }
 
         if (!meterClass.isInstance(m)) {
             throw new IllegalArgumentException("There is already a registered meter of a different type with the same name");
@@ -573,6 +708,33 @@ public abstract class MeterRegistry {
         return meterClass.cast(m);
     }
 
+    private void cachePreFilterId(Id preFilterId, Id mappedId, Meter meter, MeterFilter[] filtersAtLookup) {
+        if (preFilterIdToMeterMap.size() >= PRE_FILTER_ID_CACHE_MAX_SIZE) {
+            warnThenDebugLogger.log("More than " + PRE_FILTER_ID_CACHE_MAX_SIZE + " distinct ids were used to look up meters, " +
+                    "so the cache of ids before filtering was emptied. This suggests a tag with unbounded values.");
+            // the reverse index is emptied first, so that an entry cached concurrently keeps its reverse entry
+            preFilterIdsByMappedId.clear();
+            preFilterIdToMeterMap.clear();
+        }
+
+        preFilterIdToMeterMap.put(preFilterId, meter);
+        preFilterIdsByMappedId.compute(mappedId, (k, preFilterIds) -> {
+            Set<Id> ids = preFilterIds == null ? ConcurrentHashMap.newKeySet() : preFilterIds;
+            ids.add(preFilterId);
+            return ids;
+        });
+
+        // the meter may have been removed or a filter added while we were mapping and registering, in which
+        // case the removal may have missed this entry
+        if (filters != filtersAtLookup || meterMap.get(mappedId) != meter) {
+            preFilterIdToMeterMap.remove(preFilterId, meter);
+            preFilterIdsByMappedId.computeIfPresent(mappedId, (k, preFilterIds) -> {
+                preFilterIds.remove(preFilterId);
+                return preFilterIds.isEmpty() ? null : preFilterIds;
+            });
+        }
+    }
+
     private Id getMappedId(Id id) {
         if (id.syntheticAssociation() != null) {
             return id;
@@ -589,45 +751,138 @@ public abstract class MeterRegistry {
                                    Id originalId, Id mappedId, Function<Meter.Id, ? extends Meter> noopBuilder) {
         Meter m = meterMap.get(mappedId);
 
-        if (m == null) {
+        while (m == null) {
             if (isClosed()) {
                 return noopBuilder.apply(mappedId);
             }
 
-            synchronized (meterMapLock) {
-                m = meterMap.get(mappedId);
-
-                if (m == null) {
-                    if (!accept(mappedId)) {
-                        return noopBuilder.apply(mappedId);
+            PendingRegistration registration = new PendingRegistration();
+            PendingRegistration inFlight = pendingRegistrations.putIfAbsent(mappedId, registration);
+
+            if (inFlight != null) {
+                // another thread is registering this id, wait for it rather than building a second meter
+                Thread current = Thread.currentThread();
+                awaitedRegistrations.put(current, inFlight);
+                try {
+                    if (inFlight.owner == current) {
+                        throw new IllegalStateException("Registration of meter '" + mappedId.getName() +
+                                "' depends on itself, for example through a meter builder or a meter added listener " +
+                                "registering the same meter");
                     }
-
-                    if (config != null) {
-                        for (MeterFilter filter : filters) {
-                            DistributionStatisticConfig filteredConfig = filter.configure(mappedId, config);
-                            if (filteredConfig != null) {
-                                config = filteredConfig;
-                            }
+                    if (waitsOnItself(inFlight, current)) {
+                        // the owner waits, through other threads, on a registration of ours, so build it here
+                        m = meterMap.get(mappedId);
+                        if (m == null) {
+                            m = createMeter(config, builder, mappedId);
                         }
+                        return m == null ? noopBuilder.apply(mappedId) : m;
                     }
+                    m = inFlight.join();
+                } catch (CompletionException | CancellationException e) {
+                    // the other registration failed, try again on our own
+                    m = meterMap.get(mappedId);
+                    continue;
+                } finally {
+                    awaitedRegistrations.remove(current);
+                }
+                if (m == null) {
+                    return noopBuilder.apply(mappedId);
+                }
+                return m;
+            }
 
-                    m = builder.apply(mappedId, config);
+            try {
+                // a registration may have completed between our lookup and claiming the id, and close() only
+                // waits for registrations that claimed their id before it closed the registry
+                m = meterMap.get(mappedId);
+                if (m == null && !isClosed()) {
+                    m = createMeter(config, builder, mappedId);
+                }
+                registration.complete(m);
+            } catch (Throwable t) {
+                registration.completeExceptionally(t);
+                throw t;
+            } finally {
+                pendingRegistrations.remove(mappedId, registration);
+            }
 
-                    Id synAssoc = mappedId.syntheticAssociation();
-                    if (synAssoc != null) {
-                        Set<Id> associations = syntheticAssociations.computeIfAbsent(synAssoc,
-                                k -> new HashSet<>());
-                        associations.add(mappedId);
-                    }
+            if (m == null) {
+                return noopBuilder.apply(mappedId);
+            }
+        }
 
-                    for (Consumer<Meter> onAdd : meterAddedListeners) {
-                        onAdd.accept(m);
-                    }
-                    meterMap.put(mappedId, m);
+        return m;
+    }
+
+    /**
+     * @return {@code true} if the registration is owned by the given thread, or by a thread waiting, directly or
+     * through other threads, for a registration owned by the given thread.
+     */
+    private boolean waitsOnItself(PendingRegistration registration, Thread current) {
+        PendingRegistration awaited = registration;
+        // bounded, in case threads other than the current one wait on one another
+        for (int i = 0; awaited != null && i <= awaitedRegistrations.size(); i++) {
+            if (awaited.owner == current) {
+                return true;
+            }
+            awaited = awaitedRegistrations.get(awaited.owner);
+        }
+        return false;
+    }
+
+    /**
+     * A registration in flight, built by the thread that claimed its id.
+     */
+    private static final class PendingRegistration extends CompletableFuture<Meter> {
+        private final Thread owner = Thread.currentThread();
+    }
+
+    /**
+     * Create and publish a meter for an id claimed in {@link #pendingRegistrations}, or for an id whose claim would
+     * otherwise be waited on by the thread that holds it.
+     *
+     * @return The meter published for the id, or {@code null} if the meter filters denied it.
+     */
+    @Nullable
+    private Meter createMeter(@Nullable DistributionStatisticConfig config,
+                              BiFunction<Id, /*Nullable Generic*/ DistributionStatisticConfig, ? extends Meter> builder,
+                              Id mappedId) {
+        if (!accept(mappedId)) {
+            return null;
+        }
+
+        if (config != null) {
+            for (MeterFilter filter : filters) {
+                DistributionStatisticConfig filteredConfig = filter.configure(mappedId, config);
+                if (filteredConfig != null) {
+                    config = filteredConfig;
                 }
             }
         }
 
+        Meter m = builder.apply(mappedId, config);
+
+        Id synAssoc = mappedId.syntheticAssociation();
+        if (synAssoc != null) {
+            Set<Id> associations = syntheticAssociations.computeIfAbsent(synAssoc,
+                    k -> ConcurrentHashMap.newKeySet());
+            associations.add(mappedId);
+        }
+
+        for (Consumer<Meter> onAdd : meterAddedListeners) {
+            onAdd.accept(m);
+        }
+        Meter published = meterMap.putIfAbsent(mappedId, m);
+        if (published != null) {
+            // built on another thread that could not wait for this registration, and published first
+            return published;
+        }
+        meterIndex.add(m);
+        if (meterMap.get(mappedId) != m) {
+            // removed before it was indexed, in which case remove() found nothing to take out of the index
+            meterIndex.remove(m);
+        }
+
         return m;
     }
 
@@ -683,29 +938,31 @@ public abstract class MeterRegistry {
     @Incubating(since = "1.1.0")
     @Nullable
     public Meter remove(Meter.Id mappedId) {
-        Meter m = meterMap.get(mappedId);
+        Meter m = meterMap.remove(mappedId);
 
         if (m != null) {
-            synchronized (meterMapLock) {
-                m = meterMap.remove(mappedId);
-                if (m != null) {
-                    Set<Id> synthetics = syntheticAssociations.remove(mappedId);
-                    if (synthetics != null) {
-                        for (Id synthetic : synthetics) {
-                            remove(synthetic);
-                        }
-                    }
+            meterIndex.remove(m);
 
-                    for (Consumer<Meter> onRemove : meterRemovedListeners) {
-                        onRemove.accept(m);
-                    }
+            Set<Id> preFilterIds = preFilterIdsByMappedId.remove(mappedId);
+            if (preFilterIds != null) {
+                for (Id preFilterId : preFilterIds) {
+                    preFilterIdToMeterMap.remove(preFilterId, m);
+                }
+            }
 
-                    return m;
+            Set<Id> synthetics = syntheticAssociations.remove(mappedId);
+            if (synthetics != null) {
+                for (Id synthetic : synthetics) {
+                    remove(synthetic);
                 }
             }
+
+            for (Consumer<Meter> onRemove : meterRemovedListeners) {
+                onRemove.accept(m);
+            }
         }
 
-        return null;
+        return m;
     }
 
     /**
@@ -753,6 +1010,8 @@ public abstract class MeterRegistry {
             System.arraycopy(filters, 0, newFilters, 0, filters.length);
             newFilters[filters.length] = filter;
             filters = newFilters;
+            preFilterIdToMeterMap.clear();
+            preFilterIdsByMappedId.clear();
             return this;
         }
 
@@ -999,11 +1258,20 @@ public abstract class MeterRegistry {
      */
     public void close() {
         if (closed.compareAndSet(false, true)) {
-            synchronized (meterMapLock) {
-                for (Meter meter : meterMap.values()) {
-                    meter.close();
+            // registrations that claimed their id before the registry closed finish first, later ones get noop meters
+            Thread current = Thread.currentThread();
+            for (PendingRegistration registration : pendingRegistrations.values()) {
+                if (!waitsOnItself(registration, current)) {
+                    try {
+                        registration.join();
+                    } catch (CompletionException | CancellationException ignored) {
+                        // the registration failed, so there is no meter to close
+                    }
                 }
             }
+            for (Meter meter : meterMap.values()) {
+                meter.close();
+            }
         }
     }
 
@@ -36,20 +36,50 @@ public final class Tags implements Iterable<Tag> {
     private static final Tags EMPTY = new Tags(new Tag[]{});
 
     private final Tag[] tags;
-    private int last;
+    private final int last;
+
+    /**
+     * Lazily computed hash code, 0 until first computed. Like {@link String#hashCode()}, racing threads
+     * at worst compute the same value more than once.
+     */
+    private int hash;
 
     private Tags(Tag[] tags) {
         this.tags = tags;
-        Arrays.sort(this.tags);
-        dedup();
+        if (!isSorted(tags, tags.length)) {
+            Arrays.sort(this.tags);
+        }
+        this.last = dedup(tags);
+    }
+
+    /**
+     * @param tags Tags that are already sorted and deduplicated by key up to {@code last}.
+     * @param last The number of tags in use.
+     */
+    private Tags(Tag[] tags, int last) {
+        this.tags = tags;
+        this.last = last;
+    }
+
+    private static boolean isSorted(Tag[] tags, int length) {
+        for (int i = 1; i < length; i++) {
+            if (tags[i - 1].compareTo(tags[i]) > 0) {
+                return false;
+            }
+        }
+        return true;
     }
 
-    private void dedup() {
+    /**
+     * Deduplicate sorted tags in place, keeping the last tag of each run of equal keys.
+     *
+     * @return The number of unique tags.
+     */
+    private static int dedup(Tag[] tags) {
         int n = tags.length;
 
         if (n == 0 || n == 1) {
-            last = n;
-            return;
+            return n;
         }
 
         // index of next unique element
@@ -60,7 +90,75 @@ public final class Tags implements Iterable<Tag> {
                 tags[j++] = tags[i];
 
         tags[j++] = tags[n - 1];
-        last = j;
+        return j;
+    }
+
+    /**
+     * Merge these tags with other tags that are sorted and deduplicated up to {@code otherLast} in a single
+     * linear pass. On equal keys, the other tag wins.
+     */
+    private Tags merge(Tag[] otherTags, int otherLast) {
+        if (otherLast == 0) {
+            return this;
+        }
+        if (last == 0) {
+            return new Tags(otherTags, otherLast);
+        }
+        if (otherLast == 1) {
+            return andTag(otherTags[0]);
+        }
+
+        Tag[] merged = new Tag[last + otherLast];
+        int i = 0, j = 0, k = 0;
+        while (i < last && j < otherLast) {
+            int comparison = tags[i].compareTo(otherTags[j]);
+            if (comparison < 0) {
+                merged[k++] = tags[i++];
+            } else if (comparison > 0) {
+                merged[k++] = otherTags[j++];
+            } else {
+                merged[k++] = otherTags[j++];
+                i++;
+            }
+        }
+        while (i < last) {
+            merged[k++] = tags[i++];
+        }
+        while (j < otherLast) {
+            merged[k++] = otherTags[j++];
+        }
+        return new Tags(merged, k);
+    }
+
+    /**
+     * Add or replace a single tag, locating its position with a binary search rather than re-sorting.
+     * Returns this instance if an equal tag is already present.
+     */
+    private Tags andTag(Tag tag) {
+        int low = 0;
+        int high = last - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = tags[mid].compareTo(tag);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                if (tags[mid].equals(tag)) {
+                    return this;
+                }
+                Tag[] replaced = Arrays.copyOf(tags, last);
+                replaced[mid] = tag;
+                return new Tags(replaced, last);
+            }
+        }
+
+        Tag[] inserted = new Tag[last + 1];
+        System.arraycopy(tags, 0, inserted, 0, low);
+        inserted[low] = tag;
+        System.arraycopy(tags, low, inserted, low + 1, last - low);
+        return new Tags(inserted, last + 1);
     }
 
     /**
@@ -71,7 +169,7 @@ public final class Tags implements Iterable<Tag> {
      * @return a new {@code Tags} instance
      */
     public Tags and(String key, String value) {
-        return and(Tag.of(key, value));
+        return andTag(Tag.of(key, value));
     }
 
     /**
@@ -97,10 +195,14 @@ public final class Tags implements Iterable<Tag> {
         if (tags == null || tags.length == 0) {
             return this;
         }
-        Tag[] newTags = new Tag[last + tags.length];
-        System.arraycopy(this.tags, 0, newTags, 0, last);
-        System.arraycopy(tags, 0, newTags, last, tags.length);
-        return new Tags(newTags);
+        if (tags.length == 1) {
+            return andTag(tags[0]);
+        }
+        Tag[] newTags = tags.clone();
+        if (!isSorted(newTags, newTags.length)) {
+            Arrays.sort(newTags);
+        }
+        return merge(newTags, dedup(newTags));
     }
 
     /**
@@ -118,7 +220,8 @@ public final class Tags implements Iterable<Tag> {
             return Tags.of(tags);
         }
 
-        return and(Tags.of(tags).tags);
+        Tags other = Tags.of(tags);
+        return merge(other.tags, other.last);
     }
 
     @Override
@@ -157,9 +260,13 @@ public final class Tags implements Iterable<Tag> {
 
     @Override
     public int hashCode() {
-        int result = 1;
-        for (int i = 0; i < last; i++) {
-            result = 31 * result + tags[i].hashCode();
+        int result = hash;
+        if (result == 0) {
+            result = 1;
+            for (int i = 0; i < last; i++) {
+                result = 31 * result + tags[i].hashCode();
+            }
+            hash = result;
         }
         return result;
     }
@@ -176,6 +283,9 @@ public final class Tags implements Iterable<Tag> {
         if (last != obj.last)
             return false;
 
+        if (hash != 0 && obj.hash != 0 && hash != obj.hash)
+            return false;
+
         for (int i = 0; i < last; i++) {
             if (!tags[i].equals(obj.tags[i]))
                 return false;
@@ -233,7 +343,7 @@ public final class Tags implements Iterable<Tag> {
      * @return a new {@code Tags} instance
      */
     public static Tags of(String key, String value) {
-        return new Tags(new Tag[]{Tag.of(key, value)});
+        return new Tags(new Tag[]{Tag.of(key, value)}, 1);
     }
 
     /**
@@ -19,6 +19,7 @@ import io.micrometer.core.annotation.Incubating;
 import io.micrometer.core.annotation.Timed;
 import io.micrometer.core.instrument.distribution.CountAtBucket;
 import io.micrometer.core.instrument.distribution.HistogramSupport;
+import io.micrometer.core.instrument.distribution.PercentileEngine;
 import io.micrometer.core.instrument.distribution.ValueAtPercentile;
 import io.micrometer.core.instrument.distribution.pause.PauseDetector;
 import io.micrometer.core.lang.Nullable;
@@ -380,6 +381,16 @@ public interface Timer extends Meter, HistogramSupport {
             return super.distributionStatisticBufferLength(bufferLength);
         }
 
+        @Override
+        public Builder percentileEngine(PercentileEngine percentileEngine) {
+            return super.percentileEngine(percentileEngine);
+        }
+
+        @Override
+        public Builder distributionStatisticBackgroundRotation(Boolean enabled) {
+            return super.distributionStatisticBackgroundRotation(enabled);
+        }
+
         @Override
         public Builder pauseDetector(PauseDetector pauseDetector) {
             return super.pauseDetector(pauseDetector);
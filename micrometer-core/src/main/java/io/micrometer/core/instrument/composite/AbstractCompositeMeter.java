@@ -20,16 +20,28 @@ import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.lang.Nullable;
 
-import java.util.Collections;
-import java.util.IdentityHashMap;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
 
 abstract class AbstractCompositeMeter<T extends Meter> extends AbstractMeter implements CompositeMeter {
+    private static final Object[] NO_CHILDREN = new Object[0];
+    private static final MeterRegistry[] NO_REGISTRIES = new MeterRegistry[0];
+
     private AtomicBoolean childrenGuard = new AtomicBoolean();
-    private Map<MeterRegistry, T> children = Collections.emptyMap();
+
+    /**
+     * Child meters, in the order their registries were added. Never modified in place, but replaced as a whole when
+     * a registry is added or removed, so that recording only has to read this field and walk a flat array.
+     */
+    private volatile Object[] children = NO_CHILDREN;
+
+    /**
+     * The registry each child was registered with, at the same index as the child. Only read and written while
+     * holding {@link #childrenGuard}.
+     */
+    private MeterRegistry[] registries = NO_REGISTRIES;
 
     @Nullable
     private volatile T noopMeter;
@@ -43,14 +55,83 @@ abstract class AbstractCompositeMeter<T extends Meter> extends AbstractMeter imp
     @Nullable
     abstract T registerNewMeter(MeterRegistry registry);
 
+    /**
+     * @return The current child meters, each of which is a {@code T}. The array must not be modified.
+     */
+    final Object[] children() {
+        return children;
+    }
+
+    @SuppressWarnings("unchecked")
     final void forEachChild(Consumer<T> task) {
-        children.values().forEach(task);
+        for (Object child : children) {
+            task.accept((T) child);
+        }
+    }
+
+    /**
+     * Records a sample to every child. With an async recorder and more than one child, only the first child is
+     * recorded to on the calling thread, and the sample is queued for the others. The meter must then implement
+     * {@link AsyncSecondaryRecorder.Secondaries} by way of {@link #recordToSecondaryChildren}.
+     *
+     * @param recorder      Records a sample to one child. Should capture nothing, so that it is not allocated on
+     *                      every recording.
+     * @param sample        The sample, encoded as the meter chooses.
+     * @param asyncRecorder Records the sample to the children after the first, if not {@code null}.
+     */
+    @SuppressWarnings("unchecked")
+    final void recordToChildren(ObjLongConsumer<T> recorder, long sample, @Nullable AsyncSecondaryRecorder asyncRecorder) {
+        final Object[] children = this.children;
+        if (asyncRecorder != null && children.length > 1) {
+            recorder.accept((T) children[0], sample);
+            asyncRecorder.offer((AsyncSecondaryRecorder.Secondaries) this, sample);
+            return;
+        }
+        // the common cases of one to four children are unrolled, sparing a loop on every recording
+        switch (children.length) {
+            case 0:
+                break;
+            case 1:
+                recorder.accept((T) children[0], sample);
+                break;
+            case 2:
+                recorder.accept((T) children[0], sample);
+                recorder.accept((T) children[1], sample);
+                break;
+            case 3:
+                recorder.accept((T) children[0], sample);
+                recorder.accept((T) children[1], sample);
+                recorder.accept((T) children[2], sample);
+                break;
+            case 4:
+                recorder.accept((T) children[0], sample);
+                recorder.accept((T) children[1], sample);
+                recorder.accept((T) children[2], sample);
+                recorder.accept((T) children[3], sample);
+                break;
+            default:
+                for (Object child : children) {
+                    recorder.accept((T) child, sample);
+                }
+        }
+    }
+
+    /**
+     * Records a sample queued by {@link #recordToChildren} to every child but the first.
+     */
+    @SuppressWarnings("unchecked")
+    final void recordToSecondaryChildren(ObjLongConsumer<T> recorder, long sample) {
+        final Object[] children = this.children;
+        for (int i = 1; i < children.length; i++) {
+            recorder.accept((T) children[i], sample);
+        }
     }
 
+    @SuppressWarnings("unchecked")
     T firstChild() {
-        final Iterator<T> i = children.values().iterator();
-        if (i.hasNext())
-            return i.next();
+        final Object[] children = this.children;
+        if (children.length > 0)
+            return (T) children[0];
 
         // There are no child meters at the moment. Return a lazily instantiated no-op meter.
         final T noopMeter = this.noopMeter;
@@ -71,9 +152,18 @@ abstract class AbstractCompositeMeter<T extends Meter> extends AbstractMeter imp
         for (; ; ) {
             if (childrenGuard.compareAndSet(false, true)) {
                 try {
-                    Map<MeterRegistry, T> newChildren = new IdentityHashMap<>(children);
-                    newChildren.put(registry, newMeter);
-                    this.children = newChildren;
+                    int index = indexOf(registry);
+                    if (index >= 0) {
+                        Object[] newChildren = children.clone();
+                        newChildren[index] = newMeter;
+                        this.children = newChildren;
+                    } else {
+                        Object[] newChildren = Arrays.copyOf(children, children.length + 1);
+                        newChildren[children.length] = newMeter;
+                        registries = Arrays.copyOf(registries, registries.length + 1);
+                        registries[registries.length - 1] = registry;
+                        this.children = newChildren;
+                    }
                     break;
                 } finally {
                     childrenGuard.set(false);
@@ -93,9 +183,11 @@ abstract class AbstractCompositeMeter<T extends Meter> extends AbstractMeter imp
         for (; ; ) {
             if (childrenGuard.compareAndSet(false, true)) {
                 try {
-                    Map<MeterRegistry, T> newChildren = new IdentityHashMap<>(children);
-                    newChildren.remove(registry);
-                    this.children = newChildren;
+                    int index = indexOf(registry);
+                    if (index >= 0) {
+                        registries = without(registries, index, new MeterRegistry[registries.length - 1]);
+                        this.children = without(children, index, new Object[children.length - 1]);
+                    }
                     break;
                 } finally {
                     childrenGuard.set(false);
@@ -103,4 +195,19 @@ abstract class AbstractCompositeMeter<T extends Meter> extends AbstractMeter imp
             }
         }
     }
+
+    private int indexOf(MeterRegistry registry) {
+        for (int i = 0; i < registries.length; i++) {
+            if (registries[i] == registry) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static <E> E[] without(E[] elements, int index, E[] target) {
+        System.arraycopy(elements, 0, target, 0, index);
+        System.arraycopy(elements, index + 1, target, index, elements.length - index - 1);
+        return target;
+    }
 }
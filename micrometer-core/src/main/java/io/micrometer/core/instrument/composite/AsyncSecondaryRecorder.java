@@ -0,0 +1,189 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.composite;
+
+import io.micrometer.core.instrument.util.NamedThreadFactory;
+import io.micrometer.core.util.internal.MpscSequencer;
+import io.micrometer.core.util.internal.logging.InternalLogger;
+import io.micrometer.core.util.internal.logging.InternalLoggerFactory;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Forwards samples recorded on a composite meter's first child to its other children from a background thread,
+ * so that a slow child registry doesn't slow down the thread doing the recording.
+ * <p>
+ * Samples go through a bounded, lock-free queue with many producers and the one draining thread as consumer. When
+ * the queue is full, the sample is dropped for the secondary children and counted in {@link #dropped()}. The
+ * draining thread parks while the queue is empty, and is unparked by the next producer. Once closed, samples are
+ * recorded to the secondary children on the thread doing the recording.
+ */
+class AsyncSecondaryRecorder implements Runnable {
+    private static final InternalLogger logger = InternalLoggerFactory.getInstance(AsyncSecondaryRecorder.class);
+
+    /**
+     * A composite meter whose children after the first can be recorded to later.
+     */
+    interface Secondaries {
+        /**
+         * Record a sample to every child but the first.
+         *
+         * @param sample The sample, encoded as the meter chooses.
+         */
+        void recordSecondaries(long sample);
+    }
+
+    private final MpscSequencer sequencer;
+    private final Secondaries[] meters;
+    private final long[] samples;
+
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Set by the draining thread before it checks the queue one last time and parks. Samples are published with a
+     * volatile write that producers follow by reading this flag, so either the producer sees the thread idle and
+     * unparks it, or the thread sees the sample.
+     */
+    private volatile boolean idle;
+
+    private volatile boolean closed;
+
+    /**
+     * Set once the draining thread has finished, after which producers drain the queue themselves.
+     */
+    private volatile boolean stopped;
+
+    private final Thread thread;
+
+    AsyncSecondaryRecorder(int capacity) {
+        this.sequencer = new MpscSequencer(capacity);
+        this.meters = new Secondaries[sequencer.size()];
+        this.samples = new long[sequencer.size()];
+        this.thread = new NamedThreadFactory("micrometer-composite-async-recorder").newThread(this);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    /**
+     * @param meter  The composite meter the sample was recorded on.
+     * @param sample The sample to record to the meter's secondary children.
+     * @return {@code false} if the queue was full and the sample was dropped.
+     */
+    boolean offer(Secondaries meter, long sample) {
+        if (stopped) {
+            record(meter, sample);
+            return true;
+        }
+
+        long position = sequencer.claim();
+        if (position < 0) {
+            dropped.increment();
+            return false;
+        }
+        int index = sequencer.index(position);
+        meters[index] = meter;
+        samples[index] = sample;
+        sequencer.publish(position);
+        if (idle) {
+            LockSupport.unpark(thread);
+        }
+
+        if (stopped) {
+            // close() may have drained the queue before this sample was published
+            drainStopped();
+        }
+        return true;
+    }
+
+    /**
+     * Record every sample that has been queued so far. Must only be called by one thread at a time.
+     *
+     * @return The number of samples recorded.
+     */
+    int drain() {
+        int drained = 0;
+        for (; ; ) {
+            int index = sequencer.peek();
+            if (index < 0) {
+                return drained;
+            }
+
+            Secondaries meter = meters[index];
+            long sample = samples[index];
+            meters[index] = null;
+            sequencer.release();
+
+            record(meter, sample);
+            drained++;
+        }
+    }
+
+    private synchronized void drainStopped() {
+        drain();
+    }
+
+    private void record(Secondaries meter, long sample) {
+        try {
+            meter.recordSecondaries(sample);
+        } catch (Throwable e) {
+            logger.warn("Unexpected exception thrown while recording to a secondary registry", e);
+        }
+    }
+
+    /**
+     * @return The number of samples dropped because the queue was full.
+     */
+    long dropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void run() {
+        while (!closed) {
+            if (drain() > 0) {
+                continue;
+            }
+            idle = true;
+            if (drain() == 0 && !closed) {
+                LockSupport.park(this);
+            }
+            idle = false;
+        }
+    }
+
+    /**
+     * Stop the draining thread and then record any samples still queued. Samples offered from then on are recorded
+     * on the calling thread.
+     */
+    void close() {
+        closed = true;
+        LockSupport.unpark(thread);
+        if (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            stopped = true;
+            drain();
+        }
+    }
+}
@@ -20,15 +20,28 @@ import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.noop.NoopCounter;
 
-class CompositeCounter extends AbstractCompositeMeter<Counter> implements Counter {
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
 
-    CompositeCounter(Meter.Id id) {
+class CompositeCounter extends AbstractCompositeMeter<Counter> implements Counter, AsyncSecondaryRecorder.Secondaries {
+    private static final ObjLongConsumer<Counter> INCREMENT =
+            (counter, amountBits) -> counter.increment(Double.longBitsToDouble(amountBits));
+
+    private final Supplier<AsyncSecondaryRecorder> asyncRecorder;
+
+    CompositeCounter(Meter.Id id, Supplier<AsyncSecondaryRecorder> asyncRecorder) {
         super(id);
+        this.asyncRecorder = asyncRecorder;
     }
 
     @Override
     public void increment(double amount) {
-        forEachChild(c -> c.increment(amount));
+        recordToChildren(INCREMENT, Double.doubleToRawLongBits(amount), asyncRecorder.get());
+    }
+
+    @Override
+    public void recordSecondaries(long sample) {
+        recordToSecondaryChildren(INCREMENT, sample);
     }
 
     @Override
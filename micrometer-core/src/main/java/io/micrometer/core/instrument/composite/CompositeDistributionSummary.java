@@ -22,20 +22,35 @@ import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
 import io.micrometer.core.instrument.distribution.HistogramSnapshot;
 import io.micrometer.core.instrument.noop.NoopDistributionSummary;
 
-class CompositeDistributionSummary extends AbstractCompositeMeter<DistributionSummary> implements DistributionSummary {
+import java.util.function.ObjLongConsumer;
+import java.util.function.Supplier;
+
+class CompositeDistributionSummary extends AbstractCompositeMeter<DistributionSummary> implements DistributionSummary,
+        AsyncSecondaryRecorder.Secondaries {
+
+    private static final ObjLongConsumer<DistributionSummary> RECORD =
+            (summary, amountBits) -> summary.record(Double.longBitsToDouble(amountBits));
 
     private final DistributionStatisticConfig distributionStatisticConfig;
     private final double scale;
+    private final Supplier<AsyncSecondaryRecorder> asyncRecorder;
 
-    CompositeDistributionSummary(Meter.Id id, DistributionStatisticConfig distributionStatisticConfig, double scale) {
+    CompositeDistributionSummary(Meter.Id id, DistributionStatisticConfig distributionStatisticConfig, double scale,
+                                 Supplier<AsyncSecondaryRecorder> asyncRecorder) {
         super(id);
         this.distributionStatisticConfig = distributionStatisticConfig;
         this.scale = scale;
+        this.asyncRecorder = asyncRecorder;
     }
 
     @Override
     public void record(double amount) {
-        forEachChild(ds -> ds.record(amount));
+        recordToChildren(RECORD, Double.doubleToRawLongBits(amount), asyncRecorder.get());
+    }
+
+    @Override
+    public void recordSecondaries(long sample) {
+        recordToSecondaryChildren(RECORD, sample);
     }
 
     @Override
@@ -77,6 +92,8 @@ class CompositeDistributionSummary extends AbstractCompositeMeter<DistributionSu
                 .distributionStatisticBufferLength(distributionStatisticConfig.getBufferLength())
                 .distributionStatisticExpiry(distributionStatisticConfig.getExpiry())
                 .percentilePrecision(distributionStatisticConfig.getPercentilePrecision())
+                .percentileEngine(distributionStatisticConfig.getPercentileEngine())
+                .distributionStatisticBackgroundRotation(distributionStatisticConfig.isBackgroundRotation())
                 .serviceLevelObjectives(distributionStatisticConfig.getServiceLevelObjectiveBoundaries())
                 .scale(scale)
                 .register(registry);
@@ -84,7 +84,9 @@ class CompositeLongTaskTimer extends AbstractCompositeMeter<LongTaskTimer> imple
                 .publishPercentileHistogram(distributionStatisticConfig.isPercentileHistogram())
                 .distributionStatisticBufferLength(distributionStatisticConfig.getBufferLength())
                 .distributionStatisticExpiry(distributionStatisticConfig.getExpiry())
-                .percentilePrecision(distributionStatisticConfig.getPercentilePrecision());
+                .percentilePrecision(distributionStatisticConfig.getPercentilePrecision())
+                .percentileEngine(distributionStatisticConfig.getPercentileEngine())
+                .distributionStatisticBackgroundRotation(distributionStatisticConfig.isBackgroundRotation());
 
         final double[] sloNanos = distributionStatisticConfig.getServiceLevelObjectiveBoundaries();
         if (sloNanos != null) {
@@ -15,14 +15,17 @@
  */
 package io.micrometer.core.instrument.composite;
 
+import io.micrometer.core.annotation.Incubating;
 import io.micrometer.core.instrument.*;
 import io.micrometer.core.instrument.config.NamingConvention;
 import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
 import io.micrometer.core.instrument.distribution.pause.PauseDetector;
 import io.micrometer.core.lang.Nullable;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -42,12 +45,17 @@ public class CompositeMeterRegistry extends MeterRegistry {
     private final Set<MeterRegistry> registries = Collections.newSetFromMap(new IdentityHashMap<>());
     private final Set<MeterRegistry> unmodifiableRegistries = Collections.unmodifiableSet(registries);
 
+    private static final MeterRegistry[] NO_REGISTRIES = new MeterRegistry[0];
+
     // VisibleForTesting
-    volatile Set<MeterRegistry> nonCompositeDescendants = Collections.emptySet();
+    volatile MeterRegistry[] nonCompositeDescendants = NO_REGISTRIES;
 
     private final AtomicBoolean parentLock = new AtomicBoolean();
     private volatile Set<CompositeMeterRegistry> parents = Collections.newSetFromMap(new IdentityHashMap<>());
 
+    @Nullable
+    private volatile AsyncSecondaryRecorder asyncRecorder;
+
     public CompositeMeterRegistry() {
         this(Clock.SYSTEM);
     }
@@ -62,12 +70,20 @@ public class CompositeMeterRegistry extends MeterRegistry {
                 .namingConvention(NamingConvention.identity)
                 .onMeterAdded(m -> {
                     if (m instanceof CompositeMeter) { // should always be
-                        lock(registriesLock, () -> nonCompositeDescendants.forEach(((CompositeMeter) m)::add));
+                        lock(registriesLock, () -> {
+                            for (MeterRegistry descendant : nonCompositeDescendants) {
+                                ((CompositeMeter) m).add(descendant);
+                            }
+                        });
                     }
                 })
                 .onMeterRemoved(m -> {
                     if (m instanceof CompositeMeter) { // should always be
-                        lock(registriesLock, () -> nonCompositeDescendants.forEach(r -> r.removeByPreFilterId(m.getId())));
+                        lock(registriesLock, () -> {
+                            for (MeterRegistry descendant : nonCompositeDescendants) {
+                                descendant.removeByPreFilterId(m.getId());
+                            }
+                        });
                     }
                 });
 
@@ -76,17 +92,17 @@ public class CompositeMeterRegistry extends MeterRegistry {
 
     @Override
     protected Timer newTimer(Meter.Id id, DistributionStatisticConfig distributionStatisticConfig, PauseDetector pauseDetector) {
-        return new CompositeTimer(id, clock, distributionStatisticConfig, pauseDetector);
+        return new CompositeTimer(id, clock, distributionStatisticConfig, pauseDetector, this::asyncRecorder);
     }
 
     @Override
     protected DistributionSummary newDistributionSummary(Meter.Id id, DistributionStatisticConfig distributionStatisticConfig, double scale) {
-        return new CompositeDistributionSummary(id, distributionStatisticConfig, scale);
+        return new CompositeDistributionSummary(id, distributionStatisticConfig, scale, this::asyncRecorder);
     }
 
     @Override
     protected Counter newCounter(Meter.Id id) {
-        return new CompositeCounter(id);
+        return new CompositeCounter(id, this::asyncRecorder);
     }
 
     @Override
@@ -129,6 +145,41 @@ public class CompositeMeterRegistry extends MeterRegistry {
         return new CompositeCustomMeter(id, type, measurements);
     }
 
+    /**
+     * Record counters, timers and distribution summaries to the first registry on the calling thread, and forward
+     * each sample to the other registries through a bounded queue drained by a background thread. The time taken to
+     * record is then bounded by the first registry, which should be the cheapest to record to.
+     * <p>
+     * When the queue is full, samples are not forwarded to the other registries. How many were dropped this way is
+     * counted by {@code micrometer.composite.async.dropped}. Other meter types are still recorded to every registry
+     * on the calling thread.
+     *
+     * @param queueCapacity The number of samples that can wait to be forwarded, rounded up to a power of two.
+     * @return This composite registry.
+     * @since 1.7.0
+     */
+    @Incubating(since = "1.7.0")
+    public CompositeMeterRegistry recordSecondariesAsynchronously(int queueCapacity) {
+        AsyncSecondaryRecorder recorder = new AsyncSecondaryRecorder(queueCapacity);
+        lock(registriesLock, () -> {
+            if (asyncRecorder != null) {
+                throw new IllegalStateException("Asynchronous recording is already enabled");
+            }
+            asyncRecorder = recorder;
+        });
+        recorder.start();
+
+        FunctionCounter.builder("micrometer.composite.async.dropped", recorder, AsyncSecondaryRecorder::dropped)
+                .description("Samples not recorded to secondary registries because the forwarding queue was full")
+                .register(this);
+        return this;
+    }
+
+    @Nullable
+    AsyncSecondaryRecorder asyncRecorder() {
+        return asyncRecorder;
+    }
+
     public CompositeMeterRegistry add(MeterRegistry registry) {
         lock(registriesLock, () -> {
             forbidSelfContainingComposite(registry);
@@ -191,22 +242,38 @@ public class CompositeMeterRegistry extends MeterRegistry {
     }
 
     private void updateDescendants() {
-        Set<MeterRegistry> descendants = Collections.newSetFromMap(new IdentityHashMap<>());
+        // registries are added one at a time and each composite keeps its descendants in order, so new descendants
+        // are collected in a deterministic order even though registries itself is unordered
+        List<MeterRegistry> descendants = new ArrayList<>();
+        Set<MeterRegistry> isDescendant = Collections.newSetFromMap(new IdentityHashMap<>());
         for (MeterRegistry r : registries) {
             if (r instanceof CompositeMeterRegistry) {
-                descendants.addAll(((CompositeMeterRegistry) r).nonCompositeDescendants);
-            } else {
+                for (MeterRegistry descendant : ((CompositeMeterRegistry) r).nonCompositeDescendants) {
+                    if (isDescendant.add(descendant)) {
+                        descendants.add(descendant);
+                    }
+                }
+            } else if (isDescendant.add(r)) {
                 descendants.add(r);
             }
         }
 
-        Set<MeterRegistry> removes = Collections.newSetFromMap(new IdentityHashMap<>());
-        removes.addAll(nonCompositeDescendants);
-        removes.removeAll(descendants);
+        Set<MeterRegistry> current = Collections.newSetFromMap(new IdentityHashMap<>());
+        Collections.addAll(current, nonCompositeDescendants);
+
+        List<MeterRegistry> removes = new ArrayList<>();
+        for (MeterRegistry r : nonCompositeDescendants) {
+            if (!isDescendant.contains(r)) {
+                removes.add(r);
+            }
+        }
 
-        Set<MeterRegistry> adds = Collections.newSetFromMap(new IdentityHashMap<>());
-        adds.addAll(descendants);
-        adds.removeAll(nonCompositeDescendants);
+        List<MeterRegistry> adds = new ArrayList<>();
+        for (MeterRegistry r : descendants) {
+            if (!current.contains(r)) {
+                adds.add(r);
+            }
+        }
 
         if (!removes.isEmpty() || !adds.isEmpty()) {
             for (Meter meter : getMeters()) {
@@ -218,7 +285,15 @@ public class CompositeMeterRegistry extends MeterRegistry {
             }
         }
 
-        nonCompositeDescendants = descendants;
+        // keep descendants in the order they were added, so that the first one stays first
+        List<MeterRegistry> ordered = new ArrayList<>(descendants.size());
+        for (MeterRegistry r : nonCompositeDescendants) {
+            if (isDescendant.contains(r)) {
+                ordered.add(r);
+            }
+        }
+        ordered.addAll(adds);
+        nonCompositeDescendants = ordered.toArray(NO_REGISTRIES);
 
         lock(parentLock, () -> parents.forEach(CompositeMeterRegistry::updateDescendants));
     }
@@ -229,6 +304,10 @@ public class CompositeMeterRegistry extends MeterRegistry {
 
     @Override
     public void close() {
+        AsyncSecondaryRecorder asyncRecorder = this.asyncRecorder;
+        if (asyncRecorder != null) {
+            asyncRecorder.close();
+        }
         this.registries.forEach(MeterRegistry::close);
         super.close();
     }
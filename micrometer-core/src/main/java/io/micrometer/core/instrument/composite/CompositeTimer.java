@@ -26,28 +26,39 @@ import io.micrometer.core.instrument.noop.NoopTimer;
 import java.time.Duration;
 import java.util.concurrent.Callable;
 import java.util.concurrent.TimeUnit;
+import java.util.function.ObjLongConsumer;
 import java.util.function.Supplier;
 
-class CompositeTimer extends AbstractCompositeMeter<Timer> implements Timer {
+class CompositeTimer extends AbstractCompositeMeter<Timer> implements Timer, AsyncSecondaryRecorder.Secondaries {
+    private static final ObjLongConsumer<Timer> RECORD_NANOS = (timer, nanos) -> timer.record(nanos, TimeUnit.NANOSECONDS);
+
     private final Clock clock;
     private final DistributionStatisticConfig distributionStatisticConfig;
     private final PauseDetector pauseDetector;
+    private final Supplier<AsyncSecondaryRecorder> asyncRecorder;
 
-    CompositeTimer(Id id, Clock clock, DistributionStatisticConfig distributionStatisticConfig, PauseDetector pauseDetector) {
+    CompositeTimer(Id id, Clock clock, DistributionStatisticConfig distributionStatisticConfig, PauseDetector pauseDetector,
+                   Supplier<AsyncSecondaryRecorder> asyncRecorder) {
         super(id);
         this.clock = clock;
         this.distributionStatisticConfig = distributionStatisticConfig;
         this.pauseDetector = pauseDetector;
+        this.asyncRecorder = asyncRecorder;
     }
 
     @Override
     public void record(long amount, TimeUnit unit) {
-        forEachChild(ds -> ds.record(amount, unit));
+        recordToChildren(RECORD_NANOS, unit.toNanos(amount), asyncRecorder.get());
     }
 
     @Override
     public void record(Duration duration) {
-        forEachChild(ds -> ds.record(duration));
+        recordToChildren(RECORD_NANOS, duration.toNanos(), asyncRecorder.get());
+    }
+
+    @Override
+    public void recordSecondaries(long sample) {
+        recordToSecondaryChildren(RECORD_NANOS, sample);
     }
 
     @Override
@@ -126,6 +137,8 @@ class CompositeTimer extends AbstractCompositeMeter<Timer> implements Timer {
                 .distributionStatisticBufferLength(distributionStatisticConfig.getBufferLength())
                 .distributionStatisticExpiry(distributionStatisticConfig.getExpiry())
                 .percentilePrecision(distributionStatisticConfig.getPercentilePrecision())
+                .percentileEngine(distributionStatisticConfig.getPercentileEngine())
+                .distributionStatisticBackgroundRotation(distributionStatisticConfig.isBackgroundRotation())
                 .pauseDetector(pauseDetector);
 
         final double[] sloNanos = distributionStatisticConfig.getServiceLevelObjectiveBoundaries();
@@ -83,4 +83,10 @@ public class CumulativeDistributionSummary extends AbstractDistributionSummary {
             new Measurement(this::max, Statistic.MAX)
         );
     }
+
+    @Override
+    public void close() {
+        super.close();
+        max.close();
+    }
 }
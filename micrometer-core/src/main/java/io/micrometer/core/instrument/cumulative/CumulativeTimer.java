@@ -68,4 +68,10 @@ public class CumulativeTimer extends AbstractTimer {
     public double max(TimeUnit unit) {
         return max.poll(unit);
     }
+
+    @Override
+    public void close() {
+        super.close();
+        max.close();
+    }
 }
@@ -44,7 +44,7 @@ abstract class AbstractTimeWindowHistogram<T, U> implements Histogram {
     final DistributionStatisticConfig distributionStatisticConfig;
 
     private final Clock clock;
-    private final boolean supportsAggregablePercentiles;
+    final boolean supportsAggregablePercentiles;
 
     private final T[] ringBuffer;
     private short currentBucket;
@@ -59,6 +59,12 @@ abstract class AbstractTimeWindowHistogram<T, U> implements Histogram {
     @Nullable
     private U accumulatedHistogram;
 
+    /**
+     * Only set when rotation is driven in the background, in which case recording never rotates.
+     */
+    @Nullable
+    private TimeWindowRotationTicker.Tick rotationTick;
+
     @SuppressWarnings("unchecked")
     AbstractTimeWindowHistogram(Clock clock, DistributionStatisticConfig distributionStatisticConfig, Class<T> bucketType,
                                 boolean supportsAggregablePercentiles) {
@@ -129,6 +135,12 @@ abstract class AbstractTimeWindowHistogram<T, U> implements Histogram {
             ringBuffer[i] = newBucket();
         }
         accumulatedHistogram = newAccumulatedHistogram(ringBuffer);
+
+        Boolean backgroundRotation = distributionStatisticConfig.isBackgroundRotation();
+        if (backgroundRotation != null && backgroundRotation) {
+            rotationTick = TimeWindowRotationTicker.schedule(this, durationBetweenRotatesMillis,
+                    AbstractTimeWindowHistogram::rotate);
+        }
     }
 
     abstract T newBucket();
@@ -178,7 +190,13 @@ abstract class AbstractTimeWindowHistogram<T, U> implements Histogram {
         }
     }
 
-    private ValueAtPercentile[] takeValueSnapshot() {
+    /**
+     * Called while holding this histogram's monitor, after the accumulated histogram is brought up to date.
+     *
+     * @return The value at each monitored percentile, or {@code null} if this histogram does not publish them.
+     */
+    @Nullable
+    ValueAtPercentile[] takeValueSnapshot() {
         double[] monitoredPercentiles = distributionStatisticConfig.getPercentiles();
         if (monitoredPercentiles == null || monitoredPercentiles.length == 0) {
             return null;
@@ -192,7 +210,13 @@ abstract class AbstractTimeWindowHistogram<T, U> implements Histogram {
         return values;
     }
 
-    private CountAtBucket[] takeCountSnapshot() {
+    /**
+     * Called while holding this histogram's monitor, after the accumulated histogram is brought up to date.
+     *
+     * @return Cumulative counts at each monitored bucket, or {@code null} if this histogram does not publish them.
+     */
+    @Nullable
+    CountAtBucket[] takeCountSnapshot() {
         if (!distributionStatisticConfig.isPublishingHistogram()) {
             return null;
         }
@@ -212,7 +236,9 @@ abstract class AbstractTimeWindowHistogram<T, U> implements Histogram {
     }
 
     public void recordLong(long value) {
-        rotate();
+        if (rotationTick == null) {
+            rotate();
+        }
         try {
             for (T bucket : ringBuffer) {
                 recordLong(bucket, value);
@@ -225,7 +251,9 @@ abstract class AbstractTimeWindowHistogram<T, U> implements Histogram {
     }
 
     public void recordDouble(double value) {
-        rotate();
+        if (rotationTick == null) {
+            rotate();
+        }
         try {
             for (T bucket : ringBuffer) {
                 recordDouble(bucket, value);
@@ -269,6 +297,13 @@ abstract class AbstractTimeWindowHistogram<T, U> implements Histogram {
         }
     }
 
+    @Override
+    public void close() {
+        if (rotationTick != null) {
+            rotationTick.cancel();
+        }
+    }
+
     protected U accumulatedHistogram() {
         return accumulatedHistogram;
     }
@@ -41,6 +41,8 @@ public class DistributionStatisticConfig implements Mergeable<DistributionStatis
             .maximumExpectedValue(Double.POSITIVE_INFINITY)
             .expiry(Duration.ofMinutes(2))
             .bufferLength(3)
+            .percentileEngine(PercentileEngine.HDR_HISTOGRAM)
+            .backgroundRotation(false)
             .build();
 
     public static final DistributionStatisticConfig NONE = builder().build();
@@ -69,6 +71,12 @@ public class DistributionStatisticConfig implements Mergeable<DistributionStatis
     @Nullable
     private Integer bufferLength;
 
+    @Nullable
+    private PercentileEngine percentileEngine;
+
+    @Nullable
+    private Boolean backgroundRotation;
+
     public static Builder builder() {
         return new Builder();
     }
@@ -91,6 +99,8 @@ public class DistributionStatisticConfig implements Mergeable<DistributionStatis
                 .maximumExpectedValue(this.maximumExpectedValue == null ? parent.maximumExpectedValue : this.maximumExpectedValue)
                 .expiry(this.expiry == null ? parent.expiry : this.expiry)
                 .bufferLength(this.bufferLength == null ? parent.bufferLength : this.bufferLength)
+                .percentileEngine(this.percentileEngine == null ? parent.percentileEngine : this.percentileEngine)
+                .backgroundRotation(this.backgroundRotation == null ? parent.backgroundRotation : this.backgroundRotation)
                 .build();
     }
 
@@ -231,6 +241,30 @@ public class DistributionStatisticConfig implements Mergeable<DistributionStatis
         return bufferLength;
     }
 
+    /**
+     * The data structure used to compute client-side percentiles, when {@link #percentiles} are published.
+     *
+     * @return The percentile engine, or {@code null} to use {@link PercentileEngine#HDR_HISTOGRAM}.
+     * @since 1.7.0
+     */
+    @Nullable
+    public PercentileEngine getPercentileEngine() {
+        return percentileEngine;
+    }
+
+    /**
+     * Ring buffers of decaying statistics are normally rotated by whichever thread first records or polls a
+     * sample after the rotation interval elapses, and that thread pays for resetting the expired entry. When
+     * enabled, rotation is instead driven by a shared background thread and recording never rotates.
+     *
+     * @return Whether ring buffers are rotated in the background.
+     * @since 1.7.0
+     */
+    @Nullable
+    public Boolean isBackgroundRotation() {
+        return backgroundRotation;
+    }
+
     /**
      * Publish at a minimum a histogram containing your defined SLA boundaries. When used in conjunction with
      * {@link #percentileHistogram}, the boundaries defined here are included alongside other buckets used to
@@ -428,6 +462,35 @@ public class DistributionStatisticConfig implements Mergeable<DistributionStatis
             return this;
         }
 
+        /**
+         * The data structure used to compute client-side percentiles. {@link PercentileEngine#LOG_LINEAR} trades
+         * the dynamic range of HdrHistogram for a fixed bucket layout that records with a single counter increment
+         * and needs no accumulation when a snapshot is taken. Its layout starts at the
+         * {@link #minimumExpectedValue(Double) minimum expected value}, and percentiles below it are reported as 0.
+         *
+         * @param percentileEngine The percentile engine to use when percentiles are published.
+         * @return This builder.
+         * @since 1.7.0
+         */
+        public Builder percentileEngine(@Nullable PercentileEngine percentileEngine) {
+            config.percentileEngine = percentileEngine;
+            return this;
+        }
+
+        /**
+         * Ring buffers of decaying statistics are normally rotated by whichever thread first records or polls a
+         * sample after the rotation interval elapses, and that thread pays for resetting the expired entry. When
+         * enabled, rotation is instead driven by a shared background thread and recording never rotates.
+         *
+         * @param enabled Whether ring buffers are rotated in the background.
+         * @return This builder.
+         * @since 1.7.0
+         */
+        public Builder backgroundRotation(@Nullable Boolean enabled) {
+            config.backgroundRotation = enabled;
+            return this;
+        }
+
         /**
          * @return A new immutable distribution configuration.
          */
@@ -0,0 +1,42 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.distribution;
+
+import io.micrometer.core.annotation.Incubating;
+
+/**
+ * The data structure used to compute client-side percentiles when a meter is configured to publish them.
+ *
+ * @since 1.7.0
+ */
+@Incubating(since = "1.7.0")
+public enum PercentileEngine {
+    /**
+     * A ring of HdrHistogram recorders, accumulated into a high dynamic range histogram whenever a snapshot
+     * is taken.
+     */
+    HDR_HISTOGRAM,
+
+    /**
+     * Log-linear buckets laid out directly over the bits of each sample, with a bounded relative error that
+     * is determined by the percentile precision. Recording a sample is a single counter increment per ring
+     * buffer entry. Samples below the minimum expected value are reported as 0, so set it to the smallest
+     * value that needs resolving, especially for summaries of fractional values.
+     *
+     * @see TimeWindowLogLinearHistogram
+     */
+    LOG_LINEAR
+}
@@ -15,6 +15,7 @@
  */
 package io.micrometer.core.instrument.distribution;
 
+import java.util.Arrays;
 import java.util.NavigableSet;
 import java.util.TreeSet;
 
@@ -29,6 +30,19 @@ public class PercentileHistogramBuckets {
     // Bucket values to use, see static block for initialization.
     private static final NavigableSet<Double> PERCENTILE_BUCKETS;
 
+    // The same bucket values in ascending order, ending with positive infinity.
+    private static final double[] PERCENTILE_BUCKETS_ARRAY;
+
+    // Buckets 1 through 14 are consecutive integers (1, 2, 3 and then the powers of 4^1).
+    private static final int CONSECUTIVE_BUCKETS = 14;
+
+    // Every power of 4 from 4^2 on contributes 4^n and then 8 more buckets spaced by its delta.
+    private static final int BUCKETS_PER_POWER = 9;
+
+    // Samples at or above this value are not indexed arithmetically, because neither they nor the
+    // buckets around them are exactly representable as doubles.
+    static final long MAX_INDEXED_VALUE = 1L << 53;
+
     // The set of buckets is generated by using powers of 4 and incrementing by one-third of the
     // previous power of 4 in between as long as the value is less than the next power of 4 minus
     // the delta.
@@ -64,6 +78,8 @@ public class PercentileHistogramBuckets {
             exp += DIGITS;
         }
         PERCENTILE_BUCKETS.add(Double.POSITIVE_INFINITY);
+
+        PERCENTILE_BUCKETS_ARRAY = PERCENTILE_BUCKETS.stream().mapToDouble(Double::doubleValue).toArray();
     }
 
     /**
@@ -79,4 +95,52 @@ public class PercentileHistogramBuckets {
         return PERCENTILE_BUCKETS.subSet(distributionStatisticConfig.getMinimumExpectedValueAsDouble(), true,
                 distributionStatisticConfig.getMaximumExpectedValueAsDouble(), true);
     }
+
+    /**
+     * The index of the least percentile histogram bucket that is greater than or equal to a sample, derived in
+     * constant time from the layout of the buckets rather than by searching them.
+     *
+     * @param value A sample less than {@link #MAX_INDEXED_VALUE}.
+     * @return An index into the percentile histogram buckets in ascending order, where the last index is positive
+     * infinity.
+     */
+    static int indexOf(long value) {
+        if (value <= CONSECUTIVE_BUCKETS) {
+            return value <= 1 ? 0 : (int) value - 1;
+        }
+
+        int power = (63 - Long.numberOfLeadingZeros(value)) >>> 1;
+        if (power == 1) {
+            // 15 falls between 14 and 4^2
+            return CONSECUTIVE_BUCKETS;
+        }
+
+        int groupStart = CONSECUTIVE_BUCKETS + (power - 2) * BUCKETS_PER_POWER;
+        if (groupStart >= PERCENTILE_BUCKETS_ARRAY.length - 1) {
+            return PERCENTILE_BUCKETS_ARRAY.length - 1;
+        }
+
+        long current = 1L << (power * DIGITS);
+        long delta = current / 3;
+        long step = (value - current + delta - 1) / delta;
+        if (step < BUCKETS_PER_POWER) {
+            return groupStart + (int) step;
+        }
+
+        // above the last bucket of this power, so the least bucket is the next power of 4 (or infinity)
+        return Math.min(groupStart + BUCKETS_PER_POWER, PERCENTILE_BUCKETS_ARRAY.length - 1);
+    }
+
+    /**
+     * @param value Any value.
+     * @return The index of the least percentile histogram bucket that is greater than or equal to the value.
+     */
+    static int indexOf(double value) {
+        int index = Arrays.binarySearch(PERCENTILE_BUCKETS_ARRAY, value);
+        return index >= 0 ? index : -(index + 1);
+    }
+
+    static double bucketAt(int index) {
+        return PERCENTILE_BUCKETS_ARRAY[index];
+    }
 }
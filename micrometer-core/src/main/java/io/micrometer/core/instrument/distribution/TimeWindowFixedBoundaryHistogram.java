@@ -16,6 +16,7 @@
 package io.micrometer.core.instrument.distribution;
 
 import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.lang.Nullable;
 
 import java.io.PrintStream;
 import java.util.Arrays;
@@ -23,6 +24,7 @@ import java.util.Locale;
 import java.util.NavigableSet;
 import java.util.Objects;
 import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * A histogram implementation that does not support precomputed percentiles but supports
@@ -34,8 +36,37 @@ import java.util.concurrent.atomic.AtomicLongArray;
  */
 public class TimeWindowFixedBoundaryHistogram
         extends AbstractTimeWindowHistogram<TimeWindowFixedBoundaryHistogram.FixedBoundaryHistogram, Void> {
+    /**
+     * Buckets with more boundaries than this lying between two adjacent percentile histogram buckets are
+     * located by binary search, since the scan that follows the constant-time lookup would no longer be short.
+     */
+    private static final int MAX_BOUNDARIES_BETWEEN_PERCENTILE_BUCKETS = 4;
+
     private final double[] buckets;
 
+    /**
+     * Only set when percentile histogram buckets are in use. Maps the index of the least percentile histogram
+     * bucket greater than or equal to a sample, minus {@link #firstPercentileBucketIndex}, to the first of our
+     * buckets that lies above the percentile histogram bucket just below it. The bucket for the sample is
+     * then at most a few boundaries further (SLOs and expected value bounds that are not percentile buckets).
+     */
+    @Nullable
+    private final int[] bucketIndexByPercentileBucketIndex;
+
+    private final int firstPercentileBucketIndex;
+
+    /**
+     * Indices into {@link #buckets} of the buckets published in count snapshots, in ascending order.
+     */
+    private final int[] snapshotBucketIndices;
+
+    /**
+     * The counts returned by the previous snapshot. {@link CountAtBucket} is immutable, so a bucket whose
+     * cumulative count has not changed since then reuses the same instance. Guarded by this histogram's monitor.
+     */
+    @Nullable
+    private CountAtBucket[] lastCountSnapshot;
+
     public TimeWindowFixedBoundaryHistogram(Clock clock, DistributionStatisticConfig config, boolean supportsAggregablePercentiles) {
         super(clock, config, FixedBoundaryHistogram.class, supportsAggregablePercentiles);
 
@@ -47,9 +78,48 @@ public class TimeWindowFixedBoundaryHistogram
         }
 
         this.buckets = histogramBuckets.stream().filter(Objects::nonNull).mapToDouble(Double::doubleValue).toArray();
+
+        if (percentileHistogram != null && percentileHistogram && buckets.length > 0) {
+            this.firstPercentileBucketIndex = PercentileHistogramBuckets.indexOf(buckets[0]);
+            this.bucketIndexByPercentileBucketIndex = indexPercentileBuckets(buckets, firstPercentileBucketIndex);
+        } else {
+            this.firstPercentileBucketIndex = 0;
+            this.bucketIndexByPercentileBucketIndex = null;
+        }
+
+        this.snapshotBucketIndices = distributionStatisticConfig.getHistogramBuckets(supportsAggregablePercentiles).stream()
+                .mapToInt(bucket -> Arrays.binarySearch(buckets, bucket))
+                .toArray();
+
         initRingBuffer();
     }
 
+    @Nullable
+    private static int[] indexPercentileBuckets(double[] buckets, int firstPercentileBucketIndex) {
+        int lastPercentileBucketIndex = PercentileHistogramBuckets.indexOf(buckets[buckets.length - 1]);
+        int[] index = new int[lastPercentileBucketIndex - firstPercentileBucketIndex + 1];
+
+        int bucket = 0;
+        for (int i = 0; i < index.length; i++) {
+            int percentileBucketIndex = firstPercentileBucketIndex + i;
+            double percentileBucketBelow = percentileBucketIndex == 0 ? Double.NEGATIVE_INFINITY :
+                    PercentileHistogramBuckets.bucketAt(percentileBucketIndex - 1);
+            while (bucket < buckets.length && buckets[bucket] <= percentileBucketBelow) {
+                bucket++;
+            }
+            index[i] = bucket;
+
+            double percentileBucket = PercentileHistogramBuckets.bucketAt(percentileBucketIndex);
+            int boundaries = 0;
+            for (int j = bucket; j < buckets.length && buckets[j] <= percentileBucket; j++) {
+                if (++boundaries > MAX_BOUNDARIES_BETWEEN_PERCENTILE_BUCKETS) {
+                    return null;
+                }
+            }
+        }
+        return index;
+    }
+
     @Override
     FixedBoundaryHistogram newBucket() {
         return new FixedBoundaryHistogram();
@@ -94,6 +164,38 @@ public class TimeWindowFixedBoundaryHistogram
         return currentHistogram().countAtValue(value);
     }
 
+    /**
+     * Builds every cumulative count in a single pass over the buckets, rather than summing all lower buckets
+     * again for each published bucket.
+     */
+    @Override
+    @Nullable
+    CountAtBucket[] takeCountSnapshot() {
+        if (!distributionStatisticConfig.isPublishingHistogram() || snapshotBucketIndices.length == 0) {
+            return null;
+        }
+
+        BucketCounts counts = currentHistogram().counts;
+        CountAtBucket[] last = lastCountSnapshot;
+        CountAtBucket[] snapshot = new CountAtBucket[snapshotBucketIndices.length];
+
+        long cumulativeCount = 0;
+        int bucket = 0;
+        for (int i = 0; i < snapshotBucketIndices.length; i++) {
+            int index = snapshotBucketIndices[i];
+            while (bucket <= index) {
+                cumulativeCount += counts.get(bucket++);
+            }
+
+            CountAtBucket lastCount = last == null ? null : last[i];
+            snapshot[i] = lastCount != null && lastCount.count() == cumulativeCount ?
+                    lastCount : new CountAtBucket(buckets[index], cumulativeCount);
+        }
+
+        lastCountSnapshot = snapshot;
+        return snapshot;
+    }
+
     @Override
     void outputSummary(PrintStream printStream, double bucketScaling) {
         printStream.format("%14s %10s\n\n", "Bucket", "TotalCount");
@@ -103,7 +205,7 @@ public class TimeWindowFixedBoundaryHistogram
         for (int i = 0; i < buckets.length; i++) {
             printStream.format(Locale.US, bucketFormatString,
                     buckets[i] / bucketScaling,
-                    currentHistogram().values.get(i));
+                    currentHistogram().counts.get(i));
         }
 
         printStream.write('\n');
@@ -114,10 +216,10 @@ public class TimeWindowFixedBoundaryHistogram
          * For recording efficiency, this is a normal histogram. We turn these values into
          * cumulative counts only on calls to {@link #countAtValue(double)}.
          */
-        final AtomicLongArray values;
+        final BucketCounts counts;
 
         FixedBoundaryHistogram() {
-            this.values = new AtomicLongArray(buckets.length);
+            this.counts = new BucketCounts(buckets.length);
         }
 
         long countAtValue(double value) {
@@ -126,21 +228,44 @@ public class TimeWindowFixedBoundaryHistogram
                 return 0;
             long count = 0;
             for (int i = 0; i <= index; i++)
-                count += values.get(i);
+                count += counts.get(i);
             return count;
         }
 
         void reset() {
-            for (int i = 0; i < values.length(); i++) {
-               values.set(i, 0);
-
-            }
+            counts.reset();
         }
 
         void record(long value) {
-            int index = leastLessThanOrEqualTo(value);
+            int index = bucketIndex(value);
             if (index > -1)
-                values.incrementAndGet(index);
+                counts.increment(index);
+        }
+
+        /**
+         * @return The index of the least bucket that is greater than or equal to the sample, or -1 if there is none.
+         */
+        int bucketIndex(long value) {
+            int[] byPercentileBucketIndex = bucketIndexByPercentileBucketIndex;
+            if (byPercentileBucketIndex == null || value >= PercentileHistogramBuckets.MAX_INDEXED_VALUE) {
+                return leastLessThanOrEqualTo(value);
+            }
+
+            int i = PercentileHistogramBuckets.indexOf(value) - firstPercentileBucketIndex;
+            if (i < 0) {
+                // below the first bucket
+                return 0;
+            }
+            if (i >= byPercentileBucketIndex.length) {
+                // above the last bucket
+                return -1;
+            }
+
+            int index = byPercentileBucketIndex[i];
+            while (index < buckets.length && buckets[index] < value) {
+                index++;
+            }
+            return index < buckets.length ? index : -1;
         }
 
         /**
@@ -163,4 +288,59 @@ public class TimeWindowFixedBoundaryHistogram
             return low < buckets.length ? low : -1;
         }
     }
+
+    /**
+     * Bucket counters allocated in small chunks the first time a bucket in the chunk is incremented. Most
+     * meters only ever see samples in a narrow range of buckets, so a percentile histogram with a few hundred
+     * buckets in each slot of the ring buffer typically allocates counters for one or two chunks.
+     */
+    static final class BucketCounts {
+        private static final int CHUNK_SHIFT = 4;
+        private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+        private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+        private final int length;
+        private final AtomicReferenceArray<AtomicLongArray> chunks;
+
+        BucketCounts(int length) {
+            this.length = length;
+            this.chunks = new AtomicReferenceArray<>((length + CHUNK_MASK) >>> CHUNK_SHIFT);
+        }
+
+        long get(int index) {
+            AtomicLongArray chunk = chunks.get(index >>> CHUNK_SHIFT);
+            return chunk == null ? 0 : chunk.get(index & CHUNK_MASK);
+        }
+
+        void increment(int index) {
+            int chunkIndex = index >>> CHUNK_SHIFT;
+            AtomicLongArray chunk = chunks.get(chunkIndex);
+            if (chunk == null) {
+                chunk = new AtomicLongArray(Math.min(CHUNK_SIZE, length - (chunkIndex << CHUNK_SHIFT)));
+                if (!chunks.compareAndSet(chunkIndex, null, chunk)) {
+                    chunk = chunks.get(chunkIndex);
+                }
+            }
+            chunk.incrementAndGet(index & CHUNK_MASK);
+        }
+
+        /**
+         * Zero every allocated counter. Chunks stay allocated, since a bucket touched once is likely to be
+         * touched again after rotation.
+         */
+        void reset() {
+            for (int i = 0; i < chunks.length(); i++) {
+                AtomicLongArray chunk = chunks.get(i);
+                if (chunk != null) {
+                    for (int j = 0; j < chunk.length(); j++) {
+                        chunk.set(j, 0);
+                    }
+                }
+            }
+        }
+
+        int length() {
+            return length;
+        }
+    }
 }
@@ -0,0 +1,342 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.distribution;
+
+import io.micrometer.core.annotation.Incubating;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.config.InvalidConfigurationException;
+import io.micrometer.core.instrument.distribution.TimeWindowFixedBoundaryHistogram.BucketCounts;
+import io.micrometer.core.lang.Nullable;
+
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.NavigableSet;
+
+/**
+ * A histogram implementation that supports the computation of percentiles by Micrometer for publishing
+ * to a monitoring system, as an alternative to {@link TimeWindowPercentileHistogram} with a smaller and
+ * fixed memory footprint.
+ * <p>
+ * Samples are counted in log-linear buckets: each power of two between the minimum and maximum expected
+ * values is split into {@code 2^m} equal-width sub-buckets, where {@code m} is derived from the percentile
+ * precision. The bucket for a sample is read directly from the exponent and leading mantissa bits of its
+ * IEEE 754 representation, so recording is a single counter increment with no search and no resizing.
+ * A percentile is reported as the midpoint of the bucket it falls in, which bounds its relative error
+ * by {@code 2^-(m+1)}.
+ * <p>
+ * Each bucket counts the values above its lower bound up to and including its upper bound, so a histogram boundary
+ * that falls on a bucket bound is counted exactly. A boundary that falls inside a bucket is counted up to the
+ * bucket below it, so that no sample above a boundary is ever counted at it.
+ * <p>
+ * Samples outside the expected range are counted in an underflow or overflow bucket. Percentiles that fall
+ * into the underflow bucket are reported as 0, and those that fall into the overflow bucket as the value
+ * above which it counts. Unlike {@link TimeWindowPercentileHistogram}, which resolves values of any magnitude, this means
+ * that the minimum expected value has to be set to the smallest value that needs resolving. This matters in
+ * particular for distribution summaries of fractional values, since the default minimum is 1. The minimum expected
+ * value must be finite, and at most {@value #MAX_EXPONENT_RANGE} powers of two above it are covered.
+ * <p>
+ * Every ring buffer entry shares the same bucket layout, so there is nothing to accumulate on rotation.
+ * Snapshots read the counts of the oldest entry in place.
+ *
+ * @since 1.7.0
+ */
+@Incubating(since = "1.7.0")
+public class TimeWindowLogLinearHistogram extends AbstractTimeWindowHistogram<BucketCounts, Void> {
+    /**
+     * Three digits of precision. Beyond this the number of counters per power of two outweighs the benefit
+     * over {@link TimeWindowPercentileHistogram}.
+     */
+    private static final int MAX_SUB_BUCKET_BITS = 10;
+
+    /**
+     * Caps the number of powers of two covered when the maximum expected value is unbounded (or absurdly
+     * far from the minimum). Covers the whole range of nanosecond timings from a minimum of 1.
+     */
+    private static final int MAX_EXPONENT_RANGE = 64;
+
+    private final int subBucketBits;
+    private final int subBucketMask;
+    private final int minExponent;
+    private final double lowestTrackableValue;
+    private final double overflowThreshold;
+
+    /**
+     * Index 0 counts samples below {@link #lowestTrackableValue} (including zero), and the last index counts
+     * samples above {@link #overflowThreshold}. The first bucket after the underflow bucket also counts
+     * {@link #lowestTrackableValue} itself.
+     */
+    private final int bucketCount;
+
+    public TimeWindowLogLinearHistogram(Clock clock, DistributionStatisticConfig distributionStatisticConfig,
+                                        boolean supportsAggregablePercentiles) {
+        super(clock, distributionStatisticConfig, BucketCounts.class, supportsAggregablePercentiles);
+
+        Integer precision = distributionStatisticConfig.getPercentilePrecision();
+        this.subBucketBits = subBucketBits(precision == null ? 1 : precision);
+        this.subBucketMask = (1 << subBucketBits) - 1;
+
+        double min = distributionStatisticConfig.getMinimumExpectedValueAsDouble();
+        double max = distributionStatisticConfig.getMaximumExpectedValueAsDouble();
+        if (Double.isInfinite(min)) {
+            // the range is otherwise validated to be positive and ascending
+            throw new InvalidConfigurationException("Invalid distribution configuration: minimumExpectedValue (" + min +
+                    ") must be finite for a log-linear histogram.");
+        }
+        this.minExponent = Math.max(Math.getExponent(min), Double.MIN_EXPONENT);
+        int maxExponent = Math.min(Math.min(Math.getExponent(max), minExponent + MAX_EXPONENT_RANGE - 1),
+                Double.MAX_EXPONENT);
+
+        this.lowestTrackableValue = Math.scalb(1.0, minExponent);
+        this.overflowThreshold = Math.scalb(1.0, maxExponent + 1);
+        this.bucketCount = ((maxExponent - minExponent + 1) << subBucketBits) + 2;
+
+        initRingBuffer();
+    }
+
+    /**
+     * @param digitsOfPrecision Significant decimal digits requested.
+     * @return The number of mantissa bits needed for bucket widths of at most {@code 10^-digits} relative to
+     * their lower bound.
+     */
+    static int subBucketBits(int digitsOfPrecision) {
+        int bits = (int) Math.ceil(digitsOfPrecision * Math.log(10) / Math.log(2));
+        return Math.max(1, Math.min(bits, MAX_SUB_BUCKET_BITS));
+    }
+
+    int bucketIndex(double value) {
+        if (!(value > lowestTrackableValue)) {
+            // also catches NaN
+            return value == lowestTrackableValue ? 1 : 0;
+        }
+        if (value > overflowThreshold) {
+            return bucketCount - 1;
+        }
+        // the bits of the next value down, so that a value on a bucket bound falls in the bucket below it
+        long bits = Double.doubleToRawLongBits(value) - 1;
+        int exponent = (int) (bits >>> 52) - Double.MAX_EXPONENT;
+        int subBucket = (int) (bits >>> (52 - subBucketBits)) & subBucketMask;
+        return 1 + ((exponent - minExponent) << subBucketBits) + subBucket;
+    }
+
+    /**
+     * @param index A bucket index.
+     * @return The least value that no sample counted in this bucket exceeds, which is infinite for the overflow
+     * bucket.
+     */
+    double upperBound(int index) {
+        if (index == 0) {
+            return lowestTrackableValue;
+        }
+        if (index >= bucketCount - 1) {
+            return Double.POSITIVE_INFINITY;
+        }
+        // the lower bound of the next bucket
+        int exponent = minExponent + (index >>> subBucketBits);
+        int subBucket = index & subBucketMask;
+        return Math.scalb(1.0 + (double) subBucket / (1 << subBucketBits), exponent);
+    }
+
+    /**
+     * @return The index of the last bucket in which no sample exceeds the value, or -1 if there is none.
+     */
+    private int lastBucketAtOrBelow(double value) {
+        int index = bucketIndex(value);
+        return upperBound(index) <= value ? index : index - 1;
+    }
+
+    private double representativeValue(int index) {
+        if (index == 0) {
+            return 0;
+        }
+        if (index == bucketCount - 1) {
+            return overflowThreshold;
+        }
+        // scaled from the mantissa rather than averaging the bounds, which overflow above the top power of two
+        int offset = index - 1;
+        int exponent = minExponent + (offset >>> subBucketBits);
+        int subBucket = offset & subBucketMask;
+        return Math.scalb(1.0 + (subBucket + 0.5) / (1 << subBucketBits), exponent);
+    }
+
+    int bucketCount() {
+        return bucketCount;
+    }
+
+    @Override
+    BucketCounts newBucket() {
+        return new BucketCounts(bucketCount);
+    }
+
+    @Override
+    void recordLong(BucketCounts bucket, long value) {
+        bucket.increment(bucketIndex((double) value));
+    }
+
+    @Override
+    void recordDouble(BucketCounts bucket, double value) {
+        bucket.increment(bucketIndex(value));
+    }
+
+    @Override
+    void resetBucket(BucketCounts bucket) {
+        bucket.reset();
+    }
+
+    @Override
+    Void newAccumulatedHistogram(BucketCounts[] ringBuffer) {
+        return null;
+    }
+
+    @Override
+    void accumulate() {
+        // the oldest bucket already holds every sample in the window
+    }
+
+    @Override
+    void resetAccumulatedHistogram() {
+    }
+
+    @Override
+    double valueAtPercentile(double percentile) {
+        BucketCounts counts = currentHistogram();
+        long total = total(counts);
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = rank(percentile / 100, total);
+        long cumulative = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            cumulative += counts.get(i);
+            if (cumulative >= rank) {
+                return representativeValue(i);
+            }
+        }
+        return representativeValue(bucketCount - 1);
+    }
+
+    /**
+     * Resolves every monitored percentile in a single pass over the buckets, in ascending order of rank.
+     */
+    @Override
+    @Nullable
+    ValueAtPercentile[] takeValueSnapshot() {
+        double[] percentiles = distributionStatisticConfig.getPercentiles();
+        if (percentiles == null || percentiles.length == 0) {
+            return null;
+        }
+
+        BucketCounts counts = currentHistogram();
+        long total = total(counts);
+
+        long[] ranks = new long[percentiles.length];
+        Integer[] byRank = new Integer[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            ranks[i] = rank(percentiles[i], total);
+            byRank[i] = i;
+        }
+        Arrays.sort(byRank, Comparator.comparingLong(i -> ranks[i]));
+
+        ValueAtPercentile[] values = new ValueAtPercentile[percentiles.length];
+        int bucket = 0;
+        long cumulative = counts.get(0);
+        for (int i : byRank) {
+            if (total == 0) {
+                values[i] = new ValueAtPercentile(percentiles[i], 0);
+                continue;
+            }
+            while (cumulative < ranks[i] && bucket < bucketCount - 1) {
+                cumulative += counts.get(++bucket);
+            }
+            values[i] = new ValueAtPercentile(percentiles[i], representativeValue(bucket));
+        }
+        return values;
+    }
+
+    private long total(BucketCounts counts) {
+        long total = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            total += counts.get(i);
+        }
+        return total;
+    }
+
+    private static long rank(double percentile, long total) {
+        return Math.max(1, (long) Math.ceil(percentile * total));
+    }
+
+    @Override
+    double countAtValue(double value) {
+        BucketCounts counts = currentHistogram();
+        int last = lastBucketAtOrBelow(value);
+        long count = 0;
+        for (int i = 0; i <= last; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Counts at every monitored value in a single pass over the buckets, since the values are in ascending order.
+     */
+    @Override
+    @Nullable
+    CountAtBucket[] takeCountSnapshot() {
+        if (!distributionStatisticConfig.isPublishingHistogram()) {
+            return null;
+        }
+
+        NavigableSet<Double> monitoredValues = distributionStatisticConfig.getHistogramBuckets(supportsAggregablePercentiles);
+        if (monitoredValues.isEmpty()) {
+            return null;
+        }
+
+        BucketCounts counts = currentHistogram();
+        CountAtBucket[] countsAtValues = new CountAtBucket[monitoredValues.size()];
+        int next = 0;
+        long cumulative = 0;
+        int i = 0;
+        for (double value : monitoredValues) {
+            int last = lastBucketAtOrBelow(value);
+            while (next <= last) {
+                cumulative += counts.get(next++);
+            }
+            countsAtValues[i++] = new CountAtBucket(value, cumulative);
+        }
+        return countsAtValues;
+    }
+
+    @Override
+    void outputSummary(PrintStream printStream, double bucketScaling) {
+        printStream.format("%14s %10s\n\n", "Value", "TotalCount");
+
+        String bucketFormatString = "%14.1f %10d\n";
+
+        BucketCounts counts = currentHistogram();
+        long cumulative = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            long count = counts.get(i);
+            if (count > 0) {
+                cumulative += count;
+                printStream.format(Locale.US, bucketFormatString, representativeValue(i) / bucketScaling, cumulative);
+            }
+        }
+
+        printStream.write('\n');
+    }
+}
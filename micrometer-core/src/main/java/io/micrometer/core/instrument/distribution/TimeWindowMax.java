@@ -17,15 +17,24 @@ package io.micrometer.core.instrument.distribution;
 
 import io.micrometer.core.instrument.Clock;
 import io.micrometer.core.instrument.util.TimeUtils;
+import io.micrometer.core.lang.Nullable;
 
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.function.DoubleSupplier;
 import java.util.function.LongSupplier;
 
 /**
  * An implementation of a decaying maximum for a distribution based on a configurable ring buffer.
+ * <p>
+ * Recording starts out against a single ring buffer. When recording threads contend on it, the max is
+ * striped across additional ring buffers, each padded against false sharing, that threads are spread over
+ * by thread id. Stripes are merged when the max is polled and reset together on rotation.
+ * <p>
+ * Rotation is checked on every record and poll, unless {@link DistributionStatisticConfig#isBackgroundRotation()}
+ * moves it to a shared background ticker, in which case recording never rotates.
  *
  * @author Jon Schneider
  */
@@ -33,29 +42,69 @@ public class TimeWindowMax {
     private static final AtomicIntegerFieldUpdater<TimeWindowMax> rotatingUpdater =
             AtomicIntegerFieldUpdater.newUpdater(TimeWindowMax.class, "rotating");
 
+    private static final AtomicIntegerFieldUpdater<TimeWindowMax> expandingUpdater =
+            AtomicIntegerFieldUpdater.newUpdater(TimeWindowMax.class, "expanding");
+
+    /**
+     * Longs of padding on either side of each added stripe, so that two stripes never share a cache line
+     * (128 bytes also covers adjacent line prefetching).
+     */
+    private static final int STRIPE_PADDING = 16;
+
+    private static final int MAX_STRIPES = maxStripes();
+
     private final Clock clock;
     private final long durationBetweenRotatesMillis;
-    private AtomicLong[] ringBuffer;
+    private final int bufferLength;
+    private volatile Stripe[] stripes;
     private int currentBucket;
     private volatile long lastRotateTimestampMillis;
 
     @SuppressWarnings({"unused", "FieldCanBeLocal"})
     private volatile int rotating; // 0 - not rotating, 1 - rotating
 
+    @SuppressWarnings({"unused", "FieldCanBeLocal"})
+    private volatile int expanding; // 0 - not expanding stripes, 1 - expanding stripes
+
+    private final boolean rotateOnRecord;
+
+    @Nullable
+    private final TimeWindowRotationTicker.Tick rotationTick;
+
     @SuppressWarnings("ConstantConditions")
     public TimeWindowMax(Clock clock, DistributionStatisticConfig config) {
-        this(clock, config.getExpiry().toMillis(), config.getBufferLength());
+        this(clock, config.getExpiry().toMillis(), config.getBufferLength(),
+                config.isBackgroundRotation() != null && config.isBackgroundRotation());
     }
 
     public TimeWindowMax(Clock clock, long rotateFrequencyMillis, int bufferLength) {
+        this(clock, rotateFrequencyMillis, bufferLength, false);
+    }
+
+    private TimeWindowMax(Clock clock, long rotateFrequencyMillis, int bufferLength, boolean backgroundRotation) {
         this.clock = clock;
         this.durationBetweenRotatesMillis = rotateFrequencyMillis;
         this.lastRotateTimestampMillis = clock.wallTime();
         this.currentBucket = 0;
+        this.bufferLength = bufferLength;
 
-        this.ringBuffer = new AtomicLong[bufferLength];
-        for (int i = 0; i < bufferLength; i++) {
-            this.ringBuffer[i] = new AtomicLong();
+        // the first stripe is unpadded, since most maxes are never contended
+        this.stripes = new Stripe[]{new Stripe(bufferLength, 0)};
+
+        this.rotateOnRecord = !backgroundRotation;
+        this.rotationTick = backgroundRotation ?
+                TimeWindowRotationTicker.schedule(this, rotateFrequencyMillis, TimeWindowMax::rotate) :
+                null;
+    }
+
+    /**
+     * Stops rotating this max in the background, if it was configured to. Polls still rotate it.
+     *
+     * @since 1.7.0
+     */
+    public void close() {
+        if (rotationTick != null) {
+            rotationTick.cancel();
         }
     }
 
@@ -70,10 +119,21 @@ public class TimeWindowMax {
     }
 
     private void record(LongSupplier sampleSupplier) {
-        rotate();
+        if (rotateOnRecord) {
+            rotate();
+        }
         long sample = sampleSupplier.getAsLong();
-        for (AtomicLong max : ringBuffer) {
-            updateMax(max, sample);
+
+        Stripe[] stripes = this.stripes;
+        Stripe stripe = stripes[stripeIndex(stripes.length)];
+
+        boolean contended = false;
+        for (int i = 0; i < bufferLength; i++) {
+            contended |= stripe.updateMax(i, sample);
+        }
+
+        if (contended) {
+            expandStripes(stripes);
         }
     }
 
@@ -82,7 +142,7 @@ public class TimeWindowMax {
      * @return A max scaled to the base unit of time. For use by timer implementations.
      */
     public double poll(TimeUnit timeUnit) {
-        return poll(() -> TimeUtils.nanosToUnit(ringBuffer[currentBucket].get(), timeUnit));
+        return poll(() -> TimeUtils.nanosToUnit(currentMax(), timeUnit));
     }
 
     private double poll(DoubleSupplier maxSupplier) {
@@ -96,7 +156,7 @@ public class TimeWindowMax {
      * @return An unscaled max. For use by distribution summary implementations.
      */
     public double poll() {
-        return poll(() -> Double.longBitsToDouble(ringBuffer[currentBucket].get()));
+        return poll(() -> Double.longBitsToDouble(currentMax()));
     }
 
     /**
@@ -108,11 +168,45 @@ public class TimeWindowMax {
         record(() -> Double.doubleToLongBits(sample));
     }
 
-    private void updateMax(AtomicLong max, long sample) {
-        long curMax;
-        do {
-            curMax = max.get();
-        } while (curMax < sample && !max.compareAndSet(curMax, sample));
+    private long currentMax() {
+        long max = 0;
+        for (Stripe stripe : stripes) {
+            max = Math.max(max, stripe.get(currentBucket));
+        }
+        return max;
+    }
+
+    private void expandStripes(Stripe[] contendedStripes) {
+        if (contendedStripes.length >= MAX_STRIPES || !expandingUpdater.compareAndSet(this, 0, 1)) {
+            return;
+        }
+
+        try {
+            if (stripes == contendedStripes) {
+                Stripe[] expanded = Arrays.copyOf(contendedStripes, contendedStripes.length << 1);
+                for (int i = contendedStripes.length; i < expanded.length; i++) {
+                    expanded[i] = new Stripe(bufferLength, STRIPE_PADDING);
+                }
+                stripes = expanded;
+            }
+        } finally {
+            expanding = 0;
+        }
+    }
+
+    private static int stripeIndex(int stripeCount) {
+        long threadId = Thread.currentThread().getId();
+        int h = (int) (threadId ^ (threadId >>> 32)) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (stripeCount - 1);
+    }
+
+    private static int maxStripes() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int stripes = 1;
+        while (stripes < processors && stripes < 64) {
+            stripes <<= 1;
+        }
+        return stripes;
     }
 
     private void rotate() {
@@ -131,16 +225,55 @@ public class TimeWindowMax {
             int iterations = 0;
             synchronized (this) {
                 do {
-                    ringBuffer[currentBucket].set(0);
-                    if (++currentBucket >= ringBuffer.length) {
+                    for (Stripe stripe : stripes) {
+                        stripe.reset(currentBucket);
+                    }
+                    if (++currentBucket >= bufferLength) {
                         currentBucket = 0;
                     }
                     timeSinceLastRotateMillis -= durationBetweenRotatesMillis;
                     lastRotateTimestampMillis += durationBetweenRotatesMillis;
-                } while (timeSinceLastRotateMillis >= durationBetweenRotatesMillis && ++iterations < ringBuffer.length);
+                } while (timeSinceLastRotateMillis >= durationBetweenRotatesMillis && ++iterations < bufferLength);
             }
         } finally {
             rotating = 0;
         }
     }
+
+    /**
+     * One ring buffer of maxes, updated by the subset of recording threads mapped to it.
+     */
+    private static final class Stripe {
+        private final AtomicLongArray ringBuffer;
+        private final int offset;
+
+        Stripe(int bufferLength, int padding) {
+            this.ringBuffer = new AtomicLongArray(bufferLength + 2 * padding);
+            this.offset = padding;
+        }
+
+        long get(int bucket) {
+            return ringBuffer.get(offset + bucket);
+        }
+
+        void reset(int bucket) {
+            ringBuffer.set(offset + bucket, 0);
+        }
+
+        /**
+         * @return {@code true} if the update had to retry because another thread changed the bucket.
+         */
+        boolean updateMax(int bucket, long sample) {
+            int i = offset + bucket;
+            boolean contended = false;
+            long curMax;
+            while ((curMax = ringBuffer.get(i)) < sample) {
+                if (ringBuffer.compareAndSet(i, curMax, sample)) {
+                    break;
+                }
+                contended = true;
+            }
+            return contended;
+        }
+    }
 }
@@ -0,0 +1,177 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.distribution;
+
+import io.micrometer.core.instrument.util.NamedThreadFactory;
+import io.micrometer.core.lang.Nullable;
+import io.micrometer.core.util.internal.logging.WarnThenDebugLogger;
+
+import java.lang.ref.WeakReference;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Drives the rotation of time window statistics configured with
+ * {@link DistributionStatisticConfig#isBackgroundRotation()} from a single shared daemon thread, so that
+ * recording threads never pay for resetting a ring buffer entry.
+ * <p>
+ * Owners with the same rotation interval share one periodic task that iterates over them, so the number of
+ * scheduled tasks is bounded by the number of distinct intervals rather than the number of meters. The
+ * ticker is shared by all registries because meters build their statistics without access to their registry.
+ * <p>
+ * Each tick only calls the owner's clock-based rotation check, which stays the source of truth for when a
+ * rotation is due. Ticks are several times more frequent than rotations so that a tick landing just before
+ * a rotation boundary delays it by a fraction of the rotation interval at most. Owners are weakly reachable
+ * from the ticker and are dropped once they are closed or garbage collected. A task is cancelled when its
+ * last owner is dropped, and the ticker thread is shut down once no task is left, to be started again by
+ * the next owner.
+ */
+final class TimeWindowRotationTicker {
+    private static final int TICKS_PER_ROTATION = 8;
+
+    private static final WarnThenDebugLogger warnThenDebugLogger = new WarnThenDebugLogger(TimeWindowRotationTicker.class);
+
+    private static final ConcurrentMap<Long, TickGroup> groupsByPeriod = new ConcurrentHashMap<>();
+
+    private static final Object schedulerLock = new Object();
+
+    @Nullable
+    private static ScheduledExecutorService scheduler; // guarded by schedulerLock
+
+    private static int scheduledGroups; // guarded by schedulerLock
+
+    private TimeWindowRotationTicker() {
+    }
+
+    /**
+     * @param owner                        The statistic to rotate.
+     * @param durationBetweenRotatesMillis The owner's rotation interval.
+     * @param rotate                       Rotates the owner if due. Must not capture the owner.
+     * @param <T>                          The type of statistic.
+     * @return A tick that can be cancelled once the owner is closed.
+     */
+    static <T> Tick schedule(T owner, long durationBetweenRotatesMillis, Consumer<T> rotate) {
+        long periodMillis = Math.max(1, durationBetweenRotatesMillis / TICKS_PER_ROTATION);
+        TickGroup group = groupsByPeriod.computeIfAbsent(periodMillis, TickGroup::new);
+        WeakTick<T> tick = new WeakTick<>(group, owner, rotate);
+        group.add(tick);
+        return tick;
+    }
+
+    interface Tick {
+        void cancel();
+    }
+
+    private static ScheduledFuture<?> scheduleAtFixedRate(Runnable task, long periodMillis) {
+        synchronized (schedulerLock) {
+            ScheduledExecutorService executor = scheduler;
+            if (executor == null) {
+                ScheduledThreadPoolExecutor created = (ScheduledThreadPoolExecutor) Executors.newScheduledThreadPool(1,
+                        new NamedThreadFactory("micrometer-time-window-rotation"));
+                created.setRemoveOnCancelPolicy(true);
+                scheduler = executor = created;
+            }
+            scheduledGroups++;
+            return executor.scheduleAtFixedRate(task, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void cancel(ScheduledFuture<?> future) {
+        synchronized (schedulerLock) {
+            future.cancel(false);
+            if (--scheduledGroups == 0 && scheduler != null) {
+                scheduler.shutdown();
+                scheduler = null;
+            }
+        }
+    }
+
+    /**
+     * The owners ticked by one periodic task. Adding and removing owners is synchronized with scheduling and
+     * cancelling the task, while ticks iterate over the owners without locking.
+     */
+    private static final class TickGroup implements Runnable {
+        private final long periodMillis;
+        private final Set<WeakTick<?>> ticks = ConcurrentHashMap.newKeySet();
+
+        @Nullable
+        private ScheduledFuture<?> future;
+
+        TickGroup(long periodMillis) {
+            this.periodMillis = periodMillis;
+        }
+
+        synchronized void add(WeakTick<?> tick) {
+            ticks.add(tick);
+            if (future == null) {
+                future = scheduleAtFixedRate(this, periodMillis);
+            }
+        }
+
+        synchronized void remove(WeakTick<?> tick) {
+            if (ticks.remove(tick) && ticks.isEmpty() && future != null) {
+                cancel(future);
+                future = null;
+            }
+        }
+
+        @Override
+        public void run() {
+            for (WeakTick<?> tick : ticks) {
+                tick.run();
+            }
+        }
+    }
+
+    private static final class WeakTick<T> implements Tick {
+        private final TickGroup group;
+        private final WeakReference<T> owner;
+        private final Consumer<T> rotate;
+
+        WeakTick(TickGroup group, T owner, Consumer<T> rotate) {
+            this.group = group;
+            this.owner = new WeakReference<>(owner);
+            this.rotate = rotate;
+        }
+
+        void run() {
+            T t = owner.get();
+            if (t == null) {
+                cancel();
+                return;
+            }
+            try {
+                rotate.accept(t);
+            } catch (RuntimeException e) {
+                // rethrowing would suppress every subsequent tick for the whole group
+                warnThenDebugLogger.log("Failed to rotate time window statistics.", e);
+            }
+        }
+
+        @Override
+        public void cancel() {
+            owner.clear();
+            group.remove(this);
+        }
+    }
+}
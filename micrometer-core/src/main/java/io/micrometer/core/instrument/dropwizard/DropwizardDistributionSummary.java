@@ -73,4 +73,10 @@ public class DropwizardDistributionSummary extends AbstractDistributionSummary {
     public int hashCode() {
         return MeterEquivalence.hashCode(this);
     }
+
+    @Override
+    public void close() {
+        super.close();
+        max.close();
+    }
 }
@@ -62,4 +62,10 @@ public class DropwizardTimer extends AbstractTimer {
     public double max(TimeUnit unit) {
         return max.poll(unit);
     }
+
+    @Override
+    public void close() {
+        super.close();
+        max.close();
+    }
 }
@@ -0,0 +1,54 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.internal;
+
+import io.micrometer.core.instrument.AbstractMeter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.GaugeBatch;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.util.MeterEquivalence;
+
+/**
+ * A {@link Gauge} reporting one row of a {@link GaugeBatch}, reading its value straight from the batch's last poll.
+ *
+ * @since 1.7.0
+ */
+public class BatchedGauge extends AbstractMeter implements Gauge {
+    private final GaugeBatch batch;
+    private final int index;
+
+    public BatchedGauge(Meter.Id id, GaugeBatch batch, int index) {
+        super(id);
+        this.batch = batch;
+        this.index = index;
+    }
+
+    @Override
+    public double value() {
+        return batch.value(index);
+    }
+
+    @SuppressWarnings("EqualsWhichDoesntCheckParameterClass")
+    @Override
+    public boolean equals(Object o) {
+        return MeterEquivalence.equals(this, o);
+    }
+
+    @Override
+    public int hashCode() {
+        return MeterEquivalence.hashCode(this);
+    }
+}
@@ -25,6 +25,7 @@ import io.micrometer.core.instrument.distribution.HistogramSnapshot;
 import io.micrometer.core.instrument.distribution.ValueAtPercentile;
 import io.micrometer.core.instrument.util.MeterEquivalence;
 import io.micrometer.core.instrument.util.TimeUtils;
+import io.micrometer.core.lang.Nullable;
 
 import java.util.*;
 import java.util.concurrent.*;
@@ -33,16 +34,33 @@ import java.util.stream.Collectors;
 
 public class DefaultLongTaskTimer extends AbstractMeter implements LongTaskTimer {
     /**
-     * Preferring {@link ConcurrentLinkedDeque} over {@link CopyOnWriteArrayList} here because...
+     * Guards changes to the list of active tasks and the aggregates kept over them.
      * <p>
-     * Retrieval of percentile values will be O(N) but starting/stopping tasks will be O(1). Starting/stopping
-     * tasks happen in the same thread as the main application code, where publishing generally happens in a separate
-     * thread. Also, shipping client-side percentiles should be relatively uncommon.
+     * Active tasks form a doubly linked list from oldest to youngest, so that both starting and stopping a task are
+     * O(1). Starting/stopping tasks happen in the same thread as the main application code, where publishing
+     * generally happens in a separate thread, so the work done while holding the lock is kept to relinking a node
+     * and updating the aggregates.
      * <p>
-     * Histogram creation is O(N) for both the queue and list options, because we have to consider which bucket each
-     * active task belongs.
+     * {@link #duration(TimeUnit)}, {@link #max(TimeUnit)} and {@link #activeTasks()} are answered from the
+     * aggregates and the oldest task in O(1). Histogram and percentile creation is O(N), because we have to consider
+     * which bucket each active task belongs, but walks the list from the oldest task without holding the lock, so
+     * it never holds up starting or stopping a task.
      */
-    private final Deque<SampleImpl> activeTasks = new ConcurrentLinkedDeque<>();
+    private final Object lock = new Object();
+
+    @Nullable
+    private volatile Node oldest;
+
+    @Nullable
+    private Node youngest;
+
+    private int activeTaskCount;
+
+    /**
+     * The sum of the start times of the active tasks. It may overflow, but {@code activeTaskCount * now -
+     * startTimeSum} still gives the total duration, because the total duration itself fits in a long.
+     */
+    private long startTimeSum;
 
     private final Clock clock;
     private final TimeUnit baseTimeUnit;
@@ -82,34 +100,109 @@ public class DefaultLongTaskTimer extends AbstractMeter implements LongTaskTimer
 
     @Override
     public Sample start() {
-        SampleImpl sample = new SampleImpl();
-        activeTasks.add(sample);
-        return sample;
+        synchronized (lock) {
+            // the start time is read while holding the lock, so the list stays ordered by start time
+            SampleImpl sample = new SampleImpl(clock.monotonicTime());
+            Node node = new Node(sample);
+            node.older = youngest;
+            if (youngest == null) {
+                oldest = node;
+            } else {
+                youngest.younger = node;
+            }
+            youngest = node;
+            sample.node = node;
+
+            activeTaskCount++;
+            startTimeSum += sample.startTime;
+            return sample;
+        }
+    }
+
+    /**
+     * @return {@code false} if the sample was already stopped.
+     */
+    private boolean stop(SampleImpl sample) {
+        synchronized (lock) {
+            Node node = sample.node;
+            if (node == null) {
+                return false;
+            }
+            sample.stopped = true;
+            sample.node = null;
+
+            if (node.older == null) {
+                oldest = node.younger;
+            } else {
+                node.older.younger = node.younger;
+            }
+            if (node.younger == null) {
+                youngest = node.older;
+            } else {
+                node.younger.older = node.older;
+            }
+            // the younger link is left in place, so that a walk that reached this node carries on past it
+            node.older = null;
+
+            activeTaskCount--;
+            startTimeSum -= sample.startTime;
+            return true;
+        }
     }
 
     @Override
     public double duration(TimeUnit unit) {
-        long now = clock.monotonicTime();
-        long sum = 0L;
-        for (SampleImpl task : activeTasks) {
-            sum += now - task.startTime();
+        synchronized (lock) {
+            long now = clock.monotonicTime();
+            return TimeUtils.nanosToUnit(activeTaskCount * now - startTimeSum, unit);
         }
-        return TimeUtils.nanosToUnit(sum, unit);
     }
 
     @Override
     public double max(TimeUnit unit) {
-        Sample oldest = activeTasks.peek();
-        return oldest == null ? 0.0 : oldest.duration(unit);
+        synchronized (lock) {
+            Node oldest = this.oldest;
+            return oldest == null ? 0.0 : TimeUtils.nanosToUnit(clock.monotonicTime() - oldest.sample.startTime, unit);
+        }
     }
 
     @Override
     public int activeTasks() {
-        return activeTasks.size();
+        synchronized (lock) {
+            return activeTaskCount;
+        }
     }
 
     protected void forEachActive(Consumer<Sample> sample) {
-        activeTasks.forEach(sample);
+        for (Node node = oldest; node != null; node = node.younger) {
+            if (!node.sample.stopped) {
+                sample.accept(node.sample);
+            }
+        }
+    }
+
+    /**
+     * Walks the active tasks without holding the lock. Tasks stopped during the walk may or may not be included,
+     * and tasks started after {@code now} are left out.
+     *
+     * @return The start times of the active tasks, from oldest to youngest.
+     */
+    private long[] startTimesOldestToYoungest(long now) {
+        long[] startTimes = new long[Math.max(16, activeTasks())];
+        int count = 0;
+        for (Node node = oldest; node != null; node = node.younger) {
+            long startTime = node.sample.startTime;
+            if (startTime - now > 0) {
+                break;
+            }
+            if (!node.sample.stopped) {
+                if (count == startTimes.length) {
+                    startTimes = Arrays.copyOf(startTimes, count * 2);
+                }
+                startTimes[count++] = startTime;
+            }
+        }
+        return Arrays.copyOf(startTimes, count);
     }
 
     @Override
@@ -141,8 +234,13 @@ public class DefaultLongTaskTimer extends AbstractMeter implements LongTaskTimer
 
         CountAtBucket[] countAtBucketsArr = new CountAtBucket[0];
 
+        // every duration in the snapshot is measured against the same instant
+        long now = clock.monotonicTime();
+        long[] startTimes = startTimesOldestToYoungest(now);
+        int activeTasks = startTimes.length;
+
         List<Double> percentilesAboveInterpolatableLine = percentilesRequested.stream()
-                .filter(p -> p * (activeTasks.size() + 1) > activeTasks.size())
+                .filter(p -> p * (activeTasks + 1) > activeTasks)
                 .collect(Collectors.toList());
 
         percentilesRequested.removeAll(percentilesAboveInterpolatableLine);
@@ -155,30 +253,26 @@ public class DefaultLongTaskTimer extends AbstractMeter implements LongTaskTimer
 
             List<CountAtBucket> countAtBuckets = new ArrayList<>(buckets.size());
 
-            SampleImpl priorActiveTask = null;
+            double priorDuration = 0;
             int i = 0;
 
-            Iterator<SampleImpl> youngestToOldest = activeTasks.descendingIterator();
-            while (youngestToOldest.hasNext()) {
-                SampleImpl activeTask = youngestToOldest.next();
+            for (int j = activeTasks - 1; j >= 0; j--) {
+                double duration = now - startTimes[j];
                 i++;
-                if (bucket != null) {
-                    if (activeTask.duration(TimeUnit.NANOSECONDS) > bucket) {
-                        countAtBuckets.add(new CountAtBucket(bucket, i - 1));
-                        bucket = buckets.pollFirst();
-                    }
+                // a task may be longer than several buckets at once
+                while (bucket != null && duration > bucket) {
+                    countAtBuckets.add(new CountAtBucket(bucket, i - 1));
+                    bucket = buckets.pollFirst();
                 }
 
                 if (percentile != null) {
-                    double rank = percentile * (activeTasks.size() + 1);
+                    double rank = percentile * (activeTasks + 1);
 
                     if (i >= rank) {
-                        double percentileValue = activeTask.duration(TimeUnit.NANOSECONDS);
-                        if (i != rank && priorActiveTask != null) {
+                        double percentileValue = duration;
+                        if (i != rank && i > 1) {
                             // interpolate the percentile value when the active task rank is non-integral
-                            double priorPercentileValue = priorActiveTask.duration(TimeUnit.NANOSECONDS);
-                            percentileValue = priorPercentileValue +
-                                    ((percentileValue - priorPercentileValue) * (rank - (int) rank));
+                            percentileValue = priorDuration + ((percentileValue - priorDuration) * (rank - (int) rank));
                         }
 
                         valueAtPercentiles.add(new ValueAtPercentile(percentile, percentileValue));
@@ -186,7 +280,7 @@ public class DefaultLongTaskTimer extends AbstractMeter implements LongTaskTimer
                     }
                 }
 
-                priorActiveTask = activeTask;
+                priorDuration = duration;
             }
 
             // fill out the rest of the cumulative histogram
@@ -198,8 +292,11 @@ public class DefaultLongTaskTimer extends AbstractMeter implements LongTaskTimer
             countAtBucketsArr = countAtBuckets.toArray(countAtBucketsArr);
         }
 
-        double duration = duration(TimeUnit.NANOSECONDS);
-        double max = max(TimeUnit.NANOSECONDS);
+        double duration = 0;
+        for (long startTime : startTimes) {
+            duration += now - startTime;
+        }
+        double max = activeTasks == 0 ? 0.0 : now - startTimes[0];
 
         // we wouldn't need to iterate over all the active tasks just to calculate the 100th percentile, which is just the max.
         for (Double percentile : percentilesAboveInterpolatableLine) {
@@ -209,7 +306,7 @@ public class DefaultLongTaskTimer extends AbstractMeter implements LongTaskTimer
         ValueAtPercentile[] valueAtPercentilesArr = valueAtPercentiles.toArray(new ValueAtPercentile[0]);
 
         return new HistogramSnapshot(
-                activeTasks.size(),
+                activeTasks,
                 duration,
                 max,
                 valueAtPercentilesArr,
@@ -218,20 +315,48 @@ public class DefaultLongTaskTimer extends AbstractMeter implements LongTaskTimer
         );
     }
 
+    /**
+     * An active task in the list. It is kept apart from its sample, so that a sample held on to after it is stopped
+     * does not keep the tasks after it reachable through its younger link.
+     */
+    private static final class Node {
+        private final SampleImpl sample;
+
+        /**
+         * Guarded by {@link #lock}.
+         */
+        @Nullable
+        private Node older;
+
+        /**
+         * Written while holding {@link #lock}, but read without it by walks over the active tasks.
+         */
+        @Nullable
+        private volatile Node younger;
+
+        private Node(SampleImpl sample) {
+            this.sample = sample;
+        }
+    }
+
     class SampleImpl extends Sample {
         private final long startTime;
         private volatile boolean stopped;
 
-        private SampleImpl() {
-            this.startTime = clock.monotonicTime();
+        /**
+         * This task's node in the list of active tasks until it is stopped, guarded by {@link #lock}.
+         */
+        @Nullable
+        private Node node;
+
+        private SampleImpl(long startTime) {
+            this.startTime = startTime;
         }
 
         @Override
         public long stop() {
-            activeTasks.remove(this);
             long duration = (long) duration(TimeUnit.NANOSECONDS);
-            stopped = true;
-            return duration;
+            return DefaultLongTaskTimer.this.stop(this) ? duration : -1;
         }
 
         @Override
@@ -239,10 +364,6 @@ public class DefaultLongTaskTimer extends AbstractMeter implements LongTaskTimer
             return stopped ? -1 : TimeUtils.nanosToUnit(clock.monotonicTime() - startTime, unit);
         }
 
-        private long startTime() {
-            return startTime;
-        }
-
         @Override
         public String toString() {
             double durationInNanoseconds = duration(TimeUnit.NANOSECONDS);
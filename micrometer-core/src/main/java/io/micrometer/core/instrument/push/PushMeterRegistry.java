@@ -16,16 +16,29 @@
 package io.micrometer.core.instrument.push;
 
 import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.util.TimeUtils;
 import io.micrometer.core.lang.Nullable;
 import io.micrometer.core.util.internal.logging.InternalLogger;
 import io.micrometer.core.util.internal.logging.InternalLoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 public abstract class PushMeterRegistry extends MeterRegistry {
     private static final InternalLogger logger = InternalLoggerFactory.getInstance(PushMeterRegistry.class);
@@ -34,6 +47,20 @@ public abstract class PushMeterRegistry extends MeterRegistry {
     @Nullable
     private ScheduledExecutorService scheduledExecutorService;
 
+    /**
+     * Only set while started with a publish pipeline configured, see {@link #publishBatches}.
+     */
+    @Nullable
+    private volatile ExecutorService publishExecutorService;
+
+    @Nullable
+    private Timer publishTimer;
+
+    /**
+     * Batches handed to the publish pipeline that have not finished sending yet.
+     */
+    private final AtomicInteger queuedBatches = new AtomicInteger();
+
     protected PushMeterRegistry(PushRegistryConfig config, Clock clock) {
         super(clock);
 
@@ -44,14 +71,157 @@ public abstract class PushMeterRegistry extends MeterRegistry {
 
     protected abstract void publish();
 
+    /**
+     * Publishes one shard of this registry's meters when {@link PushRegistryConfig#publishShards()} is above 1.
+     * Each shard is published on its own schedule, and a meter always belongs to the same shard.
+     * <p>
+     * Registries that can publish a subset of their meters override this. By default, the first shard publishes
+     * every meter with {@link #publish()} and the other shards publish nothing.
+     *
+     * @param shard  The index of the shard, from 0 to {@code publishShards() - 1}.
+     * @param meters The meters in the shard.
+     * @since 1.7.0
+     */
+    protected void publish(int shard, List<Meter> meters) {
+        if (shard == 0) {
+            publish();
+        }
+    }
+
+    /**
+     * Called on the publishing thread immediately before every {@link #publish()}, or every shard's
+     * {@link #publish(int, List)}.
+     *
+     * @since 1.7.0
+     */
+    protected void beforePublish() {
+    }
+
+    /**
+     * Called on the publishing thread after every {@link #publish()}, or every shard's {@link #publish(int, List)},
+     * even if it failed.
+     *
+     * @since 1.7.0
+     */
+    protected void afterPublish() {
+    }
+
+    private List<Meter> metersInShard(int shard) {
+        int shards = config.publishShards();
+        List<Meter> meters = new ArrayList<>();
+        forEachMeter(meter -> {
+            if (Math.floorMod(meter.getId().hashCode(), shards) == shard) {
+                meters.add(meter);
+            }
+        });
+        return Collections.unmodifiableList(meters);
+    }
+
     /**
      * Catch uncaught exceptions thrown from {@link #publish()}.
      */
     private void publishSafely() {
+        publishSafely(this::publish);
+    }
+
+    private void publishShardSafely(int shard) {
+        publishSafely(() -> publish(shard, metersInShard(shard)));
+    }
+
+    private void publishSafely(Runnable publish) {
+        long start = clock.monotonicTime();
         try {
-            publish();
+            beforePublish();
+            publish.run();
         } catch (Throwable e) {
             logger.warn("Unexpected exception thrown while publishing metrics for " + this.getClass().getSimpleName(), e);
+        } finally {
+            afterPublish();
+            if (publishTimer != null) {
+                publishTimer.record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Serializes and sends batches of meters. Unless {@link PushRegistryConfig#publishParallelism()} or
+     * {@link PushRegistryConfig#maxInFlightBatches()} is configured above 1, each batch is serialized and sent
+     * in turn on the calling thread. Otherwise batches are handed to a pipeline, where up to
+     * {@code publishParallelism} batches are serialized while up to {@code maxInFlightBatches} earlier batches
+     * are being sent. While started with a pipeline, this registry also reports the duration of each publish and
+     * the number of batches queued in the pipeline.
+     * <p>
+     * The first exception thrown by the serializer or the sender stops any further batches from being started, and
+     * is rethrown once the batches already started have completed.
+     *
+     * @param batches    Batches of meters, typically from {@link io.micrometer.core.instrument.util.MeterPartition}.
+     * @param serializer Serializes a batch. Must be thread-safe when the pipeline is enabled.
+     * @param sender     Sends a serialized batch. Must be thread-safe when the pipeline is enabled.
+     * @param <T>        The type of a serialized batch.
+     * @throws Throwable The first failure to serialize or send a batch.
+     * @since 1.7.0
+     */
+    protected final <T> void publishBatches(Iterable<List<Meter>> batches, Function<List<Meter>, T> serializer,
+                                            BatchSender<T> sender) throws Throwable {
+        ExecutorService executorService = this.publishExecutorService;
+        if (executorService == null) {
+            for (List<Meter> batch : batches) {
+                sender.send(batch, serializer.apply(batch));
+            }
+            return;
+        }
+
+        Semaphore serializing = new Semaphore(config.publishParallelism());
+        Semaphore sending = new Semaphore(config.maxInFlightBatches());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Future<?>> started = new ArrayList<>();
+
+        try {
+            for (List<Meter> batch : batches) {
+                serializing.acquire();
+                if (failure.get() != null) {
+                    break;
+                }
+
+                queuedBatches.incrementAndGet();
+                try {
+                    started.add(executorService.submit(() -> {
+                        try {
+                            T serialized;
+                            try {
+                                serialized = serializer.apply(batch);
+                            } finally {
+                                serializing.release();
+                            }
+
+                            sending.acquire();
+                            try {
+                                sender.send(batch, serialized);
+                            } finally {
+                                sending.release();
+                            }
+                        } catch (Throwable e) {
+                            failure.compareAndSet(null, e);
+                        } finally {
+                            queuedBatches.decrementAndGet();
+                        }
+                    }));
+                } catch (Throwable e) {
+                    // rejected by a pipeline that is shutting down
+                    queuedBatches.decrementAndGet();
+                    serializing.release();
+                    throw e;
+                }
+            }
+        } finally {
+            for (Future<?> batch : started) {
+                batch.get();
+            }
+        }
+
+        Throwable e = failure.get();
+        if (e != null) {
+            throw e;
         }
     }
 
@@ -70,20 +240,55 @@ public abstract class PushMeterRegistry extends MeterRegistry {
         if (config.enabled()) {
             logger.info("publishing metrics for " + this.getClass().getSimpleName() + " every " + TimeUtils.format(config.step()));
 
-            scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(threadFactory);
+            int publishParallelism = config.publishParallelism();
+            int maxInFlightBatches = config.maxInFlightBatches();
+            if (publishParallelism > 1 || maxInFlightBatches > 1) {
+                publishExecutorService = Executors.newFixedThreadPool(publishParallelism + maxInFlightBatches, threadFactory);
+                publishTimer = Timer.builder("micrometer.publish")
+                        .description("Time taken to serialize and send all meters to the monitoring system")
+                        .register(this);
+                Gauge.builder("micrometer.publish.queued.batches", queuedBatches, AtomicInteger::get)
+                        .description("Batches of meters waiting to be serialized or sent to the monitoring system")
+                        .register(this);
+            }
+
             // time publication to happen just after StepValue finishes the step
             long stepMillis = config.step().toMillis();
             long initialDelayMillis = stepMillis - (clock.wallTime() % stepMillis) + 1;
-            scheduledExecutorService.scheduleAtFixedRate(this::publishSafely,
-                                                         initialDelayMillis, stepMillis, TimeUnit.MILLISECONDS);
+
+            int shards = config.publishShards();
+            if (shards == 1 && config.publishJitter().isZero()) {
+                scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(threadFactory);
+                scheduledExecutorService.scheduleAtFixedRate(this::publishSafely,
+                                                             initialDelayMillis, stepMillis, TimeUnit.MILLISECONDS);
+            } else {
+                // every shard publishes within the step, so it reports the same completed step as the others
+                long shardOffsetMillis = stepMillis / shards;
+                long jitterMillis = jitterMillis(Math.min(config.publishJitter().toMillis(), shardOffsetMillis - 1));
+
+                scheduledExecutorService = Executors.newScheduledThreadPool(shards, threadFactory);
+                for (int shard = 0; shard < shards; shard++) {
+                    int s = shard;
+                    scheduledExecutorService.scheduleAtFixedRate(() -> publishShardSafely(s),
+                            initialDelayMillis + jitterMillis + shard * shardOffsetMillis, stepMillis, TimeUnit.MILLISECONDS);
+                }
+            }
         }
     }
 
+    private static long jitterMillis(long maxJitterMillis) {
+        return maxJitterMillis <= 0 ? 0 : ThreadLocalRandom.current().nextLong(maxJitterMillis + 1);
+    }
+
     public void stop() {
         if (scheduledExecutorService != null) {
             scheduledExecutorService.shutdown();
             scheduledExecutorService = null;
         }
+        if (publishExecutorService != null) {
+            publishExecutorService.shutdown();
+            publishExecutorService = null;
+        }
     }
 
     @Override
@@ -94,4 +299,15 @@ public abstract class PushMeterRegistry extends MeterRegistry {
         stop();
         super.close();
     }
+
+    /**
+     * Sends one serialized batch of meters to the monitoring system.
+     *
+     * @param <T> The type of a serialized batch.
+     * @since 1.7.0
+     */
+    @FunctionalInterface
+    protected interface BatchSender<T> {
+        void send(List<Meter> batch, T serialized) throws Throwable;
+    }
 }
@@ -16,6 +16,7 @@
 package io.micrometer.core.instrument.push;
 
 import io.micrometer.core.instrument.config.MeterRegistryConfig;
+import io.micrometer.core.instrument.config.validate.InvalidReason;
 import io.micrometer.core.instrument.config.validate.Validated;
 import io.micrometer.core.ipc.http.HttpSender;
 
@@ -91,6 +92,58 @@ public interface PushRegistryConfig extends MeterRegistryConfig {
         return getInteger(this, "batchSize").orElse(10000);
     }
 
+    /**
+     * @return The number of shards that meters are split into for publishing. Each shard is published on its own
+     * schedule, offset from the others by an equal slice of the step, so that publishing is spread across the step
+     * rather than concentrated at its start. A meter always belongs to the same shard. Only registries that override
+     * {@link PushMeterRegistry#publish(int, java.util.List)} publish a shard at a time; others publish every meter
+     * with the first shard. The default is 1.
+     * @since 1.7.0
+     */
+    default int publishShards() {
+        return getInteger(this, "publishShards").orElse(1);
+    }
+
+    /**
+     * @return The upper bound of a random delay, chosen once per registry, added to the time at which each shard
+     * is published. This spreads the publishing of many instances that share a step. The delay is capped so that
+     * every shard still publishes within the step. The default is no delay.
+     * @since 1.7.0
+     */
+    default Duration publishJitter() {
+        return getDuration(this, "publishJitter").orElse(Duration.ZERO);
+    }
+
+    /**
+     * @return The maximum size in bytes of a serialized batch, for registries that partition meters with
+     * {@link io.micrometer.core.instrument.util.StreamingMeterPartition}. A batch is cut when either this or
+     * {@link #batchSize()} is reached. The default is unbounded. Registries that publish through
+     * {@link PushMeterRegistry#publishBatches} cut batches by {@link #batchSize()} only.
+     * @since 1.7.0
+     */
+    default int batchMaxBytes() {
+        return getInteger(this, "batchMaxBytes").orElse(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return The maximum number of batches serialized concurrently during a publish. Greater than 1 for registries
+     * that publish through {@link PushMeterRegistry#publishBatches} enables a pipeline, so that serializing one batch
+     * overlaps with sending the previous ones. The default is 1.
+     * @since 1.7.0
+     */
+    default int publishParallelism() {
+        return getInteger(this, "publishParallelism").orElse(1);
+    }
+
+    /**
+     * @return The maximum number of batches being sent to the backend at once during a publish. Greater than 1 for
+     * registries that publish through {@link PushMeterRegistry#publishBatches} enables a pipeline. The default is 1.
+     * @since 1.7.0
+     */
+    default int maxInFlightBatches() {
+        return getInteger(this, "maxInFlightBatches").orElse(1);
+    }
+
     @Override
     default Validated<?> validate() {
         return validate(this);
@@ -109,6 +162,16 @@ public interface PushRegistryConfig extends MeterRegistryConfig {
                 check("connectTimeout", PushRegistryConfig::connectTimeout),
                 check("readTimeout", PushRegistryConfig::readTimeout),
                 check("batchSize", PushRegistryConfig::batchSize),
+                check("publishShards", PushRegistryConfig::publishShards)
+                        .andThen(v -> v.invalidateWhen(s -> s < 1, "must be greater than 0", InvalidReason.MALFORMED)),
+                check("publishJitter", PushRegistryConfig::publishJitter)
+                        .andThen(v -> v.invalidateWhen(Duration::isNegative, "must not be negative", InvalidReason.MALFORMED)),
+                check("batchMaxBytes", PushRegistryConfig::batchMaxBytes)
+                        .andThen(v -> v.invalidateWhen(b -> b < 1, "must be greater than 0", InvalidReason.MALFORMED)),
+                check("publishParallelism", PushRegistryConfig::publishParallelism)
+                        .andThen(v -> v.invalidateWhen(p -> p < 1, "must be greater than 0", InvalidReason.MALFORMED)),
+                check("maxInFlightBatches", PushRegistryConfig::maxInFlightBatches)
+                        .andThen(v -> v.invalidateWhen(b -> b < 1, "must be greater than 0", InvalidReason.MALFORMED)),
                 check("numThreads", PushRegistryConfig::numThreads)
         );
     }
@@ -43,6 +43,12 @@ public final class RequiredSearch {
     @Nullable
     Predicate<String> nameMatches;
 
+    /**
+     * Whether {@link #exactNameMatch} is the name being matched, rather than a predicate given later, so that it can
+     * be looked up in the registry's index.
+     */
+    private boolean exactNameIndexed;
+
 
     private RequiredSearch(MeterRegistry registry) {
         this.registry = registry;
@@ -57,6 +63,7 @@ public final class RequiredSearch {
     public RequiredSearch name(String exactName) {
         this.nameMatches = n -> n.equals(exactName);
         this.exactNameMatch = exactName;
+        this.exactNameIndexed = true;
         return this;
     }
 
@@ -68,6 +75,7 @@ public final class RequiredSearch {
      */
     public RequiredSearch name(Predicate<String> nameMatches) {
         this.nameMatches = nameMatches;
+        this.exactNameIndexed = false;
         return this;
     }
 
@@ -227,7 +235,13 @@ public final class RequiredSearch {
     }
 
     private Stream<Meter> meterStream() {
-        Stream<Meter> meterStream = registry.getMeters().stream()
+        Collection<Meter> candidates = registry.searchCandidates(exactNameIndexed ? exactNameMatch : null,
+                requiredTags, requiredTagKeys);
+        if (candidates == null) {
+            candidates = registry.getMeters();
+        }
+
+        Stream<Meter> meterStream = candidates.stream()
                 .filter(m -> nameMatches == null || nameMatches.test(m.getId().getName()));
 
         if (!requiredTags.isEmpty() || !requiredTagKeys.isEmpty()) {
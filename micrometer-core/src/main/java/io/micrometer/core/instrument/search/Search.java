@@ -37,6 +37,13 @@ public final class Search {
     private final MeterRegistry registry;
     private final List<Tag> tags = new ArrayList<>();
     private Predicate<String> nameMatches = n -> true;
+
+    /**
+     * The name given to {@link #name(String)}, as long as no predicate has replaced it, so that it can be looked up
+     * in the registry's index.
+     */
+    @Nullable
+    private String exactName;
     private final Set<String> requiredTagKeys = new HashSet<>();
     private final Map<String, Collection<Predicate<String>>> tagMatches = new HashMap<>();
 
@@ -51,7 +58,9 @@ public final class Search {
      * @return This search.
      */
     public Search name(String exactName) {
-        return name(n -> n.equals(exactName));
+        name(n -> n.equals(exactName));
+        this.exactName = exactName;
+        return this;
     }
 
     /**
@@ -63,6 +72,7 @@ public final class Search {
     public Search name(@Nullable Predicate<String> nameMatches) {
         if (nameMatches != null) {
             this.nameMatches = nameMatches;
+            this.exactName = null;
         }
         return this;
     }
@@ -268,13 +278,28 @@ public final class Search {
     }
 
     private Stream<Meter> meterStream() {
-        Stream<Meter> meterStream = registry.getMeters().stream().filter(m -> nameMatches.test(m.getId().getName()));
+        Collection<Meter> candidates = registry.searchCandidates(exactName, tags,
+                concat(requiredTagKeys, tagMatches.keySet()));
+        if (candidates == null) {
+            candidates = registry.getMeters();
+        }
+
+        Stream<Meter> meterStream = candidates.stream().filter(m -> nameMatches.test(m.getId().getName()));
         if (!tags.isEmpty() || !requiredTagKeys.isEmpty() || !tagMatches.isEmpty()) {
             meterStream = meterStream.filter(m -> isTagsMatched(m.getId()));
         }
         return meterStream;
     }
 
+    private static Collection<String> concat(Collection<String> tagKeys, Collection<String> moreTagKeys) {
+        if (moreTagKeys.isEmpty()) {
+            return tagKeys;
+        }
+        List<String> all = new ArrayList<>(tagKeys);
+        all.addAll(moreTagKeys);
+        return all;
+    }
+
     /**
      * @return All matching {@link Counter} meters.
      */
@@ -32,7 +32,7 @@ import java.util.concurrent.atomic.LongAdder;
  * @author Jon Schneider
  * @author Johnny Lim
  */
-public class StepDistributionSummary extends AbstractDistributionSummary {
+public class StepDistributionSummary extends AbstractDistributionSummary implements StepMeter {
     private final LongAdder count = new LongAdder();
     private final DoubleAdder total = new DoubleAdder();
     private final StepTuple2<Long, Double> countTotal;
@@ -50,8 +50,26 @@ public class StepDistributionSummary extends AbstractDistributionSummary {
      */
     public StepDistributionSummary(Id id, Clock clock, DistributionStatisticConfig distributionStatisticConfig, double scale,
                                    long stepMillis, boolean supportsAggregablePercentiles) {
+        this(id, clock, clock, distributionStatisticConfig, scale, stepMillis, supportsAggregablePercentiles);
+    }
+
+    /**
+     * Create a new {@code StepDistributionSummary} whose step is driven by a different clock than its max and
+     * histogram.
+     *
+     * @param id                            ID
+     * @param clock                         clock for the max and histogram
+     * @param stepClock                     clock for the step of count and total
+     * @param distributionStatisticConfig   distribution static configuration
+     * @param scale                         scale
+     * @param stepMillis                    step in milliseconds
+     * @param supportsAggregablePercentiles whether it supports aggregable percentiles
+     * @since 1.7.0
+     */
+    public StepDistributionSummary(Id id, Clock clock, Clock stepClock, DistributionStatisticConfig distributionStatisticConfig,
+                                   double scale, long stepMillis, boolean supportsAggregablePercentiles) {
         super(id, clock, distributionStatisticConfig, scale, supportsAggregablePercentiles);
-        this.countTotal = new StepTuple2<>(clock, stepMillis, 0L, 0.0, count::sumThenReset, total::sumThenReset);
+        this.countTotal = new StepTuple2<>(stepClock, stepMillis, 0L, 0.0, count::sumThenReset, total::sumThenReset);
         this.max = new TimeWindowMax(clock, distributionStatisticConfig);
     }
 
@@ -77,6 +95,11 @@ public class StepDistributionSummary extends AbstractDistributionSummary {
         return max.poll();
     }
 
+    @Override
+    public void closeStep() {
+        countTotal.closeStep();
+    }
+
     @Override
     public Iterable<Measurement> measure() {
         return Arrays.asList(
@@ -85,4 +108,10 @@ public class StepDistributionSummary extends AbstractDistributionSummary {
                 new Measurement(this::max, Statistic.MAX)
         );
     }
+
+    @Override
+    public void close() {
+        super.close();
+        max.close();
+    }
 }
@@ -22,7 +22,7 @@ import io.micrometer.core.instrument.FunctionCounter;
 import java.lang.ref.WeakReference;
 import java.util.function.ToDoubleFunction;
 
-public class StepFunctionCounter<T> extends AbstractMeter implements FunctionCounter {
+public class StepFunctionCounter<T> extends AbstractMeter implements FunctionCounter, StepMeter {
     private final WeakReference<T> ref;
     private final ToDoubleFunction<T> f;
     private volatile double last;
@@ -45,4 +45,10 @@ public class StepFunctionCounter<T> extends AbstractMeter implements FunctionCou
         }
         return count.poll();
     }
+
+    @Override
+    public void closeStep() {
+        // the function's latest value belongs to the step being closed
+        count();
+    }
 }
@@ -32,7 +32,7 @@ import java.util.function.ToLongFunction;
  * @author Jon Schneider
  * @author Johnny Lim
  */
-public class StepFunctionTimer<T> implements FunctionTimer {
+public class StepFunctionTimer<T> implements FunctionTimer, StepMeter {
     private final Id id;
     private final WeakReference<T> ref;
     private final ToLongFunction<T> countFunction;
@@ -79,6 +79,13 @@ public class StepFunctionTimer<T> implements FunctionTimer {
         return TimeUtils.convert(countTotal.poll2(), baseTimeUnit(), unit);
     }
 
+    @Override
+    public void closeStep() {
+        // the function's latest values belong to the step being closed
+        accumulateCountAndTotal();
+        countTotal.closeStep();
+    }
+
     private void accumulateCountAndTotal() {
         T obj2 = ref.get();
         if (obj2 != null && clock.monotonicTime() - lastUpdateTime > 1e6) {
@@ -0,0 +1,30 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.step;
+
+/**
+ * A meter whose values are reported for the last completed step. {@link StepMeterRegistry} closes the step of
+ * all such meters in one pass before publishing, rather than leaving each one to roll over when it is first read.
+ *
+ * @since 1.7.0
+ */
+public interface StepMeter {
+    /**
+     * Roll over to the current step if the previous one has completed, so that subsequent reads report the
+     * completed step. Recorded values are unaffected.
+     */
+    void closeStep();
+}
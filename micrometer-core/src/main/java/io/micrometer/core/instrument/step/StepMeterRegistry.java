@@ -19,6 +19,7 @@ import io.micrometer.core.instrument.*;
 import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
 import io.micrometer.core.instrument.distribution.HistogramGauges;
 import io.micrometer.core.instrument.distribution.pause.PauseDetector;
+import io.micrometer.core.instrument.internal.BatchedGauge;
 import io.micrometer.core.instrument.internal.DefaultGauge;
 import io.micrometer.core.instrument.internal.DefaultLongTaskTimer;
 import io.micrometer.core.instrument.internal.DefaultMeter;
@@ -31,15 +32,38 @@ import java.util.function.ToLongFunction;
 
 /**
  * Registry that step-normalizes counts and sums to a rate/second over the publishing interval.
+ * <p>
+ * Before each publish, the step of every {@link StepMeter} is closed in a single pass, and the wall time seen by
+ * the step values of the meters this registry creates is held at the moment the step was closed until the
+ * publish completes. A publish that runs past the next step boundary therefore still reports every meter for the
+ * same step. Maxes and histograms keep decaying on the registry's clock.
  *
  * @author Jon Schneider
  */
 public abstract class StepMeterRegistry extends PushMeterRegistry {
     private final StepRegistryConfig config;
+    private final StepClock stepClock;
 
     public StepMeterRegistry(StepRegistryConfig config, Clock clock) {
         super(config, clock);
         this.config = config;
+        this.stepClock = new StepClock(clock);
+    }
+
+    @Override
+    protected void beforePublish() {
+        pollGaugeBatches();
+        stepClock.freeze();
+        forEachMeter(meter -> {
+            if (meter instanceof StepMeter) {
+                ((StepMeter) meter).closeStep();
+            }
+        });
+    }
+
+    @Override
+    protected void afterPublish() {
+        stepClock.thaw();
     }
 
     @Override
@@ -47,9 +71,14 @@ public abstract class StepMeterRegistry extends PushMeterRegistry {
         return new DefaultGauge<>(id, obj, valueFunction);
     }
 
+    @Override
+    protected Gauge newBatchedGauge(Meter.Id id, GaugeBatch batch, int index) {
+        return new BatchedGauge(id, batch, index);
+    }
+
     @Override
     protected Counter newCounter(Meter.Id id) {
-        return new StepCounter(id, clock, config.step().toMillis());
+        return new StepCounter(id, stepClock, config.step().toMillis());
     }
 
     @Override
@@ -61,7 +90,7 @@ public abstract class StepMeterRegistry extends PushMeterRegistry {
 
     @Override
     protected Timer newTimer(Meter.Id id, DistributionStatisticConfig distributionStatisticConfig, PauseDetector pauseDetector) {
-        Timer timer = new StepTimer(id, clock, distributionStatisticConfig, pauseDetector, getBaseTimeUnit(),
+        Timer timer = new StepTimer(id, clock, stepClock, distributionStatisticConfig, pauseDetector, getBaseTimeUnit(),
             this.config.step().toMillis(), false);
         HistogramGauges.registerWithCommonFormat(timer, this);
         return timer;
@@ -69,7 +98,7 @@ public abstract class StepMeterRegistry extends PushMeterRegistry {
 
     @Override
     protected DistributionSummary newDistributionSummary(Meter.Id id, DistributionStatisticConfig distributionStatisticConfig, double scale) {
-        DistributionSummary summary = new StepDistributionSummary(id, clock, distributionStatisticConfig, scale,
+        DistributionSummary summary = new StepDistributionSummary(id, clock, stepClock, distributionStatisticConfig, scale,
             config.step().toMillis(), false);
         HistogramGauges.registerWithCommonFormat(summary, this);
         return summary;
@@ -77,12 +106,12 @@ public abstract class StepMeterRegistry extends PushMeterRegistry {
 
     @Override
     protected <T> FunctionTimer newFunctionTimer(Meter.Id id, T obj, ToLongFunction<T> countFunction, ToDoubleFunction<T> totalTimeFunction, TimeUnit totalTimeFunctionUnit) {
-        return new StepFunctionTimer<>(id, clock, config.step().toMillis(), obj, countFunction, totalTimeFunction, totalTimeFunctionUnit, getBaseTimeUnit());
+        return new StepFunctionTimer<>(id, stepClock, config.step().toMillis(), obj, countFunction, totalTimeFunction, totalTimeFunctionUnit, getBaseTimeUnit());
     }
 
     @Override
     protected <T> FunctionCounter newFunctionCounter(Meter.Id id, T obj, ToDoubleFunction<T> countFunction) {
-        return new StepFunctionCounter<>(id, clock, config.step().toMillis(), obj, countFunction);
+        return new StepFunctionCounter<>(id, stepClock, config.step().toMillis(), obj, countFunction);
     }
 
     @Override
@@ -97,4 +126,41 @@ public abstract class StepMeterRegistry extends PushMeterRegistry {
                 .build()
                 .merge(DistributionStatisticConfig.DEFAULT);
     }
+
+    /**
+     * Wall time for step meters, held while a publish reads them.
+     */
+    private static final class StepClock implements Clock {
+        private final Clock clock;
+        private int frozen;
+        private volatile long frozenWallTime;
+        private volatile boolean isFrozen;
+
+        StepClock(Clock clock) {
+            this.clock = clock;
+        }
+
+        synchronized void freeze() {
+            if (frozen++ == 0) {
+                frozenWallTime = clock.wallTime();
+                isFrozen = true;
+            }
+        }
+
+        synchronized void thaw() {
+            if (frozen > 0 && --frozen == 0) {
+                isFrozen = false;
+            }
+        }
+
+        @Override
+        public long wallTime() {
+            return isFrozen ? frozenWallTime : clock.wallTime();
+        }
+
+        @Override
+        public long monotonicTime() {
+            return clock.monotonicTime();
+        }
+    }
 }
@@ -28,7 +28,7 @@ import java.util.concurrent.atomic.LongAdder;
 /**
  * @author Jon Schneider
  */
-public class StepTimer extends AbstractTimer {
+public class StepTimer extends AbstractTimer implements StepMeter {
     private final LongAdder count = new LongAdder();
     private final LongAdder total = new LongAdder();
     private final StepTuple2<Long, Long> countTotal;
@@ -48,9 +48,30 @@ public class StepTimer extends AbstractTimer {
     public StepTimer(final Id id, final Clock clock, final DistributionStatisticConfig distributionStatisticConfig,
         final PauseDetector pauseDetector, final TimeUnit baseTimeUnit, final long stepDurationMillis,
         final boolean supportsAggregablePercentiles
+    ) {
+        this(id, clock, clock, distributionStatisticConfig, pauseDetector, baseTimeUnit, stepDurationMillis,
+            supportsAggregablePercentiles);
+    }
+
+    /**
+     * Create a new {@code StepTimer} whose step is driven by a different clock than its max and histogram.
+     *
+     * @param id                            ID
+     * @param clock                         clock for the max and histogram
+     * @param stepClock                     clock for the step of count and total
+     * @param distributionStatisticConfig   distribution statistic configuration
+     * @param pauseDetector                 pause detector
+     * @param baseTimeUnit                  base time unit
+     * @param stepDurationMillis            step in milliseconds
+     * @param supportsAggregablePercentiles whether it supports aggregable percentiles
+     * @since 1.7.0
+     */
+    public StepTimer(final Id id, final Clock clock, final Clock stepClock,
+        final DistributionStatisticConfig distributionStatisticConfig, final PauseDetector pauseDetector,
+        final TimeUnit baseTimeUnit, final long stepDurationMillis, final boolean supportsAggregablePercentiles
     ) {
         super(id, clock, distributionStatisticConfig, pauseDetector, baseTimeUnit, supportsAggregablePercentiles);
-        countTotal = new StepTuple2<>(clock, stepDurationMillis, 0L, 0L, count::sumThenReset, total::sumThenReset);
+        countTotal = new StepTuple2<>(stepClock, stepDurationMillis, 0L, 0L, count::sumThenReset, total::sumThenReset);
         max = new TimeWindowMax(clock, distributionStatisticConfig);
     }
 
@@ -76,4 +97,15 @@ public class StepTimer extends AbstractTimer {
     public double max(final TimeUnit unit) {
         return TimeUtils.nanosToUnit(max.poll(), unit);
     }
+
+    @Override
+    public void closeStep() {
+        countTotal.closeStep();
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        max.close();
+    }
 }
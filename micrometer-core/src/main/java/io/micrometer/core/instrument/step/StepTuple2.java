@@ -69,6 +69,15 @@ public class StepTuple2<T1, T2> {
         }
     }
 
+    /**
+     * Roll over to the current interval if the previous one has completed, without reading the values.
+     *
+     * @since 1.7.0
+     */
+    public void closeStep() {
+        rollCount(clock.wallTime());
+    }
+
     /**
      * @return The value for the last completed interval.
      */
@@ -61,6 +61,15 @@ public abstract class StepValue<V> {
         }
     }
 
+    /**
+     * Roll over to the current interval if the previous one has completed, without reading the value.
+     *
+     * @since 1.7.0
+     */
+    public void closeStep() {
+        rollCount(clock.wallTime());
+    }
+
     /**
      * @return The value for the last completed interval.
      */
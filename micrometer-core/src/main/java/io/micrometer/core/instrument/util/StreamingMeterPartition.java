@@ -0,0 +1,220 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.util;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Splits the meters of a registry into serialized batches without copying the registry's meters into a list
+ * first, unlike {@link MeterPartition}. Meters are serialized one at a time, straight into a buffer that is
+ * reused for every batch of a partitioning. A batch is cut when it reaches a maximum number of meters or
+ * when adding the next meter would exceed a maximum number of bytes, so peak memory is bounded by the batch
+ * limits rather than by the size of the registry.
+ * <p>
+ * A batch is framed by a prefix and a suffix, and the records serialized from its meters are separated by a
+ * separator, for example {@code "["}, {@code "]"} and {@code ","} for a JSON array.
+ * <p>
+ * Batches are serialized and handed over one after another on the calling thread, so a partitioning cannot
+ * be combined with the concurrent serialization of
+ * {@link io.micrometer.core.instrument.push.PushMeterRegistry#publishBatches}.
+ *
+ * @since 1.7.0
+ */
+public class StreamingMeterPartition {
+    private static final int MAX_INITIAL_BUFFER_SIZE = 64 * 1024;
+
+    private final int maxMetersPerBatch;
+    private final int maxBytesPerBatch;
+    private final byte[] prefix;
+    private final byte[] separator;
+    private final byte[] suffix;
+
+    /**
+     * @param maxMetersPerBatch The maximum number of meters in a batch.
+     * @param maxBytesPerBatch  The maximum size of a serialized batch, including its prefix and suffix. A meter
+     *                          that does not fit on its own is sent alone in an oversized batch.
+     * @param prefix            Written at the start of every batch.
+     * @param separator         Written between consecutive records of a batch.
+     * @param suffix            Written at the end of every batch.
+     */
+    public StreamingMeterPartition(int maxMetersPerBatch, int maxBytesPerBatch, String prefix, String separator,
+                                   String suffix) {
+        if (maxMetersPerBatch <= 0) {
+            throw new IllegalArgumentException("maxMetersPerBatch must be greater than 0");
+        }
+        if (maxBytesPerBatch <= 0) {
+            throw new IllegalArgumentException("maxBytesPerBatch must be greater than 0");
+        }
+        this.maxMetersPerBatch = maxMetersPerBatch;
+        this.maxBytesPerBatch = maxBytesPerBatch;
+        this.prefix = prefix.getBytes(StandardCharsets.UTF_8);
+        this.separator = separator.getBytes(StandardCharsets.UTF_8);
+        this.suffix = suffix.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Serializes every meter in the registry, handing each batch to the consumer as soon as it is cut. The
+     * batch is only valid for the duration of the call to the consumer, since its buffer is then reused.
+     * <p>
+     * A meter whose serializer throws is left out of its batch, so that one meter cannot prevent the rest from
+     * being sent. The first such exception is rethrown once every batch has been handed to the consumer.
+     *
+     * @param registry   The registry whose meters are published.
+     * @param serializer Serializes a meter to zero or more records.
+     * @param consumer   Sends a batch.
+     */
+    public void forEachBatch(MeterRegistry registry, Function<Meter, Stream<String>> serializer, Consumer<Batch> consumer) {
+        Batch batch = new Batch(Math.min(maxBytesPerBatch, MAX_INITIAL_BUFFER_SIZE));
+        batch.begin();
+
+        List<byte[]> records = new ArrayList<>();
+        AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        registry.forEachMeter(meter -> {
+            records.clear();
+            int meterSize = 0;
+            try {
+                Iterator<String> serialized = serializer.apply(meter).iterator();
+                while (serialized.hasNext()) {
+                    byte[] bytes = serialized.next().getBytes(StandardCharsets.UTF_8);
+                    records.add(bytes);
+                    meterSize += bytes.length + separator.length;
+                }
+            } catch (RuntimeException e) {
+                // nothing has been appended to the batch yet
+                failure.compareAndSet(null, e);
+                return;
+            }
+
+            if (batch.meterCount > 0 && batch.size() + meterSize + suffix.length > maxBytesPerBatch) {
+                batch.end(consumer);
+            }
+
+            for (byte[] record : records) {
+                batch.append(record);
+            }
+
+            if (++batch.meterCount >= maxMetersPerBatch) {
+                batch.end(consumer);
+            }
+        });
+
+        if (batch.meterCount > 0) {
+            batch.end(consumer);
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    /**
+     * A serialized batch of meters, backed by a buffer that is reused for the next batch.
+     */
+    public final class Batch {
+        private final Buffer buffer;
+        private int meterCount;
+        private int recordCount;
+
+        private Batch(int initialSize) {
+            this.buffer = new Buffer(initialSize);
+        }
+
+        private void begin() {
+            buffer.reset();
+            meterCount = 0;
+            recordCount = 0;
+            buffer.write(prefix, 0, prefix.length);
+        }
+
+        private void append(byte[] record) {
+            if (recordCount++ > 0) {
+                buffer.write(separator, 0, separator.length);
+            }
+            buffer.write(record, 0, record.length);
+        }
+
+        private void end(Consumer<Batch> consumer) {
+            buffer.write(suffix, 0, suffix.length);
+            consumer.accept(this);
+            begin();
+        }
+
+        /**
+         * @return The number of meters serialized into this batch.
+         */
+        public int meterCount() {
+            return meterCount;
+        }
+
+        /**
+         * @return The size of this batch in bytes.
+         */
+        public int size() {
+            return buffer.size();
+        }
+
+        /**
+         * @return A copy of this batch's content.
+         */
+        public byte[] toByteArray() {
+            return buffer.toByteArray();
+        }
+
+        /**
+         * @return A read-only view of this batch's content, without copying it.
+         */
+        public ByteBuffer asByteBuffer() {
+            return ByteBuffer.wrap(buffer.array(), 0, buffer.size()).asReadOnlyBuffer();
+        }
+
+        /**
+         * @param out The stream to write this batch's content to, without copying it.
+         * @throws IOException If the stream cannot be written to.
+         */
+        public void writeTo(OutputStream out) throws IOException {
+            buffer.writeTo(out);
+        }
+
+        @Override
+        public String toString() {
+            return new String(buffer.array(), 0, buffer.size(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static final class Buffer extends ByteArrayOutputStream {
+        Buffer(int initialSize) {
+            super(initialSize);
+        }
+
+        byte[] array() {
+            return buf;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.util.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Coordinates a bounded, lock-free queue with many producers and a single consumer over a ring of slots that the
+ * caller keeps in arrays of its own, so that queueing an element doesn't need to allocate a holder for it.
+ * <p>
+ * A producer {@link #claim() claims} a position, writes its element to the slot at {@link #index(long)}, and then
+ * {@link #publish(long) publishes} the position. The consumer {@link #peek() peeks} at the next published slot, reads
+ * it and {@link #release() releases} it for a later lap.
+ * <p>
+ * <em>Internal-use-only</em> API which is not allowed to be used outside Micrometer.
+ */
+public final class MpscSequencer {
+    /**
+     * The largest power of two that fits in an {@code int}.
+     */
+    public static final int MAX_CAPACITY = 1 << 30;
+
+    private final int mask;
+
+    /**
+     * A slot may be written by the producer that claimed position {@code p} once its sequence is {@code p}, and read
+     * by the consumer once its sequence is {@code p + 1}.
+     */
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Only read and written by the consumer.
+     */
+    private long head;
+
+    /**
+     * @param capacity The number of slots, rounded up to a power of two. At most {@link #MAX_CAPACITY}.
+     */
+    public MpscSequencer(int capacity) {
+        if (capacity < 1 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity must be greater than 0 and at most " + MAX_CAPACITY);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return The number of slots, which the caller's arrays must hold.
+     */
+    public int size() {
+        return mask + 1;
+    }
+
+    /**
+     * @return The position claimed for writing, or {@code -1} if every slot is still waiting to be consumed.
+     */
+    public long claim() {
+        for (; ; ) {
+            long position = tail.get();
+            long sequence = sequences.get(index(position));
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+            } else if (sequence < position) {
+                // the slot still holds an element from the previous lap, so the queue is full
+                return -1;
+            }
+            // otherwise another producer claimed this position first, so try the next one
+        }
+    }
+
+    /**
+     * @param position A claimed position.
+     * @return The index of the position's slot.
+     */
+    public int index(long position) {
+        return (int) position & mask;
+    }
+
+    /**
+     * Make the slot of a claimed position visible to the consumer. This is a volatile write, so a producer that
+     * reads a volatile flag the consumer sets before checking the queue one last time and parking either sees the
+     * flag or has its element seen by the consumer.
+     *
+     * @param position A claimed position whose slot has been written.
+     */
+    public void publish(long position) {
+        sequences.set(index(position), position + 1);
+    }
+
+    /**
+     * Must only be called by the consumer.
+     *
+     * @return The index of the next published slot, or {@code -1} if there is none yet.
+     */
+    public int peek() {
+        int index = index(head);
+        return sequences.get(index) == head + 1 ? index : -1;
+    }
+
+    /**
+     * Free the slot returned by {@link #peek()} to be claimed on the next lap. Must only be called by the consumer,
+     * once it has read the slot.
+     */
+    public void release() {
+        sequences.lazySet(index(head), head + mask + 1);
+        head++;
+    }
+}
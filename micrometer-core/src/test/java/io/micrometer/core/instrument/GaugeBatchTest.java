@@ -0,0 +1,96 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument;
+
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GaugeBatchTest {
+    private final MockClock clock = new MockClock();
+    private final MeterRegistry registry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+
+    private final List<Tags> rows = Arrays.asList(Tags.of("color", "red"), Tags.of("color", "green"), Tags.of("color", "blue"));
+    private final double[] stats = {1, 2, 3};
+    private final AtomicInteger polls = new AtomicInteger();
+
+    private GaugeBatch register() {
+        return GaugeBatch.builder("colors")
+                .tag("palette", "rgb")
+                .maxAge(Duration.ofSeconds(10))
+                .register(registry, rows, values -> {
+                    polls.incrementAndGet();
+                    System.arraycopy(stats, 0, values, 0, stats.length);
+                });
+    }
+
+    @Test
+    void oneGaugePerRowReadFromASinglePoll() {
+        register();
+
+        assertThat(registry.get("colors").tag("palette", "rgb").gauges()).hasSize(3);
+        assertThat(registry.get("colors").tag("color", "red").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("colors").tag("color", "green").gauge().value()).isEqualTo(2);
+        assertThat(registry.get("colors").tag("color", "blue").gauge().value()).isEqualTo(3);
+        assertThat(polls).hasValue(1);
+    }
+
+    @Test
+    void pollsAgainOnceTheLastPollIsTooOld() {
+        register();
+        assertThat(registry.get("colors").tag("color", "red").gauge().value()).isEqualTo(1);
+
+        stats[0] = 10;
+        clock.add(10, TimeUnit.SECONDS);
+        assertThat(registry.get("colors").tag("color", "red").gauge().value()).isEqualTo(1);
+
+        clock.add(1, TimeUnit.MILLISECONDS);
+        assertThat(registry.get("colors").tag("color", "red").gauge().value()).isEqualTo(10);
+        assertThat(polls).hasValue(2);
+    }
+
+    @Test
+    void rowsTheProviderDoesNotFillAreNaN() {
+        GaugeBatch.builder("colors").register(registry, rows, values -> values[0] = 1);
+
+        assertThat(registry.get("colors").tag("color", "red").gauge().value()).isEqualTo(1);
+        assertThat(registry.get("colors").tag("color", "blue").gauge().value()).isNaN();
+    }
+
+    @Test
+    void failingProviderReportsNaN() {
+        GaugeBatch.builder("colors").register(registry, rows, values -> {
+            throw new IllegalStateException("stats unavailable");
+        });
+
+        assertThat(registry.get("colors").tag("color", "red").gauge().value()).isNaN();
+    }
+
+    @Test
+    void removeUnregistersEveryRow() {
+        register().remove();
+
+        assertThat(registry.find("colors").gauges()).isEmpty();
+    }
+}
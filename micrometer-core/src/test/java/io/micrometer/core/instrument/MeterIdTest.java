@@ -15,8 +15,13 @@
  */
 package io.micrometer.core.instrument;
 
+import io.micrometer.core.instrument.config.NamingConvention;
+import io.micrometer.core.lang.Nullable;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 /**
@@ -54,4 +59,48 @@ class MeterIdTest {
         Meter.Id newId = id.replaceTags(Tags.of("k1", "n1", "k", "n"));
         assertThat(newId.getTags()).containsExactlyElementsOf(Tags.of("k1", "n1", "k", "n"));
     }
+
+    @Test
+    void conventionNameAndTagsAreReusedForSameNamingConvention() {
+        AtomicInteger names = new AtomicInteger();
+        AtomicInteger tagKeys = new AtomicInteger();
+        NamingConvention convention = new NamingConvention() {
+            @Override
+            public String name(String name, Meter.Type type, @Nullable String baseUnit) {
+                names.incrementAndGet();
+                return name.toUpperCase();
+            }
+
+            @Override
+            public String tagKey(String key) {
+                tagKeys.incrementAndGet();
+                return key.toUpperCase();
+            }
+        };
+
+        Meter.Id id = new Meter.Id("my.id", Tags.of("k1", "v1", "k2", "v2"), null, null, Meter.Type.COUNTER);
+        assertThat(id.getConventionName(convention)).isEqualTo("MY.ID");
+        assertThat(id.getConventionName(convention)).isEqualTo("MY.ID");
+        assertThat(id.getConventionTags(convention)).containsExactly(Tag.of("K1", "v1"), Tag.of("K2", "v2"));
+        assertThat(id.getConventionTags(convention)).containsExactly(Tag.of("K1", "v1"), Tag.of("K2", "v2"));
+
+        assertThat(names).hasValue(1);
+        assertThat(tagKeys).hasValue(2);
+
+        // alternating conventions don't evict one another
+        assertThat(id.getConventionName(NamingConvention.snakeCase)).isEqualTo("my_id");
+        assertThat(id.getConventionName(convention)).isEqualTo("MY.ID");
+        assertThat(id.getConventionName(NamingConvention.snakeCase)).isEqualTo("my_id");
+        assertThat(id.getConventionName(convention)).isEqualTo("MY.ID");
+        assertThat(names).hasValue(1);
+    }
+
+    @Test
+    void conventionTagsCanBeModifiedByCaller() {
+        Meter.Id id = new Meter.Id("my.id", Tags.of("k1", "v1"), null, null, Meter.Type.COUNTER);
+        List<Tag> tags = id.getConventionTags(NamingConvention.identity);
+        tags.add(Tag.of("k2", "v2"));
+
+        assertThat(id.getConventionTags(NamingConvention.identity)).containsExactly(Tag.of("k1", "v1"));
+    }
 }
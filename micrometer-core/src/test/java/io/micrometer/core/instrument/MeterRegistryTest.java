@@ -26,7 +26,17 @@ import org.junit.jupiter.api.Test;
 
 import javax.annotation.Nonnull;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Tests for {@link MeterRegistry}.
@@ -196,4 +206,230 @@ class MeterRegistryTest {
 
         assertThat(registry.get("my.gauge").gauge().value()).isEqualTo(1d);
     }
+
+    @Test
+    void concurrentRegistrationsOfSameIdBuildOneMeter() throws Exception {
+        AtomicInteger built = new AtomicInteger();
+        MeterRegistry registry = new SimpleMeterRegistry() {
+            @Override
+            protected Counter newCounter(@Nonnull Meter.Id id) {
+                built.incrementAndGet();
+                return super.newCounter(id);
+            }
+        };
+
+        int threads = 16;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<Counter>> counters = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            counters.add(executor.submit(() -> {
+                start.await();
+                return registry.counter("my.counter");
+            }));
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        Counter counter = registry.get("my.counter").counter();
+        for (Future<Counter> future : counters) {
+            assertThat(future.get()).isSameAs(counter);
+        }
+        assertThat(built).hasValue(1);
+    }
+
+    @Test
+    void reentrantRegistrationOfSameIdFailsRatherThanHangs() {
+        registry.config().onMeterAdded(m -> registry.counter("my.counter"));
+
+        assertThatThrownBy(() -> registry.counter("my.counter"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("my.counter");
+        assertThat(registry.find("my.counter").counter()).isNull();
+    }
+
+    @Test
+    void registrationsWaitingOnEachOtherCompleteRatherThanDeadlock() throws Exception {
+        CountDownLatch bothBuilding = new CountDownLatch(2);
+        ThreadLocal<Boolean> nested = ThreadLocal.withInitial(() -> false);
+        MeterRegistry registry = new SimpleMeterRegistry() {
+            @Override
+            protected Counter newCounter(@Nonnull Meter.Id id) {
+                if (!nested.get()) {
+                    nested.set(true);
+                    try {
+                        bothBuilding.countDown();
+                        bothBuilding.await(10, TimeUnit.SECONDS);
+                        // each registration needs the meter the other one is building
+                        counter(id.getName().equals("a") ? "b" : "a");
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        nested.set(false);
+                    }
+                }
+                return super.newCounter(id);
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Counter> a = executor.submit(() -> registry.counter("a"));
+            Future<Counter> b = executor.submit(() -> registry.counter("b"));
+
+            assertThat(a.get(10, TimeUnit.SECONDS)).isSameAs(registry.get("a").counter());
+            assertThat(b.get(10, TimeUnit.SECONDS)).isSameAs(registry.get("b").counter());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void closeWaitsForRegistrationsInFlight() throws Exception {
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MeterRegistry registry = new SimpleMeterRegistry() {
+            @Override
+            protected Counter newCounter(@Nonnull Meter.Id id) {
+                building.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.newCounter(id);
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Counter> registration = executor.submit(() -> registry.counter("slow"));
+            assertThat(building.await(10, TimeUnit.SECONDS)).isTrue();
+
+            Future<?> close = executor.submit(registry::close);
+            Thread.sleep(100);
+            assertThat(close.isDone()).isFalse();
+
+            release.countDown();
+            close.get(10, TimeUnit.SECONDS);
+            assertThat(registration.get()).isSameAs(registry.get("slow").counter());
+            assertThat(registry.counter("late")).isInstanceOf(NoopCounter.class);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void slowRegistrationDoesNotBlockRegistrationOfOtherIds() throws Exception {
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        MeterRegistry registry = new SimpleMeterRegistry() {
+            @Override
+            protected Counter newCounter(@Nonnull Meter.Id id) {
+                if (id.getName().equals("slow")) {
+                    building.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return super.newCounter(id);
+            }
+        };
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Counter> slow = executor.submit(() -> registry.counter("slow"));
+            assertThat(building.await(10, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(registry.counter("fast")).isNotInstanceOf(NoopCounter.class);
+
+            release.countDown();
+            assertThat(slow.get(10, TimeUnit.SECONDS)).isSameAs(registry.get("slow").counter());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void repeatedLookupOfExistingMeterDoesNotReapplyMeterFilters() {
+        AtomicInteger mapped = new AtomicInteger();
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                mapped.incrementAndGet();
+                return id.withTag(Tag.of("common", "tag"));
+            }
+        });
+
+        Counter counter = registry.counter("my.counter", "k", "v");
+        assertThat(registry.counter("my.counter", "k", "v")).isSameAs(counter);
+        assertThat(registry.counter("my.counter", "k", "v")).isSameAs(counter);
+        assertThat(mapped).hasValue(1);
+    }
+
+    @Test
+    void addingMeterFilterInvalidatesPreFilterIdCache() {
+        Counter counter = registry.counter("my.counter");
+        assertThat(registry.counter("my.counter")).isSameAs(counter);
+
+        registry.config().meterFilter(MeterFilter.commonTags(Tags.of("common", "tag")));
+
+        Counter tagged = registry.counter("my.counter");
+        assertThat(tagged).isNotSameAs(counter);
+        assertThat(tagged.getId().getTag("common")).isEqualTo("tag");
+    }
+
+    @Test
+    void removingMeterEvictsItFromPreFilterIdCache() {
+        Counter counter = registry.counter("my.counter");
+        assertThat(registry.counter("my.counter")).isSameAs(counter);
+
+        registry.remove(counter);
+
+        Counter recreated = registry.counter("my.counter");
+        assertThat(recreated).isNotSameAs(counter);
+        assertThat(registry.get("my.counter").counter()).isSameAs(recreated);
+    }
+
+    @Test
+    void fullPreFilterIdCacheKeepsCachingNewLookups() {
+        AtomicInteger mapped = new AtomicInteger();
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                mapped.incrementAndGet();
+                return id.replaceTags(Tags.empty());
+            }
+        });
+
+        for (int i = 0; i < 100_000; i++) {
+            registry.counter("my.counter", "unbounded", Integer.toString(i));
+        }
+        assertThat(registry.getMeters()).hasSize(1);
+
+        Counter counter = registry.counter("my.counter", "unbounded", "latest");
+        mapped.set(0);
+        assertThat(registry.counter("my.counter", "unbounded", "latest")).isSameAs(counter);
+        assertThat(mapped).hasValue(0);
+    }
+
+    @Test
+    void preFilterIdCacheDistinguishesMeterTypesMappedToDifferentIds() {
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public Meter.Id map(Meter.Id id) {
+                return id.getType() == Meter.Type.TIMER ? id.withName(id.getName() + ".timer") : id;
+            }
+        });
+
+        Counter counter = registry.counter("my.meter");
+        Timer timer = registry.timer("my.meter");
+
+        assertThat(registry.counter("my.meter")).isSameAs(counter);
+        assertThat(registry.timer("my.meter")).isSameAs(timer);
+    }
 }
@@ -285,6 +285,45 @@ class TagsTest {
         assertThat(Tags.empty().iterator()).isExhausted();
     }
 
+    @Test
+    void andKeyValueInsertsInSortedPosition() {
+        Tags source = Tags.of("t1", "v1", "t3", "v3");
+        assertTags(source.and("t2", "v2"), "t1", "v1", "t2", "v2", "t3", "v3");
+        assertTags(source.and("t0", "v0"), "t0", "v0", "t1", "v1", "t3", "v3");
+        assertTags(source.and("t4", "v4"), "t1", "v1", "t3", "v3", "t4", "v4");
+    }
+
+    @Test
+    void andKeyValueWithExistingTagShouldReturnCurrentInstance() {
+        Tags source = Tags.of("t1", "v1", "t2", "v2");
+        assertThat(source.and("t2", "v2")).isSameAs(source);
+    }
+
+    @Test
+    void andTagsShouldMergeSortedTagsReplacingValuesOfExistingKeys() {
+        Tags source = Tags.of("t1", "v1", "t3", "v3", "t5", "v5");
+        Tags merged = source.and(Tags.of("t2", "v2", "t3", "v4", "t6", "v6"));
+        assertTags(source, "t1", "v1", "t3", "v3", "t5", "v5");
+        assertTags(merged, "t1", "v1", "t2", "v2", "t3", "v4", "t5", "v5", "t6", "v6");
+    }
+
+    @Test
+    void andUnsortedTagsShouldSortAndDedupBeforeMerging() {
+        Tag[] tags = {Tag.of("t3", "v3"), Tag.of("t0", "v0"), Tag.of("t3", "v4")};
+        Tags merged = Tags.of("t1", "v1").and(tags);
+        assertTags(merged, "t0", "v0", "t1", "v1", "t3", "v4");
+        assertThat(tags).containsExactly(Tag.of("t3", "v3"), Tag.of("t0", "v0"), Tag.of("t3", "v4"));
+    }
+
+    @Test
+    void hashCodeShouldBeConsistentAcrossConstructionPaths() {
+        Tags sorted = Tags.of("t1", "v1", "t2", "v2", "t3", "v3");
+        Tags merged = Tags.of("t3", "v3").and("t1", "v1").and(Tag.of("t2", "v2"));
+        assertThat(merged).isEqualTo(sorted);
+        assertThat(merged.hashCode()).isEqualTo(sorted.hashCode());
+        assertThat(merged.hashCode()).isEqualTo(merged.hashCode());
+    }
+
     private void assertTags(Tags tags, String... keyValues) {
         Iterator<Tag> actual = tags.iterator();
         Iterator<String> expected = Arrays.asList(keyValues).iterator();
@@ -0,0 +1,81 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.composite;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncSecondaryRecorderTest {
+    private final List<Long> recorded = new ArrayList<>();
+    private final AsyncSecondaryRecorder.Secondaries meter = recorded::add;
+
+    @Test
+    void capacityIsRoundedUpToAPowerOfTwo() {
+        AsyncSecondaryRecorder recorder = new AsyncSecondaryRecorder(3);
+        for (long i = 0; i < 5; i++) {
+            recorder.offer(meter, i);
+        }
+
+        assertThat(recorder.dropped()).isEqualTo(1);
+        assertThat(recorder.drain()).isEqualTo(4);
+        assertThat(recorded).containsExactly(0L, 1L, 2L, 3L);
+    }
+
+    @Test
+    void slotsAreReusedAfterDraining() {
+        AsyncSecondaryRecorder recorder = new AsyncSecondaryRecorder(2);
+        for (long i = 0; i < 10; i++) {
+            assertThat(recorder.offer(meter, i)).isTrue();
+            if (i % 2 == 1) {
+                recorder.drain();
+            }
+        }
+
+        assertThat(recorder.dropped()).isZero();
+        assertThat(recorded).containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L);
+    }
+
+    @Test
+    void closeRecordsWhatIsStillQueued() {
+        AsyncSecondaryRecorder recorder = new AsyncSecondaryRecorder(8);
+        recorder.offer(meter, 1);
+        recorder.offer(meter, 2);
+        recorder.close();
+
+        assertThat(recorded).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void samplesOfferedAfterCloseAreRecordedRightAway() {
+        AsyncSecondaryRecorder recorder = new AsyncSecondaryRecorder(1);
+        recorder.close();
+
+        assertThat(recorder.offer(meter, 1)).isTrue();
+        assertThat(recorder.offer(meter, 2)).isTrue();
+        assertThat(recorder.dropped()).isZero();
+        assertThat(recorded).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void capacityMustBePositive() {
+        assertThatThrownBy(() -> new AsyncSecondaryRecorder(0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -20,7 +20,10 @@ import io.micrometer.core.instrument.*;
 import io.micrometer.core.instrument.binder.BaseUnits;
 import io.micrometer.core.instrument.config.MeterFilter;
 import io.micrometer.core.instrument.config.NamingConvention;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.distribution.PercentileEngine;
 import io.micrometer.core.instrument.distribution.pause.ClockDriftPauseDetector;
+import io.micrometer.core.instrument.distribution.pause.PauseDetector;
 import io.micrometer.core.instrument.simple.SimpleConfig;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import io.micrometer.core.instrument.step.StepMeterRegistry;
@@ -281,6 +284,129 @@ class CompositeMeterRegistryTest {
         assertThat(composite.nonCompositeDescendants).isEmpty();
     }
 
+    @Test
+    void recordingsFanOutToEveryChildAsChildrenComeAndGo() {
+        Counter counter = composite.counter("counter");
+        Timer timer = composite.timer("timer");
+        DistributionSummary summary = composite.summary("summary");
+
+        SimpleMeterRegistry[] children = new SimpleMeterRegistry[6];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = new SimpleMeterRegistry();
+            composite.add(children[i]);
+
+            counter.increment();
+            timer.record(Duration.ofMillis(1));
+            timer.record(1, TimeUnit.MILLISECONDS);
+            summary.record(1);
+        }
+
+        // the i-th child was added before the last (children.length - i) recordings
+        for (int i = 0; i < children.length; i++) {
+            int recordings = children.length - i;
+            assertThat(children[i].get("counter").counter().count()).isEqualTo(recordings);
+            assertThat(children[i].get("timer").timer().count()).isEqualTo(2 * recordings);
+            assertThat(children[i].get("summary").summary().count()).isEqualTo(recordings);
+        }
+
+        composite.remove(children[1]);
+        counter.increment();
+        assertThat(children[0].get("counter").counter().count()).isEqualTo(7);
+        assertThat(children[1].get("counter").counter().count()).isEqualTo(5);
+        assertThat(children[2].get("counter").counter().count()).isEqualTo(5);
+        assertThat(counter.count()).isEqualTo(7);
+    }
+
+    @Test
+    void childMetersKeepPercentileEngineAndBackgroundRotation() {
+        Map<String, DistributionStatisticConfig> configs = new HashMap<>();
+        SimpleMeterRegistry child = new SimpleMeterRegistry() {
+            @Override
+            protected Timer newTimer(Meter.Id id, DistributionStatisticConfig distributionStatisticConfig,
+                                     PauseDetector pauseDetector) {
+                configs.put(id.getName(), distributionStatisticConfig);
+                return super.newTimer(id, distributionStatisticConfig, pauseDetector);
+            }
+
+            @Override
+            protected DistributionSummary newDistributionSummary(Meter.Id id,
+                                                                 DistributionStatisticConfig distributionStatisticConfig,
+                                                                 double scale) {
+                configs.put(id.getName(), distributionStatisticConfig);
+                return super.newDistributionSummary(id, distributionStatisticConfig, scale);
+            }
+
+            @Override
+            protected LongTaskTimer newLongTaskTimer(Meter.Id id,
+                                                     DistributionStatisticConfig distributionStatisticConfig) {
+                configs.put(id.getName(), distributionStatisticConfig);
+                return super.newLongTaskTimer(id, distributionStatisticConfig);
+            }
+        };
+
+        Timer.builder("timer").percentileEngine(PercentileEngine.LOG_LINEAR)
+                .distributionStatisticBackgroundRotation(true).register(composite);
+        DistributionSummary.builder("summary").percentileEngine(PercentileEngine.LOG_LINEAR)
+                .distributionStatisticBackgroundRotation(true).register(composite);
+        LongTaskTimer.builder("long.task.timer").percentileEngine(PercentileEngine.LOG_LINEAR)
+                .distributionStatisticBackgroundRotation(true).register(composite);
+        composite.add(child);
+
+        assertThat(configs).hasSize(3);
+        configs.values().forEach(config -> {
+            assertThat(config.getPercentileEngine()).isEqualTo(PercentileEngine.LOG_LINEAR);
+            assertThat(config.isBackgroundRotation()).isTrue();
+        });
+    }
+
+    @Test
+    void descendantsOfNestedCompositeAreAddedInOrder() {
+        CompositeMeterRegistry nested = new CompositeMeterRegistry();
+        SimpleMeterRegistry[] children = new SimpleMeterRegistry[8];
+        for (int i = 0; i < children.length; i++) {
+            children[i] = new SimpleMeterRegistry();
+            nested.add(children[i]);
+        }
+
+        Counter counter = composite.counter("counter");
+        composite.add(nested);
+
+        // the first child is the one recorded to synchronously when secondaries are recorded asynchronously
+        Object[] childCounters = ((CompositeCounter) counter).children();
+        for (int i = 0; i < children.length; i++) {
+            assertThat(childCounters[i]).isSameAs(children[i].get("counter").counter());
+        }
+    }
+
+    @Test
+    void secondaryRegistriesRecordedAsynchronously() {
+        SimpleMeterRegistry primary = new SimpleMeterRegistry();
+        SimpleMeterRegistry secondary = new SimpleMeterRegistry();
+        composite.add(primary).add(secondary).recordSecondariesAsynchronously(1024);
+
+        composite.counter("counter").increment(2);
+        composite.timer("timer").record(Duration.ofMillis(10));
+        composite.summary("summary").record(3);
+
+        assertThat(primary.get("counter").counter().count()).isEqualTo(2);
+        assertThat(primary.get("timer").timer().totalTime(TimeUnit.MILLISECONDS)).isEqualTo(10);
+        assertThat(primary.get("summary").summary().totalAmount()).isEqualTo(3);
+
+        // closing forwards whatever is still queued
+        composite.close();
+        assertThat(secondary.get("counter").counter().count()).isEqualTo(2);
+        assertThat(secondary.get("timer").timer().totalTime(TimeUnit.MILLISECONDS)).isEqualTo(10);
+        assertThat(secondary.get("summary").summary().totalAmount()).isEqualTo(3);
+        assertThat(primary.get("micrometer.composite.async.dropped").functionCounter().count()).isZero();
+    }
+
+    @Test
+    void asynchronousRecordingCanOnlyBeEnabledOnce() {
+        composite.recordSecondariesAsynchronously(16);
+        assertThatThrownBy(() -> composite.recordSecondariesAsynchronously(16)).isInstanceOf(IllegalStateException.class);
+        composite.close();
+    }
+
     @Test
     void compositeCannotContainItself() {
         assertThatThrownBy(() -> composite.add(composite)).isInstanceOf(IllegalArgumentException.class);
@@ -35,4 +35,16 @@ class DistributionStatisticConfigTest {
         assertThat(merged.getPercentiles()).containsExactly(0.90);
         assertThat(merged.getExpiry()).isEqualTo(Duration.ofMinutes(2));
     }
+
+    @Test
+    void mergePercentileEngine() {
+        DistributionStatisticConfig logLinear = DistributionStatisticConfig.builder()
+                .percentileEngine(PercentileEngine.LOG_LINEAR)
+                .build();
+
+        assertThat(logLinear.merge(DistributionStatisticConfig.DEFAULT).getPercentileEngine())
+                .isEqualTo(PercentileEngine.LOG_LINEAR);
+        assertThat(DistributionStatisticConfig.NONE.merge(DistributionStatisticConfig.DEFAULT).getPercentileEngine())
+                .isEqualTo(PercentileEngine.HDR_HISTOGRAM);
+    }
 }
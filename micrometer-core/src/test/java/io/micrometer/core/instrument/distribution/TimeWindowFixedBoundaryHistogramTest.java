@@ -19,6 +19,9 @@ import io.micrometer.core.instrument.Clock;
 import io.micrometer.core.instrument.MockClock;
 import org.junit.jupiter.api.Test;
 
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 class TimeWindowFixedBoundaryHistogramTest {
@@ -69,4 +72,121 @@ class TimeWindowFixedBoundaryHistogramTest {
             );
         }
     }
+
+    @Test
+    void percentileBucketIndexMatchesBinarySearch() {
+        DistributionStatisticConfig[] configs = {
+                DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .minimumExpectedValue((double) TimeUnit.MILLISECONDS.toNanos(1))
+                        .maximumExpectedValue((double) TimeUnit.SECONDS.toNanos(30))
+                        .build(),
+                DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .serviceLevelObjectives(2.5, 100, 1000.5, 5e6, 5e6 + 1)
+                        .build(),
+                DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .minimumExpectedValue(20.0)
+                        .maximumExpectedValue(1e15)
+                        .build()
+        };
+
+        Random random = new Random(1);
+        for (DistributionStatisticConfig config : configs) {
+            try (TimeWindowFixedBoundaryHistogram histogram = new TimeWindowFixedBoundaryHistogram(new MockClock(),
+                    config.merge(DistributionStatisticConfig.DEFAULT), true)) {
+                TimeWindowFixedBoundaryHistogram.FixedBoundaryHistogram bucket = histogram.newBucket();
+                for (long value = -1; value < 100_000; value++) {
+                    assertThat(bucket.bucketIndex(value)).isEqualTo(bucket.leastLessThanOrEqualTo(value));
+                }
+                for (int i = 0; i < 100_000; i++) {
+                    long value = random.nextLong() >>> (1 + random.nextInt(62));
+                    assertThat(bucket.bucketIndex(value)).isEqualTo(bucket.leastLessThanOrEqualTo(value));
+                }
+            }
+        }
+    }
+
+    @Test
+    void percentileBucketIndexOfEveryBucketBoundary() {
+        double[] buckets = PercentileHistogramBuckets.buckets(DistributionStatisticConfig.DEFAULT).stream()
+                .mapToDouble(Double::doubleValue).toArray();
+        for (int i = 0; i < buckets.length - 1 && buckets[i] < PercentileHistogramBuckets.MAX_INDEXED_VALUE; i++) {
+            long boundary = (long) buckets[i];
+            assertThat(PercentileHistogramBuckets.indexOf(boundary)).isEqualTo(i);
+            assertThat(PercentileHistogramBuckets.indexOf(boundary + 1)).isEqualTo(i + 1);
+        }
+    }
+
+    @Test
+    void bucketCountsAreAllocatedOnFirstIncrement() {
+        TimeWindowFixedBoundaryHistogram.BucketCounts counts = new TimeWindowFixedBoundaryHistogram.BucketCounts(37);
+        assertThat(counts.length()).isEqualTo(37);
+        assertThat(counts.get(0)).isZero();
+        assertThat(counts.get(36)).isZero();
+
+        counts.increment(0);
+        counts.increment(17);
+        counts.increment(17);
+        counts.increment(36);
+
+        assertThat(counts.get(0)).isEqualTo(1);
+        assertThat(counts.get(1)).isZero();
+        assertThat(counts.get(17)).isEqualTo(2);
+        assertThat(counts.get(36)).isEqualTo(1);
+
+        counts.reset();
+        for (int i = 0; i < counts.length(); i++) {
+            assertThat(counts.get(i)).isZero();
+        }
+    }
+
+    @Test
+    void percentileHistogramSnapshotCountsSamplesInSparseBuckets() {
+        try (TimeWindowFixedBoundaryHistogram histogram = new TimeWindowFixedBoundaryHistogram(new MockClock(),
+                DistributionStatisticConfig.builder()
+                        .percentilesHistogram(true)
+                        .build()
+                        .merge(DistributionStatisticConfig.DEFAULT), true)) {
+
+            histogram.recordLong(2);
+            histogram.recordLong(1000);
+            histogram.recordLong(1_000_000_000L);
+
+            CountAtBucket[] counts = histogram.takeSnapshot(0, 0, 0).histogramCounts();
+            assertThat(counts).hasSize(276);
+            for (CountAtBucket count : counts) {
+                double bucket = count.bucket();
+                double expected = (bucket >= 2 ? 1 : 0) + (bucket >= 1000 ? 1 : 0) + (bucket >= 1_000_000_000L ? 1 : 0);
+                assertThat(count.count()).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void unchangedCountsAreReusedAcrossSnapshots() {
+        try (TimeWindowFixedBoundaryHistogram histogram = new TimeWindowFixedBoundaryHistogram(new MockClock(),
+                DistributionStatisticConfig.builder()
+                        .serviceLevelObjectives(3.0, 6, 7)
+                        .bufferLength(1)
+                        .build()
+                        .merge(DistributionStatisticConfig.DEFAULT), false)) {
+
+            histogram.recordDouble(3);
+            CountAtBucket[] first = histogram.takeSnapshot(0, 0, 0).histogramCounts();
+
+            histogram.recordDouble(7);
+            CountAtBucket[] second = histogram.takeSnapshot(0, 0, 0).histogramCounts();
+
+            assertThat(second).containsExactly(
+                    new CountAtBucket(3.0, 1),
+                    new CountAtBucket(6.0, 1),
+                    new CountAtBucket(7.0, 2));
+            assertThat(second).isNotSameAs(first);
+            assertThat(second[0]).isSameAs(first[0]);
+            assertThat(second[1]).isSameAs(first[1]);
+            assertThat(second[2]).isNotSameAs(first[2]);
+        }
+    }
 }
@@ -0,0 +1,208 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.distribution;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.config.InvalidConfigurationException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class TimeWindowLogLinearHistogramTest {
+
+    @Test
+    void percentilesHaveBoundedRelativeError() {
+        try (TimeWindowLogLinearHistogram histogram = new TimeWindowLogLinearHistogram(new MockClock(),
+                DistributionStatisticConfig.builder()
+                        .percentiles(0.5, 0.9, 0.99)
+                        .percentilePrecision(2)
+                        .build()
+                        .merge(DistributionStatisticConfig.DEFAULT), false)) {
+
+            for (long i = 1; i <= 10_000; i++) {
+                histogram.recordLong(i * 1000);
+            }
+
+            ValueAtPercentile[] percentiles = histogram.takeSnapshot(0, 0, 0).percentileValues();
+            // 7 mantissa bits, so the midpoint of a bucket is within 2^-8 of any value in it
+            assertThat(percentiles[0].value()).isCloseTo(5_000_000, within(5_000_000 / 256.0));
+            assertThat(percentiles[1].value()).isCloseTo(9_000_000, within(9_000_000 / 256.0));
+            assertThat(percentiles[2].value()).isCloseTo(9_900_000, within(9_900_000 / 256.0));
+        }
+    }
+
+    @Test
+    void percentilesInAnyOrderMatchIndividualLookups() {
+        try (TimeWindowLogLinearHistogram histogram = new TimeWindowLogLinearHistogram(new MockClock(),
+                DistributionStatisticConfig.builder()
+                        .percentiles(0.99, 0.5, 0.0, 1.0, 0.5)
+                        .build()
+                        .merge(DistributionStatisticConfig.DEFAULT), false)) {
+
+            for (long i = 1; i <= 1000; i++) {
+                histogram.recordLong(i);
+            }
+
+            ValueAtPercentile[] percentiles = histogram.takeSnapshot(0, 0, 0).percentileValues();
+            for (ValueAtPercentile percentile : percentiles) {
+                assertThat(percentile.value()).isEqualTo(histogram.valueAtPercentile(percentile.percentile() * 100));
+            }
+        }
+    }
+
+    @Test
+    void histogramsAreCumulative() {
+        try (TimeWindowLogLinearHistogram histogram = new TimeWindowLogLinearHistogram(new MockClock(),
+                DistributionStatisticConfig.builder()
+                        .serviceLevelObjectives(3.0, 6, 7)
+                        .build()
+                        .merge(DistributionStatisticConfig.DEFAULT), false)) {
+
+            histogram.recordDouble(3);
+
+            assertThat(histogram.takeSnapshot(0, 0, 0).histogramCounts()).containsExactly(
+                    new CountAtBucket(3.0, 1),
+                    new CountAtBucket(6.0, 1),
+                    new CountAtBucket(7.0, 1));
+
+            histogram.recordDouble(6);
+
+            assertThat(histogram.takeSnapshot(0, 0, 0).histogramCounts()).containsExactly(
+                    new CountAtBucket(3.0, 1),
+                    new CountAtBucket(6.0, 2),
+                    new CountAtBucket(7.0, 2));
+        }
+    }
+
+    @Test
+    void boundaryInsideBucketCountsNoSampleAboveIt() {
+        try (TimeWindowLogLinearHistogram histogram = new TimeWindowLogLinearHistogram(new MockClock(),
+                DistributionStatisticConfig.builder()
+                        .serviceLevelObjectives(100.0, 101.0, 104.0)
+                        .build()
+                        .merge(DistributionStatisticConfig.DEFAULT), false)) {
+
+            // 100 and 104 are bucket bounds, and 101 falls inside the bucket of 102
+            histogram.recordDouble(100);
+            histogram.recordDouble(102);
+
+            assertThat(histogram.takeSnapshot(0, 0, 0).histogramCounts()).containsExactly(
+                    new CountAtBucket(100.0, 1),
+                    new CountAtBucket(101.0, 1),
+                    new CountAtBucket(104.0, 2));
+            assertThat(histogram.countAtValue(101)).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void samplesOutsideExpectedRangeAreClamped() {
+        try (TimeWindowLogLinearHistogram histogram = new TimeWindowLogLinearHistogram(new MockClock(),
+                DistributionStatisticConfig.builder()
+                        .percentiles(0.0, 1.0)
+                        .minimumExpectedValue(10.0)
+                        .maximumExpectedValue(100.0)
+                        .build()
+                        .merge(DistributionStatisticConfig.DEFAULT), false)) {
+
+            histogram.recordDouble(0);
+            histogram.recordDouble(Double.MAX_VALUE);
+            histogram.recordDouble(Double.NaN);
+
+            ValueAtPercentile[] percentiles = histogram.takeSnapshot(0, 0, 0).percentileValues();
+            assertThat(percentiles[0].value()).isEqualTo(0);
+            assertThat(percentiles[1].value()).isEqualTo(128);
+        }
+    }
+
+    @Test
+    void rangeIsCappedAtLargestFiniteValues() {
+        try (TimeWindowLogLinearHistogram histogram = new TimeWindowLogLinearHistogram(new MockClock(),
+                DistributionStatisticConfig.builder()
+                        .percentiles(1.0)
+                        .minimumExpectedValue(1e300)
+                        .build()
+                        .merge(DistributionStatisticConfig.DEFAULT), false)) {
+
+            histogram.recordDouble(Double.MAX_VALUE);
+            assertThat(histogram.takeSnapshot(0, 0, 0).percentileValues()[0].value())
+                    .isCloseTo(Double.MAX_VALUE, within(Double.MAX_VALUE / 32.0));
+        }
+    }
+
+    @Test
+    void infiniteMinimumIsRejected() {
+        assertThatThrownBy(() -> new TimeWindowLogLinearHistogram(new MockClock(),
+                DistributionStatisticConfig.builder()
+                        .percentiles(0.5)
+                        .minimumExpectedValue(Double.POSITIVE_INFINITY)
+                        .build()
+                        .merge(DistributionStatisticConfig.DEFAULT), false))
+                .isInstanceOf(InvalidConfigurationException.class);
+    }
+
+    @Test
+    void bucketIndexMatchesBucketBounds() {
+        try (TimeWindowLogLinearHistogram histogram = new TimeWindowLogLinearHistogram(new MockClock(),
+                DistributionStatisticConfig.builder()
+                        .percentiles(0.5)
+                        .build()
+                        .merge(DistributionStatisticConfig.DEFAULT), false)) {
+
+            for (int i = 1; i < histogram.bucketCount() - 1; i++) {
+                double upper = histogram.upperBound(i);
+                assertThat(histogram.bucketIndex(upper)).isEqualTo(i);
+                assertThat(histogram.bucketIndex(Math.nextUp(histogram.upperBound(i - 1)))).isEqualTo(i);
+            }
+        }
+    }
+
+    @Test
+    void samplesExpireWithTheRingBuffer() {
+        MockClock clock = new MockClock();
+        try (TimeWindowLogLinearHistogram histogram = new TimeWindowLogLinearHistogram(clock,
+                DistributionStatisticConfig.builder()
+                        .percentiles(0.5)
+                        .expiry(Duration.ofMinutes(1))
+                        .bufferLength(2)
+                        .build()
+                        .merge(DistributionStatisticConfig.DEFAULT), false)) {
+
+            histogram.recordLong(100);
+            assertThat(histogram.takeSnapshot(0, 0, 0).percentileValues()[0].value()).isCloseTo(100, within(100 / 32.0));
+
+            clock.add(30, TimeUnit.SECONDS);
+            histogram.recordLong(1000);
+            assertThat(histogram.takeSnapshot(0, 0, 0).percentileValues()[0].value()).isCloseTo(100, within(100 / 32.0));
+
+            clock.add(30, TimeUnit.SECONDS);
+            assertThat(histogram.takeSnapshot(0, 0, 0).percentileValues()[0].value()).isCloseTo(1000, within(1000 / 32.0));
+        }
+    }
+
+    @Test
+    void subBucketBitsCoverRequestedPrecision() {
+        assertThat(TimeWindowLogLinearHistogram.subBucketBits(0)).isEqualTo(1);
+        assertThat(TimeWindowLogLinearHistogram.subBucketBits(1)).isEqualTo(4);
+        assertThat(TimeWindowLogLinearHistogram.subBucketBits(2)).isEqualTo(7);
+        assertThat(TimeWindowLogLinearHistogram.subBucketBits(3)).isEqualTo(10);
+        assertThat(TimeWindowLogLinearHistogram.subBucketBits(5)).isEqualTo(10);
+    }
+}
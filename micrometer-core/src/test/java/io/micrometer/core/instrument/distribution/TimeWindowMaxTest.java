@@ -0,0 +1,142 @@
+/**
+ * Copyright 2017 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.distribution;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MockClock;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for {@link TimeWindowMax}.
+ */
+class TimeWindowMaxTest {
+    private final MockClock clock = new MockClock();
+
+    @Test
+    void maxDecaysAfterBufferLengthRotations() {
+        TimeWindowMax max = new TimeWindowMax(clock, 1000, 3);
+
+        max.record(5, TimeUnit.SECONDS);
+        assertThat(max.poll(TimeUnit.SECONDS)).isEqualTo(5);
+
+        clock.add(1, TimeUnit.SECONDS);
+        max.record(2, TimeUnit.SECONDS);
+        assertThat(max.poll(TimeUnit.SECONDS)).isEqualTo(5);
+
+        clock.add(2, TimeUnit.SECONDS);
+        assertThat(max.poll(TimeUnit.SECONDS)).isEqualTo(2);
+
+        clock.add(1, TimeUnit.SECONDS);
+        assertThat(max.poll(TimeUnit.SECONDS)).isZero();
+    }
+
+    @Test
+    void unscaledMax() {
+        TimeWindowMax max = new TimeWindowMax(clock, 1000, 3);
+        max.record(1.5);
+        max.record(0.5);
+        assertThat(max.poll()).isEqualTo(1.5);
+    }
+
+    @Test
+    void concurrentRecordingsAreMergedOnPoll() throws InterruptedException {
+        TimeWindowMax max = new TimeWindowMax(clock, 1000, 3);
+
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            int offset = t;
+            executor.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < 100_000; i++) {
+                    max.record(i + offset);
+                }
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(max.poll()).isEqualTo(99_999 + threads - 1);
+
+        // rotation resets every stripe
+        clock.add(3, TimeUnit.SECONDS);
+        assertThat(max.poll()).isZero();
+    }
+
+    @Test
+    void recordingDoesNotRotateWhenRotatedInBackground() {
+        TimeWindowMax max = new TimeWindowMax(clock, DistributionStatisticConfig.builder()
+                .expiry(Duration.ofDays(1))
+                .bufferLength(2)
+                .backgroundRotation(true)
+                .build());
+
+        max.record(5, TimeUnit.SECONDS);
+        clock.add(Duration.ofDays(3));
+        max.record(2, TimeUnit.SECONDS);
+
+        // the ticker has not caught up, so polling rotates both entries, discarding even the latest sample
+        assertThat(max.poll(TimeUnit.SECONDS)).isZero();
+    }
+
+    @Test
+    void backgroundTickerRotates() throws InterruptedException {
+        TimeWindowMax max = new TimeWindowMax(Clock.SYSTEM, DistributionStatisticConfig.builder()
+                .expiry(Duration.ofMillis(100))
+                .bufferLength(2)
+                .backgroundRotation(true)
+                .build());
+
+        max.record(5, TimeUnit.SECONDS);
+        Thread.sleep(500);
+        max.record(2, TimeUnit.SECONDS);
+
+        // had rotation been left to the poll, catching up would have reset both entries
+        assertThat(max.poll(TimeUnit.SECONDS)).isEqualTo(2);
+    }
+
+    @Test
+    void closedMaxIsNoLongerRotatedInBackground() throws InterruptedException {
+        TimeWindowMax max = new TimeWindowMax(Clock.SYSTEM, DistributionStatisticConfig.builder()
+                .expiry(Duration.ofMillis(100))
+                .bufferLength(2)
+                .backgroundRotation(true)
+                .build());
+        max.close();
+
+        max.record(5, TimeUnit.SECONDS);
+        Thread.sleep(500);
+        max.record(2, TimeUnit.SECONDS);
+
+        // left to the poll, catching up resets both entries
+        assertThat(max.poll(TimeUnit.SECONDS)).isZero();
+    }
+}
@@ -24,6 +24,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -31,7 +32,8 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 class TimeWindowRotationTest {
 
     static Collection<Class<? extends AbstractTimeWindowHistogram<?, ?>>> histogramTypes() {
-        return Arrays.asList(TimeWindowPercentileHistogram.class, TimeWindowFixedBoundaryHistogram.class);
+        return Arrays.asList(TimeWindowPercentileHistogram.class, TimeWindowFixedBoundaryHistogram.class,
+                TimeWindowLogLinearHistogram.class);
     }
 
     private static void expectValidationFailure(Class<? extends AbstractTimeWindowHistogram<?, ?>> histogramType,
@@ -94,4 +96,27 @@ class TimeWindowRotationTest {
             .bufferLength(10)
             .build());
     }
+
+    @ParameterizedTest
+    @MethodSource("histogramTypes")
+    void recordingDoesNotRotateWhenRotatedInBackground(Class<? extends AbstractTimeWindowHistogram<?, ?>> histogramType) throws Exception {
+        MockClock clock = new MockClock();
+        try (AbstractTimeWindowHistogram<?, ?> histogram = newHistogram(histogramType, clock, DistributionStatisticConfig.builder()
+            .percentiles(0.5)
+            .expiry(Duration.ofDays(1))
+            .bufferLength(2)
+            .backgroundRotation(true)
+            .build()
+            .merge(DistributionStatisticConfig.DEFAULT))) {
+
+            Object current = histogram.currentHistogram();
+            clock.add(12, TimeUnit.HOURS);
+            histogram.recordDouble(1);
+            assertThat(histogram.currentHistogram()).isSameAs(current);
+
+            // snapshots still rotate, so that a late tick never publishes expired samples
+            histogram.takeSnapshot(0, 0, 0);
+            assertThat(histogram.currentHistogram()).isNotSameAs(current);
+        }
+    }
 }
@@ -15,6 +15,8 @@
  */
 package io.micrometer.core.instrument.push;
 
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.MockClock;
 import io.micrometer.core.instrument.step.StepMeterRegistry;
 import io.micrometer.core.instrument.step.StepRegistryConfig;
@@ -23,12 +25,20 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Tests for {@link PushMeterRegistry}.
@@ -73,6 +83,208 @@ class PushMeterRegistryTest {
         assertThatCode(() -> pushMeterRegistry.close()).doesNotThrowAnyException();
     }
 
+    @Test
+    void pipelinedPublishOverlapsSerializationWithSending() throws Throwable {
+        BatchingPushMeterRegistry registry = new BatchingPushMeterRegistry(pipelinedConfig());
+        registry.start(threadFactory);
+        try {
+            List<List<Meter>> batches = batches(registry, 5);
+            CountDownLatch secondBatchSerialized = new CountDownLatch(1);
+            AtomicBoolean overlapped = new AtomicBoolean();
+            Set<Integer> sent = ConcurrentHashMap.newKeySet();
+
+            registry.publishBatches(batches,
+                    batch -> {
+                        if (batch == batches.get(1)) {
+                            secondBatchSerialized.countDown();
+                        }
+                        return batches.indexOf(batch);
+                    },
+                    (batch, index) -> {
+                        if (index == 0) {
+                            // would time out if batch 1 were only serialized after batch 0 was sent
+                            overlapped.set(secondBatchSerialized.await(5, TimeUnit.SECONDS));
+                        }
+                        sent.add(index);
+                    });
+
+            assertThat(overlapped).isTrue();
+            assertThat(sent).containsExactlyInAnyOrder(0, 1, 2, 3, 4);
+            assertThat(registry.get("micrometer.publish.queued.batches").gauge().value()).isZero();
+        } finally {
+            registry.close();
+        }
+    }
+
+    @Test
+    void pipelinedPublishRethrowsFirstFailure() {
+        BatchingPushMeterRegistry registry = new BatchingPushMeterRegistry(pipelinedConfig());
+        registry.start(threadFactory);
+        try {
+            List<List<Meter>> batches = batches(registry, 3);
+            assertThatThrownBy(() -> registry.publishBatches(batches, batches::indexOf, (batch, index) -> {
+                if (index == 1) {
+                    throw new IllegalStateException("backend unavailable");
+                }
+            })).isInstanceOf(IllegalStateException.class).hasMessage("backend unavailable");
+        } finally {
+            registry.close();
+        }
+    }
+
+    @Test
+    void publishBatchesInTurnWithoutPipeline() throws Throwable {
+        BatchingPushMeterRegistry registry = new BatchingPushMeterRegistry(config);
+        List<List<Meter>> batches = batches(registry, 3);
+        List<Integer> sent = new ArrayList<>();
+
+        registry.publishBatches(batches, batches::indexOf, (batch, index) -> sent.add(index));
+
+        assertThat(sent).containsExactly(0, 1, 2);
+        assertThat(registry.find("micrometer.publish").timer()).isNull();
+    }
+
+    private static List<List<Meter>> batches(MeterRegistry registry, int count) {
+        List<List<Meter>> batches = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            batches.add(Collections.singletonList(registry.counter("batch." + i)));
+        }
+        return batches;
+    }
+
+    @Test
+    void shardsPublishDisjointSubsetsOfTheMeters() throws InterruptedException {
+        List<Set<String>> published = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch publishes = new CountDownLatch(4);
+        MeterRegistry registry = new ShardedPushMeterRegistry(shardedConfig(), published, publishes);
+        for (int i = 0; i < 20; i++) {
+            registry.counter("counter." + i);
+        }
+
+        registry.start(threadFactory);
+        assertThat(publishes.await(5, TimeUnit.SECONDS)).isTrue();
+        registry.close();
+
+        Set<Set<String>> shards = new HashSet<>(published.subList(0, 4));
+        assertThat(shards).hasSize(2);
+        Set<String> union = new HashSet<>();
+        shards.forEach(union::addAll);
+        assertThat(union).hasSize(20);
+        assertThat(shards.stream().mapToInt(Set::size).sum()).isEqualTo(20);
+
+    }
+
+    @Test
+    void registryThatDoesNotPublishShardsPublishesEveryMeterWithTheFirstShard() throws InterruptedException {
+        List<Integer> published = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch publishes = new CountDownLatch(2);
+        MeterRegistry registry = new StepMeterRegistry(shardedConfig(), new MockClock()) {
+            @Override
+            protected void publish() {
+                published.add(getMeters().size());
+                publishes.countDown();
+            }
+
+            @Override
+            protected TimeUnit getBaseTimeUnit() {
+                return TimeUnit.MILLISECONDS;
+            }
+        };
+        for (int i = 0; i < 20; i++) {
+            registry.counter("counter." + i);
+        }
+
+        registry.start(threadFactory);
+        assertThat(publishes.await(5, TimeUnit.SECONDS)).isTrue();
+        registry.stop();
+
+        assertThat(published.subList(0, 2)).containsOnly(20);
+    }
+
+    private static StepRegistryConfig shardedConfig() {
+        return new StepRegistryConfig() {
+            @Override
+            public String prefix() {
+                return "sharded";
+            }
+
+            @Override
+            public Duration step() {
+                return Duration.ofMillis(50);
+            }
+
+            @Override
+            public String get(String key) {
+                return "sharded.publishShards".equals(key) ? "2" : null;
+            }
+        };
+    }
+
+    private static StepRegistryConfig pipelinedConfig() {
+        return new StepRegistryConfig() {
+            @Override
+            public String prefix() {
+                return "pipelined";
+            }
+
+            @Override
+            public String get(String key) {
+                switch (key) {
+                    case "pipelined.publishParallelism":
+                    case "pipelined.maxInFlightBatches":
+                        return "2";
+                    default:
+                        return null;
+                }
+            }
+        };
+    }
+
+    static class BatchingPushMeterRegistry extends StepMeterRegistry {
+        BatchingPushMeterRegistry(StepRegistryConfig config) {
+            super(config, new MockClock());
+        }
+
+        @Override
+        protected void publish() {
+        }
+
+        @Override
+        protected TimeUnit getBaseTimeUnit() {
+            return TimeUnit.MILLISECONDS;
+        }
+    }
+
+    static class ShardedPushMeterRegistry extends StepMeterRegistry {
+        private final List<Set<String>> published;
+        private final CountDownLatch publishes;
+
+        ShardedPushMeterRegistry(StepRegistryConfig config, List<Set<String>> published, CountDownLatch publishes) {
+            super(config, new MockClock());
+            this.published = published;
+            this.publishes = publishes;
+        }
+
+        @Override
+        protected void publish() {
+        }
+
+        @Override
+        protected void publish(int shard, List<Meter> meters) {
+            Set<String> names = new HashSet<>();
+            meters.forEach(meter -> names.add(meter.getId().getName()));
+            // the registry itself still sees every meter
+            assertThat(getMeters()).hasSize(20);
+            published.add(names);
+            publishes.countDown();
+        }
+
+        @Override
+        protected TimeUnit getBaseTimeUnit() {
+            return TimeUnit.MILLISECONDS;
+        }
+    }
+
     static class ThrowingPushMeterRegistry extends StepMeterRegistry {
 
         final CountDownLatch countDownLatch;
@@ -19,6 +19,7 @@ import io.micrometer.core.instrument.config.validate.Validated;
 import io.micrometer.core.instrument.config.validate.ValidationException;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -77,4 +78,25 @@ class PushRegistryConfigTest {
 
         assertThat(config.validate().isValid()).isTrue();
     }
+
+    @Test
+    void publishPipelineMustBeAtLeastOneWide() {
+        props.put("push.publishParallelism", "0");
+        props.put("push.maxInFlightBatches", "0");
+
+        assertThat(config.validate().failures().stream().map(Validated.Invalid::getMessage))
+                .containsExactly("must be greater than 0", "must be greater than 0");
+    }
+
+    @Test
+    void publishShardsAndJitter() {
+        assertThat(config.publishShards()).isEqualTo(1);
+        assertThat(config.publishJitter()).isEqualTo(Duration.ZERO);
+
+        props.put("push.publishShards", "0");
+        props.put("push.publishJitter", "-PT1S");
+
+        assertThat(config.validate().failures().stream().map(Validated.Invalid::getMessage))
+                .containsExactly("must be greater than 0", "must not be negative");
+    }
 }
@@ -151,4 +151,9 @@ class RequiredSearchTest {
     void allMetersWithTagKey() {
         assertThat(RequiredSearch.in(registry).tagKeys("k", "k2").counter()).isNotNull();
     }
+
+    @Test
+    void namePredicateReplacesExactName() {
+        assertThat(RequiredSearch.in(registry).name("my.counter").name(n -> n.equals("my.timer")).timer()).isNotNull();
+    }
 }
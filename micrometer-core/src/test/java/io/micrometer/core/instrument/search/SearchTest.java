@@ -70,4 +70,19 @@ class SearchTest {
     void allMetersWithTagKey() {
         assertThat(Search.in(registry).tagKeys("k", "k2").counter()).isNotNull();
     }
+
+    @Test
+    void removedMetersAreNoLongerFound() {
+        registry.remove(Search.in(registry).name("my.counter").tags("k2", "v2").counter());
+
+        assertThat(Search.in(registry).tag("k2", "v2").meters()).isEmpty();
+        assertThat(Search.in(registry).name("my.counter").meters()).hasSize(1);
+        assertThat(Search.in(registry).tagKeys("k2").meters()).isEmpty();
+    }
+
+    @Test
+    void namePredicateReplacesExactName() {
+        assertThat(Search.in(registry).name("my.counter").name(n -> n.equals("my.timer")).meters()).hasSize(1);
+        assertThat(Search.in(registry).name("my.counter").name("my.timer").timer()).isNotNull();
+    }
 }
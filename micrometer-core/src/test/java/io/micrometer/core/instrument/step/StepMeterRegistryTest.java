@@ -20,6 +20,7 @@ import io.micrometer.core.instrument.*;
 import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -161,4 +162,64 @@ class StepMeterRegistryTest {
             softly.assertThat(timerStep1Length6.max(MILLISECONDS)).isEqualTo(0L);
         });
     }
+
+    @Test
+    void publishReportsEveryMeterForTheStepClosedBeforePublishing() {
+        List<Double> published = new ArrayList<>();
+        StepMeterRegistry slowRegistry = new StepMeterRegistry(config, clock) {
+            @Override
+            protected void publish() {
+                published.add(get("my.counter").counter().count());
+                // the publish runs past the next step boundary
+                ((MockClock) clock).add(config.step());
+                published.add(get("my.counter").counter().count());
+                published.add(get("my.timer").timer().count() * 1.0);
+            }
+
+            @Override
+            protected TimeUnit getBaseTimeUnit() {
+                return TimeUnit.SECONDS;
+            }
+        };
+
+        Counter counter = slowRegistry.counter("my.counter");
+        Timer timer = slowRegistry.timer("my.timer");
+        counter.increment();
+        timer.record(1, MILLISECONDS);
+        clock.add(config.step());
+
+        slowRegistry.close();
+
+        assertThat(published).containsExactly(1.0, 1.0, 1.0);
+
+        // once the publish completes, meters roll over lazily again
+        assertThat(counter.count()).isZero();
+    }
+
+    @Test
+    void maxKeepsDecayingWhileStepIsHeldForPublishing() {
+        List<Double> published = new ArrayList<>();
+        StepMeterRegistry slowRegistry = new StepMeterRegistry(config, clock) {
+            @Override
+            protected void publish() {
+                published.add(get("my.timer").timer().max(MILLISECONDS));
+                // the publish outlives every entry of the max's ring buffer
+                ((MockClock) clock).add(config.step().multipliedBy(4));
+                published.add(get("my.timer").timer().max(MILLISECONDS));
+                published.add(get("my.timer").timer().count() * 1.0);
+            }
+
+            @Override
+            protected TimeUnit getBaseTimeUnit() {
+                return TimeUnit.SECONDS;
+            }
+        };
+
+        slowRegistry.timer("my.timer").record(1, MILLISECONDS);
+        clock.add(config.step());
+
+        slowRegistry.close();
+
+        assertThat(published).containsExactly(1.0, 0.0, 1.0);
+    }
 }
@@ -0,0 +1,120 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.instrument.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StreamingMeterPartitionTest {
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void cutsBatchesOnMeterCount() {
+        for (int i = 0; i < 5; i++) {
+            registry.counter("c" + i);
+        }
+
+        List<String> batches = partition(new StreamingMeterPartition(2, Integer.MAX_VALUE, "[", ",", "]"));
+
+        assertThat(batches).hasSize(3);
+        assertThat(batches.get(2)).matches("\\[c\\d]");
+        assertThat(batches.stream().mapToInt(batch -> batch.split(",").length).sum()).isEqualTo(5);
+    }
+
+    @Test
+    void cutsBatchesOnByteBudget() {
+        for (int i = 0; i < 4; i++) {
+            registry.counter("c" + i);
+        }
+
+        // "[c0,c1]" is 7 bytes, but a third meter would take it to 10
+        List<String> batches = partition(new StreamingMeterPartition(100, 9, "[", ",", "]"));
+
+        assertThat(batches).hasSize(2);
+        assertThat(batches).allSatisfy(batch -> assertThat(batch).matches("\\[c\\d,c\\d]"));
+    }
+
+    @Test
+    void meterLargerThanBudgetIsSentAlone() {
+        registry.counter("a-very-long-meter-name");
+        registry.counter("b");
+
+        List<String> batches = partition(new StreamingMeterPartition(100, 8, "[", ",", "]"));
+
+        assertThat(batches).containsExactlyInAnyOrder("[a-very-long-meter-name]", "[b]");
+    }
+
+    @Test
+    void metersWithoutRecordsCountTowardsBatchSize() {
+        registry.counter("c0");
+        registry.counter("c1");
+
+        List<String> batches = new ArrayList<>();
+        new StreamingMeterPartition(1, Integer.MAX_VALUE, "[", ",", "]")
+                .forEachBatch(registry, m -> Stream.empty(), batch -> batches.add(batch.toString()));
+
+        assertThat(batches).containsExactly("[]", "[]");
+    }
+
+    @Test
+    void failingMeterIsLeftOutAndRethrownAfterRemainingBatches() {
+        for (int i = 0; i < 4; i++) {
+            registry.counter("c" + i);
+        }
+
+        List<String> batches = new ArrayList<>();
+        assertThatThrownBy(() -> new StreamingMeterPartition(2, Integer.MAX_VALUE, "[", ",", "]")
+                .forEachBatch(registry, m -> Stream.of(m.getId().getName()).peek(name -> {
+                    if (name.equals("c1")) {
+                        throw new IllegalStateException("serializer failure");
+                    }
+                }), batch -> batches.add(batch.toString())))
+                .hasMessage("serializer failure");
+
+        assertThat(batches).hasSize(2);
+        assertThat(String.join("", batches)).contains("c0", "c2", "c3").doesNotContain("c1");
+    }
+
+    @Test
+    void emptyRegistryHasNoBatches() {
+        assertThat(partition(new StreamingMeterPartition(10, 10, "[", ",", "]"))).isEmpty();
+    }
+
+    @Test
+    void batchLimitsMustBePositive() {
+        assertThatThrownBy(() -> new StreamingMeterPartition(0, 10, "", "", ""))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new StreamingMeterPartition(10, 0, "", "", ""))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private List<String> partition(StreamingMeterPartition partition) {
+        List<String> batches = new ArrayList<>();
+        partition.forEachBatch(registry, m -> Stream.of(m.getId().getName()), batch -> {
+            assertThat(batch.asByteBuffer().remaining()).isEqualTo(batch.size());
+            batches.add(batch.toString());
+        });
+        return batches;
+    }
+}
@@ -0,0 +1,70 @@
+/**
+ * Copyright 2020 VMware, Inc.
+ * <p>
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * <p>
+ * https://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.micrometer.core.util.internal;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MpscSequencerTest {
+
+    @Test
+    void sizeIsRoundedUpToAPowerOfTwo() {
+        assertThat(new MpscSequencer(1).size()).isEqualTo(1);
+        assertThat(new MpscSequencer(3).size()).isEqualTo(4);
+        assertThat(new MpscSequencer(4).size()).isEqualTo(4);
+    }
+
+    @Test
+    void onlyPublishedSlotsCanBeConsumed() {
+        MpscSequencer sequencer = new MpscSequencer(2);
+        long first = sequencer.claim();
+        long second = sequencer.claim();
+
+        assertThat(sequencer.claim()).isEqualTo(-1);
+
+        sequencer.publish(second);
+        // slots are consumed in the order they were claimed
+        assertThat(sequencer.peek()).isEqualTo(-1);
+
+        sequencer.publish(first);
+        assertThat(sequencer.peek()).isEqualTo(sequencer.index(first));
+        sequencer.release();
+        assertThat(sequencer.peek()).isEqualTo(sequencer.index(second));
+    }
+
+    @Test
+    void releasedSlotsAreClaimedOnTheNextLap() {
+        MpscSequencer sequencer = new MpscSequencer(2);
+        for (long expected = 0; expected < 10; expected++) {
+            long position = sequencer.claim();
+            assertThat(position).isEqualTo(expected);
+            sequencer.publish(position);
+
+            assertThat(sequencer.peek()).isEqualTo((int) expected % 2);
+            sequencer.release();
+            assertThat(sequencer.peek()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void capacityMustBeInRange() {
+        assertThatThrownBy(() -> new MpscSequencer(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new MpscSequencer(MpscSequencer.MAX_CAPACITY + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -62,4 +62,53 @@ public class DefaultLongTaskTimerTest {
         assertThat(countAtBuckets[2].bucket(TimeUnit.MINUTES)).isEqualTo(1);
         assertThat(countAtBuckets[2].count()).isEqualTo(11);
     }
+
+    @Test
+    @DisplayName("active task aggregates follow tasks stopped in any order")
+    void aggregatesAfterStoppingTasksOutOfOrder() {
+        MeterRegistry registry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, new MockClock());
+        LongTaskTimer t = LongTaskTimer.builder("my.timer").register(registry);
+
+        LongTaskTimer.Sample oldest = t.start();
+        clock(registry).add(10, TimeUnit.SECONDS);
+        LongTaskTimer.Sample middle = t.start();
+        clock(registry).add(10, TimeUnit.SECONDS);
+        t.start();
+        clock(registry).add(10, TimeUnit.SECONDS);
+
+        assertThat(t.activeTasks()).isEqualTo(3);
+        assertThat(t.duration(TimeUnit.SECONDS)).isEqualTo(60);
+        assertThat(t.max(TimeUnit.SECONDS)).isEqualTo(30);
+
+        assertThat(middle.stop()).isEqualTo(TimeUnit.SECONDS.toNanos(20));
+        assertThat(middle.stop()).isEqualTo(-1);
+        assertThat(t.activeTasks()).isEqualTo(2);
+        assertThat(t.duration(TimeUnit.SECONDS)).isEqualTo(40);
+
+        oldest.stop();
+        assertThat(t.activeTasks()).isEqualTo(1);
+        assertThat(t.duration(TimeUnit.SECONDS)).isEqualTo(10);
+        assertThat(t.max(TimeUnit.SECONDS)).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("a task longer than several buckets is only counted in the buckets above it")
+    void taskSpanningSeveralBuckets() {
+        MeterRegistry registry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, new MockClock());
+
+        LongTaskTimer t = LongTaskTimer.builder("my.timer")
+                .serviceLevelObjectives(Duration.ofSeconds(10), Duration.ofSeconds(40), Duration.ofMinutes(1))
+                .register(registry);
+
+        t.start();
+        clock(registry).add(50, TimeUnit.SECONDS);
+        t.start();
+        clock(registry).add(5, TimeUnit.SECONDS);
+
+        CountAtBucket[] countAtBuckets = t.takeSnapshot().histogramCounts();
+
+        assertThat(countAtBuckets[0].count()).isEqualTo(1);
+        assertThat(countAtBuckets[1].count()).isEqualTo(1);
+        assertThat(countAtBuckets[2].count()).isEqualTo(2);
+    }
 }